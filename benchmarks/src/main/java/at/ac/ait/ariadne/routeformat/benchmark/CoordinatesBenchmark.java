@@ -0,0 +1,68 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatMapper;
+
+/**
+ * Parsing of GeoJSON coordinates, i.e. the dominating part of reading larger
+ * responses
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinatesBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    private int points;
+
+    private ObjectReader coordinateReader, lineStringReader;
+    private byte[] coordinate, lineString;
+
+    @Setup
+    public void setup() throws IOException {
+        GeoJSONLineString geometry = RouteSize.SMALL.createGenerator().setSegmentsPerRoute(1)
+                .setPointsPerSegment(points).createResponse(0).getRoutes().get(0).getSegments().get(0)
+                .getGeometryGeoJson().get().getGeometry();
+        RouteFormatMapper mapper = RouteFormatMapper.getDefault();
+        coordinateReader = mapper.getReader(GeoJSONCoordinate.class);
+        lineStringReader = mapper.getReader(GeoJSONLineString.class);
+        coordinate = mapper.getWriter().writeValueAsBytes(geometry.getCoordinates().get(0));
+        lineString = mapper.getWriter().writeValueAsBytes(geometry);
+    }
+
+    /** {@link at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinateDeserializer} */
+    @Benchmark
+    public GeoJSONCoordinate deserializeCoordinate() throws IOException {
+        return coordinateReader.readValue(coordinate);
+    }
+
+    /** {@link at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinatesDeserializer} */
+    @Benchmark
+    public GeoJSONLineString deserializeLineString() throws IOException {
+        return lineStringReader.readValue(lineString);
+    }
+
+}
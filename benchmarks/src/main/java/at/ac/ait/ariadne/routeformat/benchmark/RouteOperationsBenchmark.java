@@ -0,0 +1,87 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.Routes;
+import at.ac.ait.ariadne.routeformat.util.RouteSegmentMerger;
+
+/**
+ * Operations on routes that are already in memory: merging, validation,
+ * queries and conversion of the geometries to WKT
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteOperationsBenchmark {
+
+    @Param
+    private RouteSize size;
+
+    private Route route;
+    private List<List<RouteSegment>> routesToMerge;
+
+    @Setup
+    public void setup() {
+        route = size.createGenerator().setAlternatives(1).createResponse(0).getRoutes().get(0);
+        // the segments of a route are consecutive, i.e. the two halves can be merged again
+        List<RouteSegment> segments = route.getSegments();
+        int half = Math.max(1, segments.size() / 2);
+        routesToMerge = Arrays.asList(new ArrayList<>(segments.subList(0, half)),
+                new ArrayList<>(segments.subList(half, segments.size())));
+        if (routesToMerge.get(1).isEmpty())
+            routesToMerge = routesToMerge.subList(0, 1);
+    }
+
+    @Benchmark
+    public List<RouteSegment> createMergedSegments() {
+        return new RouteSegmentMerger(routesToMerge).createMergedSegments();
+    }
+
+    @Benchmark
+    public Route validate() {
+        route.validate(true);
+        return route;
+    }
+
+    @Benchmark
+    public void routesQueries(Blackhole blackhole) {
+        blackhole.consume(Routes.isIntermodal(route));
+        blackhole.consume(Routes.countChanges(route));
+        blackhole.consume(Routes.countUniqueModesOfTransport(route));
+        blackhole.consume(Routes.getWaitingSecondsForPublicTransport(route));
+        blackhole.consume(Routes.getTotalDistanceMetersForMot(route, GeneralizedModeOfTransportType.FOOT));
+        blackhole.consume(Routes.getTotalDurationSecondsForMot(route, GeneralizedModeOfTransportType.PUBLIC_TRANSPORT));
+        blackhole.consume(Routes.getFirstSegmentWithMot(route, GeneralizedModeOfTransportType.PUBLIC_TRANSPORT));
+    }
+
+    @Benchmark
+    public void toWKT(Blackhole blackhole) {
+        for (RouteSegment segment : route.getSegments())
+            blackhole.consume(segment.getGeometryGeoJson().get().toWKT());
+    }
+
+}
@@ -0,0 +1,42 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import at.ac.ait.ariadne.routeformat.example.SyntheticRouteGenerator;
+
+/**
+ * Response sizes used as benchmark parameter
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public enum RouteSize {
+    /** one short route as e.g. for a walking request */
+    SMALL(1, 1, 10, 3, 0, 0),
+    /** a few intermodal alternatives */
+    TYPICAL(3, 5, 50, 5, 3, 2),
+    /** many long alternatives with detailed geometries */
+    HUGE(10, 15, 1000, 40, 20, 20);
+
+    private final int alternatives, segmentsPerRoute, pointsPerSegment, instructionsPerSegment,
+            intermediateStopsPerSegment, additionalInfoEntries;
+
+    private RouteSize(int alternatives, int segmentsPerRoute, int pointsPerSegment, int instructionsPerSegment,
+            int intermediateStopsPerSegment, int additionalInfoEntries) {
+        this.alternatives = alternatives;
+        this.segmentsPerRoute = segmentsPerRoute;
+        this.pointsPerSegment = pointsPerSegment;
+        this.instructionsPerSegment = instructionsPerSegment;
+        this.intermediateStopsPerSegment = intermediateStopsPerSegment;
+        this.additionalInfoEntries = additionalInfoEntries;
+    }
+
+    /**
+     * @return a generator with a fixed seed, i.e. all benchmark runs use the
+     *         same routes
+     */
+    public SyntheticRouteGenerator createGenerator() {
+        return new SyntheticRouteGenerator(2016).setAlternatives(alternatives).setSegmentsPerRoute(segmentsPerRoute)
+                .setPointsPerSegment(pointsPerSegment).setInstructionsPerSegment(instructionsPerSegment)
+                .setIntermediateStopsPerSegment(intermediateStopsPerSegment)
+                .setAdditionalInfoEntries(additionalInfoEntries);
+    }
+
+}
@@ -0,0 +1,97 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteTable;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.SyntheticCorpusWriter;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatMapper;
+
+/**
+ * Modal split (distance per generalized mode of transport) of a corpus of
+ * responses with the columnar {@link RouteTable} and with the objects
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteTableBenchmark {
+
+    @Param({ "1000" })
+    private int responses;
+
+    private byte[] ndjson;
+    private List<Route> routes;
+    private RouteTable table;
+
+    @Setup
+    public void setup() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SyntheticCorpusWriter(RouteSize.TYPICAL.createGenerator()).write(out, responses);
+        ndjson = out.toByteArray();
+        routes = RouteSize.TYPICAL.createGenerator().createResponses(0, responses)
+                .flatMap(r -> r.getRoutes().stream()).collect(Collectors.toList());
+        table = new RouteTable();
+        routes.forEach(table::add);
+    }
+
+    @Benchmark
+    public long[] modalSplitFromObjects() {
+        long[] sums = new long[GeneralizedModeOfTransportType.values().length];
+        for (Route route : routes)
+            route.getSegments().forEach(s -> sums[s.getModeOfTransport().getGeneralizedType().ordinal()] += s
+                    .getDistanceMeters());
+        return sums;
+    }
+
+    @Benchmark
+    public long[] modalSplitFromTable() {
+        return table.sumDistanceMetersByGeneralizedType();
+    }
+
+    /** binding the whole object graph */
+    @Benchmark
+    public long[] modalSplitFromJsonViaObjects() throws IOException {
+        long[] sums = new long[GeneralizedModeOfTransportType.values().length];
+        try (MappingIterator<RoutingResponse> iterator = RouteFormatMapper.getDefault()
+                .getReader(RoutingResponse.class).readValues(ndjson)) {
+            while (iterator.hasNext()) {
+                for (Route route : iterator.next().getRoutes())
+                    route.getSegments().forEach(s -> sums[s.getModeOfTransport().getGeneralizedType().ordinal()] += s
+                            .getDistanceMeters());
+            }
+        }
+        return sums;
+    }
+
+    @Benchmark
+    public long[] modalSplitFromJsonViaTable() throws IOException {
+        return new RouteTable().readJson(new ByteArrayInputStream(ndjson)).sumDistanceMetersByGeneralizedType();
+    }
+
+}
@@ -0,0 +1,99 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.util.ByteBufferOutput;
+import at.ac.ait.ariadne.routeformat.util.ByteBufferPool;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatMapper;
+
+/**
+ * Writing and reading complete {@link RoutingResponse}s as JSON and in the
+ * binary form, and writing JSON into direct {@link ByteBuffer}s (via a
+ * {@link String} or directly into pooled chunks)
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param
+    private RouteSize size;
+
+    private RoutingResponse response;
+    private ObjectWriter jsonWriter, binaryWriter;
+    private ObjectReader jsonReader, binaryReader;
+    private byte[] json, binary;
+
+    @Setup
+    public void setup() throws IOException {
+        response = size.createGenerator().createResponse(0);
+        jsonWriter = RouteFormatMapper.getDefault().getWriter(RoutingResponse.class);
+        jsonReader = RouteFormatMapper.getDefault().getReader(RoutingResponse.class);
+        binaryWriter = RouteFormatMapper.getBinary().getWriter(RoutingResponse.class);
+        binaryReader = RouteFormatMapper.getBinary().getReader(RoutingResponse.class);
+        json = jsonWriter.writeValueAsBytes(response);
+        binary = binaryWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return jsonWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public RoutingResponse deserializeJson() throws IOException {
+        return jsonReader.readValue(json);
+    }
+
+    @Benchmark
+    public ByteBuffer serializeJsonToDirectBufferViaString() throws IOException {
+        byte[] bytes = jsonWriter.writeValueAsString(response).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        return buffer;
+    }
+
+    @Benchmark
+    public long serializeJsonToPooledDirectBuffers() throws IOException {
+        ByteBufferOutput out = RouteFormatMapper.getDefault().writeValue(response,
+                new ByteBufferOutput(ByteBufferPool.getDirect()));
+        long size = out.size();
+        out.release();
+        return size;
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() throws IOException {
+        return binaryWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public RoutingResponse deserializeBinary() throws IOException {
+        return binaryReader.readValue(binary);
+    }
+
+}
@@ -0,0 +1,83 @@
+package at.ac.ait.ariadne.routeformat.benchmark;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.ac.ait.ariadne.routeformat.util.EpochTime;
+import at.ac.ait.ariadne.routeformat.util.Utils;
+
+/**
+ * Parsing and formatting of single timestamps, the general
+ * {@link java.time.format.DateTimeFormatter} variants are the baseline
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimestampBenchmark {
+
+    /** the fixed format with offset and UTC and a timestamp for the fallback */
+    @Param({ "2017-03-14T09:26:53+01:00", "2017-03-14T08:26:53Z", "2017-03-14T09:26:53.589+01:00[Europe/Vienna]" })
+    private String timestamp;
+
+    private ZonedDateTime zonedDateTime;
+    private char[] buffer;
+
+    @Setup
+    public void setup() {
+        zonedDateTime = ZonedDateTime.parse(timestamp).withZoneSameInstant(ZoneId.of("Europe/Vienna"));
+        buffer = new char[EpochTime.MAX_LENGTH];
+    }
+
+    @Benchmark
+    public ZonedDateTime parseBaseline() {
+        return ZonedDateTime.parse(timestamp).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /** used by the setters of the model classes with {@link ZonedDateTime} */
+    @Benchmark
+    public ZonedDateTime parseDateTime() {
+        return Utils.parseDateTime(timestamp, "timestamp");
+    }
+
+    /** used by the setters of the model classes with {@link EpochTime} */
+    @Benchmark
+    public EpochTime parseEpochTime() {
+        return Utils.parseEpochTime(timestamp, "timestamp");
+    }
+
+    @Benchmark
+    public String formatBaseline() {
+        return Utils.FORMATTER.format(zonedDateTime);
+    }
+
+    /** without the cached string of a parsed time */
+    @Benchmark
+    public String formatEpochTime() {
+        return EpochTime.of(zonedDateTime).toString();
+    }
+
+    @Benchmark
+    public int formatEpochTimeIntoBuffer() {
+        return EpochTime.of(zonedDateTime).format(buffer, 0);
+    }
+
+}
@@ -3,7 +3,6 @@ package at.ac.ait.ariadne.routeformat;
 import java.time.ZonedDateTime;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -12,6 +11,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
+import at.ac.ait.ariadne.routeformat.util.EpochTime;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -27,11 +28,11 @@ import at.ac.ait.ariadne.routeformat.util.Utils;
 @JsonInclude(Include.NON_ABSENT)
 public class IntermediateStop implements Validatable {
     private Location<?> stop;
-    private Optional<ZonedDateTime> plannedArrivalTime = Optional.empty();
-    private Optional<ZonedDateTime> plannedDepartureTime = Optional.empty();
-    private Optional<ZonedDateTime> estimatedArrivalTime = Optional.empty();
-    private Optional<ZonedDateTime> estimatedDepartureTime = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Optional<EpochTime> plannedArrivalTime = Optional.empty();
+    private Optional<EpochTime> plannedDepartureTime = Optional.empty();
+    private Optional<EpochTime> estimatedArrivalTime = Optional.empty();
+    private Optional<EpochTime> estimatedDepartureTime = Optional.empty();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -43,7 +44,7 @@ public class IntermediateStop implements Validatable {
      * @return static time according to a time table
      */
     public Optional<String> getPlannedArrivalTime() {
-        return plannedArrivalTime.map(time -> Utils.getDateTimeString(time));
+        return plannedArrivalTime.map(EpochTime::toString);
     }
 
     /**
@@ -51,6 +52,14 @@ public class IntermediateStop implements Validatable {
      */
     @JsonIgnore
     public Optional<ZonedDateTime> getPlannedArrivalTimeAsZonedDateTime() {
+        return plannedArrivalTime.map(EpochTime::toZonedDateTime);
+    }
+
+    /**
+     * @return static time according to a time table
+     */
+    @JsonIgnore
+    public Optional<EpochTime> getPlannedArrivalTimeAsEpochTime() {
         return plannedArrivalTime;
     }
 
@@ -58,7 +67,7 @@ public class IntermediateStop implements Validatable {
      * @return static time according to a time table
      */
     public Optional<String> getPlannedDepartureTime() {
-        return plannedDepartureTime.map(time -> Utils.getDateTimeString(time));
+        return plannedDepartureTime.map(EpochTime::toString);
     }
 
     /**
@@ -66,6 +75,14 @@ public class IntermediateStop implements Validatable {
      */
     @JsonIgnore
     public Optional<ZonedDateTime> getPlannedDepartureTimeAsZonedDateTime() {
+        return plannedDepartureTime.map(EpochTime::toZonedDateTime);
+    }
+
+    /**
+     * @return static time according to a time table
+     */
+    @JsonIgnore
+    public Optional<EpochTime> getPlannedDepartureTimeAsEpochTime() {
         return plannedDepartureTime;
     }
 
@@ -73,7 +90,7 @@ public class IntermediateStop implements Validatable {
      * @return time estimated via real-time data
      */
     public Optional<String> getEstimatedArrivalTime() {
-        return estimatedArrivalTime.map(time -> Utils.getDateTimeString(time));
+        return estimatedArrivalTime.map(EpochTime::toString);
     }
 
     /**
@@ -81,6 +98,14 @@ public class IntermediateStop implements Validatable {
      */
     @JsonIgnore
     public Optional<ZonedDateTime> getEstimatedArrivalTimeAsZonedDateTime() {
+        return estimatedArrivalTime.map(EpochTime::toZonedDateTime);
+    }
+
+    /**
+     * @return time estimated via real-time data
+     */
+    @JsonIgnore
+    public Optional<EpochTime> getEstimatedArrivalTimeAsEpochTime() {
         return estimatedArrivalTime;
     }
 
@@ -88,7 +113,7 @@ public class IntermediateStop implements Validatable {
      * @return time estimated via real-time data
      */
     public Optional<String> getEstimatedDepartureTime() {
-        return estimatedDepartureTime.map(time -> Utils.getDateTimeString(time));
+        return estimatedDepartureTime.map(EpochTime::toString);
     }
 
     /**
@@ -96,6 +121,14 @@ public class IntermediateStop implements Validatable {
      */
     @JsonIgnore
     public Optional<ZonedDateTime> getEstimatedDepartureTimeAsZonedDateTime() {
+        return estimatedDepartureTime.map(EpochTime::toZonedDateTime);
+    }
+
+    /**
+     * @return time estimated via real-time data
+     */
+    @JsonIgnore
+    public Optional<EpochTime> getEstimatedDepartureTimeAsEpochTime() {
         return estimatedDepartureTime;
     }
 
@@ -112,58 +145,55 @@ public class IntermediateStop implements Validatable {
 
     @JsonIgnore
     public IntermediateStop setPlannedArrivalTime(ZonedDateTime plannedArrivalTime) {
-        this.plannedArrivalTime = Optional.ofNullable(plannedArrivalTime);
+        this.plannedArrivalTime = Optional.ofNullable(plannedArrivalTime).map(EpochTime::of);
         return this;
     }
 
     @JsonProperty
     public IntermediateStop setPlannedArrivalTime(String plannedArrivalTime) {
-        this.plannedArrivalTime = Optional
-                .ofNullable(Utils.parseDateTime(plannedArrivalTime, "plannedArrivalTime"));
+        this.plannedArrivalTime = Optional.of(Utils.parseEpochTime(plannedArrivalTime, "plannedArrivalTime"));
         return this;
     }
 
     @JsonIgnore
     public IntermediateStop setPlannedDepartureTime(ZonedDateTime plannedDepartureTime) {
-        this.plannedDepartureTime = Optional.ofNullable(plannedDepartureTime);
+        this.plannedDepartureTime = Optional.ofNullable(plannedDepartureTime).map(EpochTime::of);
         return this;
     }
 
     @JsonProperty
     public IntermediateStop setPlannedDepartureTime(String plannedDepartureTime) {
-        this.plannedDepartureTime = Optional
-                .ofNullable(Utils.parseDateTime(plannedDepartureTime, "plannedDepartureTime"));
+        this.plannedDepartureTime = Optional.of(Utils.parseEpochTime(plannedDepartureTime, "plannedDepartureTime"));
         return this;
     }
 
     @JsonIgnore
     public IntermediateStop setEstimatedArrivalTime(ZonedDateTime estimatedArrivalTime) {
-        this.estimatedArrivalTime = Optional.ofNullable(estimatedArrivalTime);
+        this.estimatedArrivalTime = Optional.ofNullable(estimatedArrivalTime).map(EpochTime::of);
         return this;
     }
 
     @JsonProperty
     public IntermediateStop setEstimatedArrivalTime(String estimatedArrivalTime) {
-        this.estimatedArrivalTime = Optional
-                .ofNullable(Utils.parseDateTime(estimatedArrivalTime, "estimatedArrivalTime"));
+        this.estimatedArrivalTime = Optional.of(Utils.parseEpochTime(estimatedArrivalTime, "estimatedArrivalTime"));
         return this;
     }
 
     @JsonIgnore
     public IntermediateStop setEstimatedDepartureTime(ZonedDateTime estimatedDepartureTime) {
-        this.estimatedDepartureTime = Optional.ofNullable(estimatedDepartureTime);
+        this.estimatedDepartureTime = Optional.ofNullable(estimatedDepartureTime).map(EpochTime::of);
         return this;
     }
 
     @JsonProperty
     public IntermediateStop setEstimatedDepartureTime(String estimatedDepartureTime) {
         this.estimatedDepartureTime = Optional
-                .ofNullable(Utils.parseDateTime(estimatedDepartureTime, "estimatedDepartureTime"));
+                .of(Utils.parseEpochTime(estimatedDepartureTime, "estimatedDepartureTime"));
         return this;
     }
 
     public IntermediateStop setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -3,7 +3,6 @@ package at.ac.ait.ariadne.routeformat;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -15,6 +14,7 @@ import at.ac.ait.ariadne.routeformat.Constants.DetailedModeOfTransportType;
 import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
 import at.ac.ait.ariadne.routeformat.Constants.Sharing;
 import at.ac.ait.ariadne.routeformat.Constants.VehicleAccessibility;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * Contains information about the mode of transport up to the detail level of
@@ -60,7 +60,7 @@ public class ModeOfTransport implements Validatable {
     private Optional<Sharing> sharingType = Optional.empty();
     private Set<VehicleAccessibility> accessibility = new TreeSet<>();
     private Optional<String> color = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -211,7 +211,7 @@ public class ModeOfTransport implements Validatable {
     }
 
     public ModeOfTransport setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
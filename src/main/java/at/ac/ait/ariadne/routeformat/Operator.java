@@ -2,7 +2,6 @@ package at.ac.ait.ariadne.routeformat;
 
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -10,6 +9,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.location.Address;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * {@link Operator} of a {@link ModeOfTransport} such as a public transport or
@@ -31,7 +31,7 @@ public class Operator implements Validatable {
     private Optional<String> website = Optional.empty();
     private Optional<String> customerServiceEmail = Optional.empty();
     private Optional<String> customerServicePhone = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -97,7 +97,7 @@ public class Operator implements Validatable {
     }
 
     public Operator setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
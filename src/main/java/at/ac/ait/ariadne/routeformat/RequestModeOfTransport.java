@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -16,6 +15,7 @@ import com.google.common.base.Preconditions;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONMultiPolygon;
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -46,7 +46,7 @@ public class RequestModeOfTransport<T extends RequestModeOfTransport<T>> impleme
     private Optional<String> speed = Optional.empty();
     private List<Location<?>> locations = new ArrayList<>();
     private Optional<GeoJSONFeature<GeoJSONMultiPolygon>> forbiddenAreas = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -165,7 +165,7 @@ public class RequestModeOfTransport<T extends RequestModeOfTransport<T>> impleme
 
     @SuppressWarnings("unchecked")
     public T setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return (T) this;
     }
 
@@ -1,12 +1,13 @@
 package at.ac.ait.ariadne.routeformat;
 
-import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
+import java.util.RandomAccess;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +22,9 @@ import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
+import at.ac.ait.ariadne.routeformat.util.EpochTime;
+import at.ac.ait.ariadne.routeformat.util.Snapshot;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -48,15 +52,18 @@ public class Route implements Validatable {
     private Location<?> to;
     private int distanceMeters;
     private int durationSeconds;
-    private List<RouteSegment> segments = new ArrayList<>();
+    private SegmentList segments = new SegmentList(this);
     private Optional<String> id = Optional.empty();
-    private ZonedDateTime startTime = null;
-    private ZonedDateTime endTime = null;
+    private EpochTime startTime = null;
+    private EpochTime endTime = null;
     private Optional<String> optimizedFor = Optional.empty();
     private Optional<GeoJSONFeature<GeoJSONPolygon>> boundingBox = Optional.empty();
     private Optional<String> simplifiedGeometryEncodedPolyLine = Optional.empty();
     private Optional<GeoJSONFeature<GeoJSONLineString>> simplifiedGeometryGeoJson = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
+    /** lazily calculated, see {@link #getSummary()} */
+    private RouteSummary summary;
+    private int summaryVersion;
 
     // -- getters
 
@@ -85,25 +92,55 @@ public class Route implements Validatable {
         return segments;
     }
 
+    /**
+     * @return the summary of the segments, which is calculated once and cached
+     *         until the list of segments or a summarized property of one of
+     *         the segments (mode of transport, distance, duration, boarding
+     *         and alighting seconds) is set. Modifications of the
+     *         {@link ModeOfTransport} object of a segment itself are not
+     *         detected, in this case call {@link #invalidateSummary()}.
+     */
+    @JsonIgnore
+    public RouteSummary getSummary() {
+        RouteSummary result = summary;
+        int version = segments.version();
+        if (result == null || summaryVersion != version) {
+            result = RouteSummary.of(segments);
+            summaryVersion = version;
+            summary = result;
+        }
+        return result;
+    }
+
     public Optional<String> getId() {
         return id;
     }
 
     public String getStartTime() {
-        return Utils.getDateTimeString(startTime);
+        return startTime.toString();
     }
 
     @JsonIgnore
     public ZonedDateTime getStartTimeAsZonedDateTime() {
+        return startTime == null ? null : startTime.toZonedDateTime();
+    }
+
+    @JsonIgnore
+    public EpochTime getStartTimeAsEpochTime() {
         return startTime;
     }
 
     public String getEndTime() {
-        return Utils.getDateTimeString(endTime);
+        return endTime.toString();
     }
 
     @JsonIgnore
     public ZonedDateTime getEndTimeAsZonedDateTime() {
+        return endTime == null ? null : endTime.toZonedDateTime();
+    }
+
+    @JsonIgnore
+    public EpochTime getEndTimeAsEpochTime() {
         return endTime;
     }
 
@@ -166,7 +203,18 @@ public class Route implements Validatable {
     }
 
     public Route setSegments(List<RouteSegment> segments) {
-        this.segments = new ArrayList<>(segments);
+        this.segments.detach();
+        this.segments = new SegmentList(this, segments);
+        this.summary = null;
+        return this;
+    }
+
+    /**
+     * Discards the cached {@link #getSummary()}, e.g. after the
+     * {@link ModeOfTransport} of a segment was modified
+     */
+    public Route invalidateSummary() {
+        this.summary = null;
         return this;
     }
 
@@ -177,25 +225,25 @@ public class Route implements Validatable {
 
     @JsonIgnore
     public Route setStartTime(ZonedDateTime startTime) {
-        this.startTime = startTime;
+        this.startTime = startTime == null ? null : EpochTime.of(startTime);
         return this;
     }
 
     @JsonProperty
     public Route setStartTime(String startTime) {
-        this.startTime = Utils.parseDateTime(startTime, "startTime");
+        this.startTime = Utils.parseEpochTime(startTime, "startTime");
         return this;
     }
 
     @JsonIgnore
     public Route setEndTime(ZonedDateTime endTime) {
-        this.endTime = endTime;
+        this.endTime = endTime == null ? null : EpochTime.of(endTime);
         return this;
     }
 
     @JsonProperty
     public Route setEndTime(String endTime) {
-        this.endTime = Utils.parseDateTime(endTime, "endTime");
+        this.endTime = Utils.parseEpochTime(endTime, "endTime");
         return this;
     }
 
@@ -220,7 +268,7 @@ public class Route implements Validatable {
     }
 
     public Route setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -237,7 +285,7 @@ public class Route implements Validatable {
 
     /**
      * Sets segments and infers from/to location, start/end time, duration,
-     * length, and bounding box (from geometryGeoJson)
+     * length, and bounding box (from geometryGeoJson and geometryGeoJsonEdges)
      */
     public static Route createFromSegments(List<RouteSegment> segments) {
         Route route = new Route().setSegments(segments);
@@ -246,17 +294,27 @@ public class Route implements Validatable {
             RouteSegment last = segments.get(segments.size() - 1);
             route.setFrom(first.getFrom());
             route.setTo(last.getTo());
-            route.setStartTime(first.getStartTime());
-            route.setEndTime(last.getEndTime());
+            route.startTime = first.getStartTimeAsEpochTime();
+            route.endTime = last.getEndTimeAsEpochTime();
             route.setDistanceMeters(segments.stream().mapToInt(s -> s.getDistanceMeters()).sum());
-            route.setDurationSeconds(
-                    (int) (Duration.between(route.getStartTimeAsZonedDateTime(), route.getEndTimeAsZonedDateTime())
-                            .toMillis() / 1000));
+            route.setDurationSeconds((int) route.startTime.secondsUntil(route.endTime));
             Utils.getBoundingBoxFromGeometryGeoJson(segments).ifPresent(b -> route.setBoundingBox(b));
         }
         return route;
     }
 
+    /**
+     * @return an immutable snapshot of the current state that can be shared
+     *         by several threads, later changes of this object do not affect
+     *         it. Snapshots are written as JSON and read through an untyped
+     *         view (see {@link Snapshot#get(Object...)}) without copying, but
+     *         model objects are only available as a decoded copy (see
+     *         {@link Snapshot#thaw()}).
+     */
+    public Snapshot<Route> freeze() {
+        return Snapshot.of(this, Route.class);
+    }
+
     @Override
     public void validate() {
         validate(false);
@@ -286,7 +344,7 @@ public class Route implements Validatable {
 
             Preconditions.checkArgument(!endTime.isBefore(startTime), "startTime must be <= endTime");
 
-            long durationBetweenTimestamps = Duration.between(startTime, endTime).getSeconds();
+            long durationBetweenTimestamps = startTime.secondsUntil(endTime);
             Preconditions.checkArgument(durationSeconds == durationBetweenTimestamps,
                     "durationSeconds does not match seconds between start & end time: %s!=%s", durationSeconds,
                     durationBetweenTimestamps);
@@ -403,4 +461,105 @@ public class Route implements Validatable {
                 + durationSeconds + ", id=" + id + ", startTime=" + startTime + ", endTime=" + endTime
                 + ", optimizedFor=" + optimizedFor + ", segments=" + segments.size() + "]";
     }
+
+    /**
+     * Modifiable list of segments that counts all modifications (including
+     * replacing elements and modifications through sub lists and iterators,
+     * which are routed through {@link #set(int, RouteSegment)},
+     * {@link #add(int, RouteSegment)} and {@link #remove(int)}), so that the
+     * cached summary can be checked in constant time. The modification count
+     * of {@link AbstractList} is only incremented for structural
+     * modifications, so replacing elements while iterating still works.
+     * Contained segments know the route, so that they can discard its summary
+     * when they are modified.
+     */
+    private static class SegmentList extends AbstractList<RouteSegment> implements RandomAccess {
+        private final Route route;
+        private final ArrayList<RouteSegment> segments;
+        private int version;
+
+        SegmentList(Route route) {
+            this.route = route;
+            this.segments = new ArrayList<>();
+        }
+
+        SegmentList(Route route, List<RouteSegment> segments) {
+            this.route = route;
+            this.segments = new ArrayList<>(segments);
+            this.segments.forEach(this::attach);
+        }
+
+        private void attach(RouteSegment segment) {
+            if (segment != null)
+                segment.addRoute(route);
+        }
+
+        private void detach(RouteSegment segment) {
+            if (segment != null)
+                segment.removeRoute(route);
+        }
+
+        /** detaches all segments when the list is replaced */
+        void detach() {
+            segments.forEach(this::detach);
+        }
+
+        @Override
+        public RouteSegment get(int index) {
+            return segments.get(index);
+        }
+
+        @Override
+        public int size() {
+            return segments.size();
+        }
+
+        @Override
+        public RouteSegment set(int index, RouteSegment element) {
+            RouteSegment previous = segments.set(index, element);
+            detach(previous);
+            attach(element);
+            version++;
+            return previous;
+        }
+
+        @Override
+        public void add(int index, RouteSegment element) {
+            segments.add(index, element);
+            attach(element);
+            modCount++;
+            version++;
+        }
+
+        @Override
+        public RouteSegment remove(int index) {
+            RouteSegment removed = segments.remove(index);
+            detach(removed);
+            modCount++;
+            version++;
+            return removed;
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends RouteSegment> c) {
+            modCount++;
+            version++;
+            c.forEach(this::attach);
+            return segments.addAll(c);
+        }
+
+        @Override
+        public void clear() {
+            detach();
+            segments.clear();
+            modCount++;
+            version++;
+        }
+
+        /** @return the number of modifications so far */
+        int version() {
+            return version;
+        }
+    }
+
 }
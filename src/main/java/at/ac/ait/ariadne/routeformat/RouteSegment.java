@@ -1,13 +1,12 @@
 package at.ac.ait.ariadne.routeformat;
 
-import java.time.Duration;
+import java.lang.ref.WeakReference;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,12 +19,17 @@ import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.Constants.Accessibility;
 import at.ac.ait.ariadne.routeformat.Constants.DetailedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.geojson.Envelope;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeatureCollection;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
 import at.ac.ait.ariadne.routeformat.instruction.Instruction;
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
+import at.ac.ait.ariadne.routeformat.util.EpochTime;
+import at.ac.ait.ariadne.routeformat.util.LazyParsingModule;
+import at.ac.ait.ariadne.routeformat.util.RawJsonValue;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -77,8 +81,8 @@ public class RouteSegment implements Validatable {
     private ModeOfTransport modeOfTransport;
     private Optional<Integer> boardingSeconds = Optional.empty();
     private Optional<Integer> alightingSeconds = Optional.empty();
-    private ZonedDateTime startTime = null;
-    private ZonedDateTime endTime = null;
+    private EpochTime startTime = null;
+    private EpochTime endTime = null;
     private List<IntermediateStop> intermediateStops = new ArrayList<>();
     private Optional<GeoJSONFeature<GeoJSONPolygon>> boundingBox = Optional.empty();
     private Optional<String> geometryEncodedPolyLine = Optional.empty();
@@ -86,7 +90,22 @@ public class RouteSegment implements Validatable {
     private Optional<GeoJSONFeatureCollection<GeoJSONLineString>> geometryGeoJsonEdges = Optional.empty();
     private List<Instruction<?>> navigationInstructions = new ArrayList<>();
     private List<Accessibility> accessibility = new ArrayList<>();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
+    // captured by LazyParsingModule, replaced by the parsed value on first
+    // access: the parsed value is written before the raw value is cleared, so
+    // the volatile write of null publishes it to other threads
+    private volatile RawJsonValue<GeoJSONFeature<GeoJSONLineString>> rawGeometryGeoJson = null;
+    private volatile RawJsonValue<GeoJSONFeatureCollection<GeoJSONLineString>> rawGeometryGeoJsonEdges = null;
+    private volatile RawJsonValue<List<Instruction<?>>> rawNavigationInstructions = null;
+    /**
+     * the routes containing this segment, whose cached summary is discarded
+     * when a summarized property is set (see {@link Route#getSummary()}).
+     * Further routes are only weakly referenced, since a segment may be shared
+     * by many short-lived routes (possibly created by different threads, hence
+     * the synchronization).
+     */
+    private Route route = null;
+    private List<WeakReference<Route>> moreRoutes = null;
 
     // -- getters
 
@@ -163,11 +182,16 @@ public class RouteSegment implements Validatable {
      * the start time of this {@link RouteSegment}, i.e. when boarding starts
      */
     public String getStartTime() {
-        return Utils.getDateTimeString(startTime);
+        return startTime.toString();
     }
 
     @JsonIgnore
     public ZonedDateTime getStartTimeAsZonedDateTime() {
+        return startTime == null ? null : startTime.toZonedDateTime();
+    }
+
+    @JsonIgnore
+    public EpochTime getStartTimeAsEpochTime() {
         return startTime;
     }
 
@@ -179,7 +203,7 @@ public class RouteSegment implements Validatable {
      */
     @JsonIgnore
     public ZonedDateTime getDepartureTimeAsZonedDateTime() {
-        return startTime.plusSeconds(boardingSeconds.orElse(0));
+        return startTime.plusSeconds(boardingSeconds.orElse(0)).toZonedDateTime();
     }
 
     /**
@@ -189,7 +213,7 @@ public class RouteSegment implements Validatable {
      */
     @JsonIgnore
     public ZonedDateTime getArrivalTimeAsZonedDateTime() {
-        return endTime.minusSeconds(alightingSeconds.orElse(0));
+        return endTime.plusSeconds(-alightingSeconds.orElse(0)).toZonedDateTime();
     }
 
     /**
@@ -197,11 +221,16 @@ public class RouteSegment implements Validatable {
      *         finished
      */
     public String getEndTime() {
-        return Utils.getDateTimeString(endTime);
+        return endTime.toString();
     }
 
     @JsonIgnore
     public ZonedDateTime getEndTimeAsZonedDateTime() {
+        return endTime == null ? null : endTime.toZonedDateTime();
+    }
+
+    @JsonIgnore
+    public EpochTime getEndTimeAsEpochTime() {
         return endTime;
     }
 
@@ -227,21 +256,103 @@ public class RouteSegment implements Validatable {
 
     /** segment geometry as a single LineString-Feature */
     public Optional<GeoJSONFeature<GeoJSONLineString>> getGeometryGeoJson() {
+        if (rawGeometryGeoJson != null)
+            parseGeometryGeoJson();
         return geometryGeoJson;
     }
 
+    private synchronized void parseGeometryGeoJson() {
+        RawJsonValue<GeoJSONFeature<GeoJSONLineString>> raw = rawGeometryGeoJson;
+        if (raw != null) {
+            geometryGeoJson = Optional.ofNullable(raw.parse());
+            rawGeometryGeoJson = null;
+        }
+    }
+
     /**
      * segment geometry as a collection of LineStrings (one for each edge in the
      * routing graph) with debugging information for each edge
      */
     public Optional<GeoJSONFeatureCollection<GeoJSONLineString>> getGeometryGeoJsonEdges() {
+        if (rawGeometryGeoJsonEdges != null)
+            parseGeometryGeoJsonEdges();
         return geometryGeoJsonEdges;
     }
 
+    private synchronized void parseGeometryGeoJsonEdges() {
+        RawJsonValue<GeoJSONFeatureCollection<GeoJSONLineString>> raw = rawGeometryGeoJsonEdges;
+        if (raw != null) {
+            geometryGeoJsonEdges = Optional.ofNullable(raw.parse());
+            rawGeometryGeoJsonEdges = null;
+        }
+    }
+
+    /**
+     * @return the envelope of {@link #getGeometryGeoJson()} and
+     *         {@link #getGeometryGeoJsonEdges()}, which is combined from the
+     *         cached envelopes of the linestrings (i.e. without looking at
+     *         their coordinates again)
+     */
+    @JsonIgnore
+    public Optional<Envelope> getEnvelope() {
+        Envelope envelope = null;
+        if (getGeometryGeoJson().isPresent())
+            envelope = union(envelope, geometryGeoJson.get().getGeometry());
+        if (getGeometryGeoJsonEdges().isPresent()) {
+            for (GeoJSONFeature<GeoJSONLineString> edge : geometryGeoJsonEdges.get().getFeatures())
+                envelope = union(envelope, edge.getGeometry());
+        }
+        return Optional.ofNullable(envelope);
+    }
+
+    private static Envelope union(Envelope envelope, GeoJSONLineString lineString) {
+        if (lineString == null || !lineString.getEnvelope().isPresent())
+            return envelope;
+        return envelope == null ? lineString.getEnvelope().get() : envelope.union(lineString.getEnvelope().get());
+    }
+
     public List<Instruction<?>> getNavigationInstructions() {
+        if (rawNavigationInstructions != null)
+            parseNavigationInstructions();
         return navigationInstructions;
     }
 
+    private synchronized void parseNavigationInstructions() {
+        RawJsonValue<List<Instruction<?>>> raw = rawNavigationInstructions;
+        if (raw != null) {
+            List<Instruction<?>> parsed = raw.parse();
+            navigationInstructions = parsed == null ? new ArrayList<>() : new ArrayList<>(parsed);
+            rawNavigationInstructions = null;
+        }
+    }
+
+    /**
+     * @return the captured JSON of {@link #getGeometryGeoJson()} if it was
+     *         read with {@link LazyParsingModule} and not accessed yet
+     */
+    @JsonIgnore
+    public Optional<RawJsonValue<GeoJSONFeature<GeoJSONLineString>>> getRawGeometryGeoJson() {
+        return Optional.ofNullable(rawGeometryGeoJson);
+    }
+
+    /**
+     * @return the captured JSON of {@link #getGeometryGeoJsonEdges()} if it
+     *         was read with {@link LazyParsingModule} and not accessed yet
+     */
+    @JsonIgnore
+    public Optional<RawJsonValue<GeoJSONFeatureCollection<GeoJSONLineString>>> getRawGeometryGeoJsonEdges() {
+        return Optional.ofNullable(rawGeometryGeoJsonEdges);
+    }
+
+    /**
+     * @return the captured JSON of {@link #getNavigationInstructions()} if it
+     *         was read with {@link LazyParsingModule} and not accessed yet
+     */
+    @JsonIgnore
+    public Optional<RawJsonValue<List<Instruction<?>>>> getRawNavigationInstructions() {
+        return Optional.ofNullable(rawNavigationInstructions);
+    }
+
     /**
      * @return the ordered list of potential obstacles for mobility impaired
      *         persons (e.g. first up the elevator, then up the stairs,..)
@@ -277,50 +388,55 @@ public class RouteSegment implements Validatable {
 
     public RouteSegment setDistanceMeters(int distanceMeters) {
         this.distanceMeters = distanceMeters;
+        invalidateSummaries();
         return this;
     }
 
     public RouteSegment setDurationSeconds(int durationSeconds) {
         this.durationSeconds = durationSeconds;
+        invalidateSummaries();
         return this;
     }
 
     public RouteSegment setModeOfTransport(ModeOfTransport modeOfTransport) {
         this.modeOfTransport = modeOfTransport;
+        invalidateSummaries();
         return this;
     }
 
     public RouteSegment setBoardingSeconds(Integer boardingSeconds) {
         this.boardingSeconds = Optional.ofNullable(boardingSeconds);
+        invalidateSummaries();
         return this;
     }
 
     public RouteSegment setAlightingSeconds(Integer alightingSeconds) {
         this.alightingSeconds = Optional.ofNullable(alightingSeconds);
+        invalidateSummaries();
         return this;
     }
 
     @JsonIgnore
     public RouteSegment setStartTime(ZonedDateTime startTime) {
-        this.startTime = startTime;
+        this.startTime = startTime == null ? null : EpochTime.of(startTime);
         return this;
     }
 
     @JsonProperty
     public RouteSegment setStartTime(String startTime) {
-        this.startTime = Utils.parseDateTime(startTime, "startTime");
+        this.startTime = Utils.parseEpochTime(startTime, "startTime");
         return this;
     }
 
     @JsonIgnore
     public RouteSegment setEndTime(ZonedDateTime endTime) {
-        this.endTime = endTime;
+        this.endTime = endTime == null ? null : EpochTime.of(endTime);
         return this;
     }
 
     @JsonProperty
     public RouteSegment setEndTime(String endTime) {
-        this.endTime = Utils.parseDateTime(endTime, "endTime");
+        this.endTime = Utils.parseEpochTime(endTime, "endTime");
         return this;
     }
 
@@ -341,16 +457,53 @@ public class RouteSegment implements Validatable {
 
     public RouteSegment setGeometryGeoJson(GeoJSONFeature<GeoJSONLineString> geometryGeoJson) {
         this.geometryGeoJson = Optional.ofNullable(geometryGeoJson);
+        this.rawGeometryGeoJson = null;
         return this;
     }
 
     public RouteSegment setGeometryGeoJsonEdges(GeoJSONFeatureCollection<GeoJSONLineString> geometryGeoJsonEdges) {
         this.geometryGeoJsonEdges = Optional.ofNullable(geometryGeoJsonEdges);
+        this.rawGeometryGeoJsonEdges = null;
         return this;
     }
 
     public RouteSegment setNavigationInstructions(List<Instruction<?>> navigationInstructions) {
         this.navigationInstructions = new ArrayList<>(navigationInstructions);
+        this.rawNavigationInstructions = null;
+        return this;
+    }
+
+    /**
+     * Sets the geometry as captured JSON, which is parsed on the first call of
+     * {@link #getGeometryGeoJson()}
+     */
+    @JsonIgnore
+    public RouteSegment setRawGeometryGeoJson(RawJsonValue<GeoJSONFeature<GeoJSONLineString>> rawGeometryGeoJson) {
+        this.geometryGeoJson = Optional.empty();
+        this.rawGeometryGeoJson = rawGeometryGeoJson;
+        return this;
+    }
+
+    /**
+     * Sets the edges as captured JSON, which is parsed on the first call of
+     * {@link #getGeometryGeoJsonEdges()}
+     */
+    @JsonIgnore
+    public RouteSegment setRawGeometryGeoJsonEdges(
+            RawJsonValue<GeoJSONFeatureCollection<GeoJSONLineString>> rawGeometryGeoJsonEdges) {
+        this.geometryGeoJsonEdges = Optional.empty();
+        this.rawGeometryGeoJsonEdges = rawGeometryGeoJsonEdges;
+        return this;
+    }
+
+    /**
+     * Sets the navigation instructions as captured JSON, which is parsed on the
+     * first call of {@link #getNavigationInstructions()}
+     */
+    @JsonIgnore
+    public RouteSegment setRawNavigationInstructions(RawJsonValue<List<Instruction<?>>> rawNavigationInstructions) {
+        this.navigationInstructions = new ArrayList<>();
+        this.rawNavigationInstructions = rawNavigationInstructions;
         return this;
     }
 
@@ -360,7 +513,7 @@ public class RouteSegment implements Validatable {
     }
 
     public RouteSegment setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -370,12 +523,50 @@ public class RouteSegment implements Validatable {
      */
     public RouteSegment shiftBySeconds(int amountToAdd) {
         if (startTime != null)
-            startTime = startTime.plus(amountToAdd, ChronoUnit.SECONDS);
+            startTime = startTime.plusSeconds(amountToAdd);
         if (endTime != null)
-            endTime = endTime.plus(amountToAdd, ChronoUnit.SECONDS);
+            endTime = endTime.plusSeconds(amountToAdd);
         return this;
     }
 
+    synchronized void addRoute(Route route) {
+        if (this.route == null) {
+            this.route = route;
+            return;
+        }
+        if (moreRoutes == null)
+            moreRoutes = new ArrayList<>(1);
+        moreRoutes.removeIf(r -> r.get() == null);
+        moreRoutes.add(new WeakReference<>(route));
+    }
+
+    synchronized void removeRoute(Route route) {
+        if (this.route == route) {
+            this.route = null;
+            while (this.route == null && moreRoutes != null && !moreRoutes.isEmpty())
+                this.route = moreRoutes.remove(moreRoutes.size() - 1).get();
+        } else if (moreRoutes != null) {
+            for (int i = 0; i < moreRoutes.size(); i++) {
+                if (moreRoutes.get(i).get() == route) {
+                    moreRoutes.remove(i);
+                    return;
+                }
+            }
+        }
+    }
+
+    private synchronized void invalidateSummaries() {
+        if (route != null)
+            route.invalidateSummary();
+        if (moreRoutes != null) {
+            for (WeakReference<Route> reference : moreRoutes) {
+                Route other = reference.get();
+                if (other != null)
+                    other.invalidateSummary();
+            }
+        }
+    }
+
     // --
 
     // no createMinimal! see javadoc for explanation.
@@ -390,10 +581,16 @@ public class RouteSegment implements Validatable {
                 .setIntermediateStops(s.getIntermediateStops());
         s.getBoundingBox().ifPresent(b -> copy.setBoundingBox(b));
         s.getGeometryEncodedPolyLine().ifPresent(g -> copy.setGeometryEncodedPolyLine(g));
-        s.getGeometryGeoJson().ifPresent(g -> copy.setGeometryGeoJson(g));
-        s.getGeometryGeoJsonEdges().ifPresent(g -> copy.setGeometryGeoJsonEdges(g));
-        copy.setNavigationInstructions(s.getNavigationInstructions()).setAccessibility(s.getAccessibility())
+        // captured JSON is copied as is (without parsing it), the raw values
+        // are read first so that values parsed concurrently are visible
+        RawJsonValue<List<Instruction<?>>> rawNavigationInstructions = s.rawNavigationInstructions;
+        copy.rawGeometryGeoJson = s.rawGeometryGeoJson;
+        copy.geometryGeoJson = s.geometryGeoJson;
+        copy.rawGeometryGeoJsonEdges = s.rawGeometryGeoJsonEdges;
+        copy.geometryGeoJsonEdges = s.geometryGeoJsonEdges;
+        copy.setNavigationInstructions(s.navigationInstructions).setAccessibility(s.getAccessibility())
                 .setAdditionalInfo(s.getAdditionalInfo());
+        copy.rawNavigationInstructions = rawNavigationInstructions;
         return copy;
     }
 
@@ -409,6 +606,7 @@ public class RouteSegment implements Validatable {
      *            logged warning)
      */
     public void validate(boolean strongValidation) {
+        parseRawValues();
         Preconditions.checkArgument(nr != null, "nr is mandatory but missing");
         Preconditions.checkArgument(from != null, "from is mandatory but missing for segment #" + nr);
         from.validate();
@@ -442,7 +640,7 @@ public class RouteSegment implements Validatable {
             Preconditions.checkArgument(!endTime.isBefore(startTime), "startTime must be <= endTime for segment #%s",
                     nr);
 
-            long durationBetweenTimestamps = Duration.between(startTime, endTime).getSeconds();
+            long durationBetweenTimestamps = startTime.secondsUntil(endTime);
             Preconditions.checkArgument(durationSeconds == durationBetweenTimestamps,
                     "durationSeconds does not match seconds between start & end time: %s!=%s for segment #%s",
                     durationSeconds, durationBetweenTimestamps, nr);
@@ -451,13 +649,13 @@ public class RouteSegment implements Validatable {
                     + nr;
             for (IntermediateStop stop : intermediateStops) {
                 Preconditions.checkArgument(
-                        Utils.isBetween(startTime, stop.getPlannedArrivalTimeAsZonedDateTime(), endTime), error);
+                        Utils.isBetween(startTime, stop.getPlannedArrivalTimeAsEpochTime(), endTime), error);
                 Preconditions.checkArgument(
-                        Utils.isBetween(startTime, stop.getPlannedDepartureTimeAsZonedDateTime(), endTime), error);
+                        Utils.isBetween(startTime, stop.getPlannedDepartureTimeAsEpochTime(), endTime), error);
                 Preconditions.checkArgument(
-                        Utils.isBetween(startTime, stop.getEstimatedArrivalTimeAsZonedDateTime(), endTime), error);
+                        Utils.isBetween(startTime, stop.getEstimatedArrivalTimeAsEpochTime(), endTime), error);
                 Preconditions.checkArgument(
-                        Utils.isBetween(startTime, stop.getEstimatedDepartureTimeAsZonedDateTime(), endTime), error);
+                        Utils.isBetween(startTime, stop.getEstimatedDepartureTimeAsEpochTime(), endTime), error);
             }
 
             boolean geometryPresent = geometryEncodedPolyLine.isPresent() || geometryGeoJson.isPresent()
@@ -470,8 +668,15 @@ public class RouteSegment implements Validatable {
         }
     }
 
+    private void parseRawValues() {
+        getGeometryGeoJson();
+        getGeometryGeoJsonEdges();
+        getNavigationInstructions();
+    }
+
     @Override
     public int hashCode() {
+        parseRawValues();
         final int prime = 31;
         int result = 1;
         result = prime * result + ((accessibility == null) ? 0 : accessibility.hashCode());
@@ -504,6 +709,8 @@ public class RouteSegment implements Validatable {
         if (getClass() != obj.getClass())
             return false;
         RouteSegment other = (RouteSegment) obj;
+        parseRawValues();
+        other.parseRawValues();
         if (accessibility == null) {
             if (other.accessibility != null)
                 return false;
@@ -599,6 +806,7 @@ public class RouteSegment implements Validatable {
 
     @Override
     public String toString() {
+        ZonedDateTime startTime = getStartTimeAsZonedDateTime(), endTime = getEndTimeAsZonedDateTime();
         StringBuilder builder = new StringBuilder();
         builder.append(String.format("%d: %s %dm %ds (%s ", nr, modeOfTransport.toString(), distanceMeters,
                 durationSeconds, Utils.getShortStringDate(startTime)));
@@ -0,0 +1,240 @@
+package at.ac.ait.ariadne.routeformat;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Constants.DetailedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
+
+/**
+ * Aggregated properties of the segments of a {@link Route} calculated in a
+ * single pass, so that the helper methods in {@link Routes} (e.g. for ranking
+ * many candidate routes) are answered without looking at the segments again.
+ * Distances and durations are stored per mode of transport in arrays indexed
+ * by the ordinal of the type, the used types are stored as bit sets.
+ * <p>
+ * Summaries are immutable and cached by {@link Route#getSummary()}.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class RouteSummary {
+
+    private static final GeneralizedModeOfTransportType[] GENERALIZED_TYPES = GeneralizedModeOfTransportType
+            .values();
+    private static final DetailedModeOfTransportType[] DETAILED_TYPES = DetailedModeOfTransportType.values();
+
+    static {
+        Preconditions.checkState(DETAILED_TYPES.length <= Long.SIZE, "too many detailed types for a bit set");
+    }
+
+    private final int segmentCount;
+    private final int[] distanceMetersByGeneralizedType = new int[GENERALIZED_TYPES.length];
+    private final int[] durationSecondsByGeneralizedType = new int[GENERALIZED_TYPES.length];
+    private final int[] distanceMetersByDetailedType = new int[DETAILED_TYPES.length];
+    private final int[] durationSecondsByDetailedType = new int[DETAILED_TYPES.length];
+    /** index of the first segment with the type or -1 */
+    private final int[] firstSegmentByGeneralizedType = new int[GENERALIZED_TYPES.length];
+    private final int[] firstSegmentByDetailedType = new int[DETAILED_TYPES.length];
+    private final long generalizedTypes, detailedTypes, sharedGeneralizedTypes;
+    private final int changes;
+    private final int waitingSecondsForPublicTransport;
+    private final int uniqueModesOfTransport;
+
+    private RouteSummary(List<RouteSegment> segments) {
+        segmentCount = segments.size();
+        Arrays.fill(firstSegmentByGeneralizedType, -1);
+        Arrays.fill(firstSegmentByDetailedType, -1);
+
+        long generalizedTypes = 0, detailedTypes = 0, sharedGeneralizedTypes = 0;
+        int waitingSecondsForPublicTransport = 0;
+        int nonFootSegments = 0;
+        boolean containsPublicTransport = false;
+        Set<ModeOfTransport> otherModesOfTransport = new HashSet<>();
+        for (int i = 0; i < segmentCount; i++) {
+            RouteSegment segment = segments.get(i);
+            ModeOfTransport mot = segment.getModeOfTransport();
+            GeneralizedModeOfTransportType generalizedType = mot.getGeneralizedType();
+            Optional<DetailedModeOfTransportType> detailedType = mot.getDetailedType();
+
+            int generalized = generalizedType.ordinal();
+            distanceMetersByGeneralizedType[generalized] += segment.getDistanceMeters();
+            durationSecondsByGeneralizedType[generalized] += segment.getDurationSeconds();
+            if (firstSegmentByGeneralizedType[generalized] < 0)
+                firstSegmentByGeneralizedType[generalized] = i;
+            generalizedTypes |= 1L << generalized;
+            if (mot.getSharingType().isPresent())
+                sharedGeneralizedTypes |= 1L << generalized;
+
+            if (detailedType.isPresent()) {
+                int detailed = detailedType.get().ordinal();
+                distanceMetersByDetailedType[detailed] += segment.getDistanceMeters();
+                durationSecondsByDetailedType[detailed] += segment.getDurationSeconds();
+                if (firstSegmentByDetailedType[detailed] < 0)
+                    firstSegmentByDetailedType[detailed] = i;
+                detailedTypes |= 1L << detailed;
+            }
+
+            if (generalizedType != GeneralizedModeOfTransportType.FOOT)
+                nonFootSegments++;
+            boolean transfer = detailedType.isPresent() && detailedType.get() == DetailedModeOfTransportType.TRANSFER;
+            if (generalizedType == GeneralizedModeOfTransportType.PUBLIC_TRANSPORT) {
+                waitingSecondsForPublicTransport += segment.getBoardingSeconds().orElse(0);
+                containsPublicTransport = true;
+            } else if (!transfer) {
+                otherModesOfTransport.add(mot);
+            }
+            if (transfer)
+                waitingSecondsForPublicTransport += segment.getAlightingSeconds().orElse(0);
+        }
+        this.generalizedTypes = generalizedTypes;
+        this.detailedTypes = detailedTypes;
+        this.sharedGeneralizedTypes = sharedGeneralizedTypes;
+        this.waitingSecondsForPublicTransport = waitingSecondsForPublicTransport;
+        this.changes = nonFootSegments - 1;
+        this.uniqueModesOfTransport = otherModesOfTransport.size() + (containsPublicTransport ? 1 : 0);
+    }
+
+    /**
+     * @return the summary of the segments (which is not cached, see
+     *         {@link Route#getSummary()})
+     */
+    public static RouteSummary of(List<RouteSegment> segments) {
+        return new RouteSummary(segments);
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public int getDistanceMeters(GeneralizedModeOfTransportType type) {
+        return distanceMetersByGeneralizedType[type.ordinal()];
+    }
+
+    public int getDistanceMeters(DetailedModeOfTransportType type) {
+        return distanceMetersByDetailedType[type.ordinal()];
+    }
+
+    public int getDurationSeconds(GeneralizedModeOfTransportType type) {
+        return durationSecondsByGeneralizedType[type.ordinal()];
+    }
+
+    public int getDurationSeconds(DetailedModeOfTransportType type) {
+        return durationSecondsByDetailedType[type.ordinal()];
+    }
+
+    /**
+     * @return the index of the first segment with the type or -1
+     */
+    public int getFirstSegmentIndex(GeneralizedModeOfTransportType type) {
+        return firstSegmentByGeneralizedType[type.ordinal()];
+    }
+
+    /**
+     * @return the index of the first segment with the type or -1
+     */
+    public int getFirstSegmentIndex(DetailedModeOfTransportType type) {
+        return firstSegmentByDetailedType[type.ordinal()];
+    }
+
+    public boolean features(GeneralizedModeOfTransportType type) {
+        return (generalizedTypes & bit(type)) != 0;
+    }
+
+    public boolean features(DetailedModeOfTransportType type) {
+        return (detailedTypes & bit(type)) != 0;
+    }
+
+    public boolean featuresShared(GeneralizedModeOfTransportType type) {
+        return (sharedGeneralizedTypes & bit(type)) != 0;
+    }
+
+    /**
+     * @return the number of distinct generalized types
+     */
+    public int countGeneralizedTypes() {
+        return Long.bitCount(generalizedTypes);
+    }
+
+    /**
+     * @return the used generalized types as bit set (bit n is set for the type
+     *         with ordinal n)
+     */
+    public long getGeneralizedTypes() {
+        return generalizedTypes;
+    }
+
+    /**
+     * @return the used detailed types as bit set (bit n is set for the type
+     *         with ordinal n)
+     */
+    public long getDetailedTypes() {
+        return detailedTypes;
+    }
+
+    /**
+     * @return the number of segments that are not walked minus one
+     */
+    public int getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return the seconds spent waiting for public transport vehicles
+     */
+    public int getWaitingSecondsForPublicTransport() {
+        return waitingSecondsForPublicTransport;
+    }
+
+    /**
+     * @return the number of unique mots, where 'classic' public transport only
+     *         counts as one mot
+     */
+    public int getUniqueModesOfTransport() {
+        return uniqueModesOfTransport;
+    }
+
+    static long bit(GeneralizedModeOfTransportType type) {
+        return 1L << type.ordinal();
+    }
+
+    static long bit(DetailedModeOfTransportType type) {
+        return 1L << type.ordinal();
+    }
+
+    static long generalizedBits(Collection<GeneralizedModeOfTransportType> types) {
+        long bits = 0;
+        for (GeneralizedModeOfTransportType type : types)
+            bits |= bit(type);
+        return bits;
+    }
+
+    static long detailedBits(Collection<DetailedModeOfTransportType> types) {
+        long bits = 0;
+        for (DetailedModeOfTransportType type : types)
+            bits |= bit(type);
+        return bits;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("RouteSummary [segmentCount=").append(segmentCount)
+                .append(", distanceMeters={");
+        String separator = "";
+        for (GeneralizedModeOfTransportType type : GENERALIZED_TYPES) {
+            if (features(type)) {
+                builder.append(separator).append(type).append('=').append(getDistanceMeters(type));
+                separator = ", ";
+            }
+        }
+        return builder.append("}, changes=").append(changes).append(", waitingSecondsForPublicTransport=")
+                .append(waitingSecondsForPublicTransport).append(", uniqueModesOfTransport=")
+                .append(uniqueModesOfTransport).append("]").toString();
+    }
+
+}
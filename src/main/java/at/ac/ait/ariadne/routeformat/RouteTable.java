@@ -0,0 +1,560 @@
+package at.ac.ait.ariadne.routeformat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Constants.DetailedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.util.EpochTime;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatMapper;
+
+/**
+ * A columnar, append-only table of the key figures of many {@link Route}s
+ * and their {@link RouteSegment}s for batch analyses such as the modal split
+ * or the number of changes. Every attribute is stored in a primitive array
+ * (a column), the segments of route <code>r</code> are the rows from
+ * {@link #getFirstSegment(int)} (inclusive) to {@link #getLastSegment(int)}
+ * (exclusive). Times are stored as epoch seconds, modes of transport as
+ * ordinals of {@link GeneralizedModeOfTransportType} and
+ * {@link DetailedModeOfTransportType} (-1 for segments without detailed
+ * type).
+ * <p>
+ * Routes are added from objects ({@link #add(Route)}) or directly from JSON
+ * ({@link #readJson(InputStream)}) without binding the object graph, all
+ * other attributes (e.g. geometries) are skipped. The aggregate, filter and
+ * group-by operations are simple loops over the columns. Adding is atomic
+ * per route for {@link #add(Route)} and per response for
+ * {@link #add(RoutingResponse)} and the responses read by
+ * {@link #read(JsonParser)}: if a route or response can not be added (e.g.
+ * due to an unknown mode of transport or invalid JSON) none of its rows
+ * remain in the table. Instances are not thread-safe.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class RouteTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final GeneralizedModeOfTransportType[] GENERALIZED_TYPES = GeneralizedModeOfTransportType
+            .values();
+    private static final DetailedModeOfTransportType[] DETAILED_TYPES = DetailedModeOfTransportType.values();
+
+    // -- route columns
+    private int routeCount = 0;
+    /** route r has the segments from segmentOffset[r] to segmentOffset[r+1] */
+    private int[] segmentOffset = new int[INITIAL_CAPACITY + 1];
+    private int[] routeDistanceMeters = new int[INITIAL_CAPACITY];
+    private int[] routeDurationSeconds = new int[INITIAL_CAPACITY];
+    private long[] routeStartTime = new long[INITIAL_CAPACITY];
+    private long[] routeEndTime = new long[INITIAL_CAPACITY];
+
+    // -- segment columns
+    private int segmentCount = 0;
+    private long[] startTime = new long[INITIAL_CAPACITY];
+    private long[] endTime = new long[INITIAL_CAPACITY];
+    private int[] distanceMeters = new int[INITIAL_CAPACITY];
+    private int[] durationSeconds = new int[INITIAL_CAPACITY];
+    private int[] boardingSeconds = new int[INITIAL_CAPACITY];
+    private int[] alightingSeconds = new int[INITIAL_CAPACITY];
+    private byte[] generalizedType = new byte[INITIAL_CAPACITY];
+    private byte[] detailedType = new byte[INITIAL_CAPACITY];
+
+    // -- adding rows
+
+    /**
+     * Adds all routes of the response
+     */
+    public RouteTable add(RoutingResponse response) {
+        int routes = routeCount, segments = segmentCount;
+        try {
+            for (Route route : response.getRoutes())
+                addRouteAndSegments(route);
+        } catch (RuntimeException e) {
+            rollback(routes, segments);
+            throw e;
+        }
+        return this;
+    }
+
+    public RouteTable add(Route route) {
+        int routes = routeCount, segments = segmentCount;
+        try {
+            addRouteAndSegments(route);
+        } catch (RuntimeException e) {
+            rollback(routes, segments);
+            throw e;
+        }
+        return this;
+    }
+
+    private void addRouteAndSegments(Route route) {
+        for (RouteSegment segment : route.getSegments()) {
+            ModeOfTransport mot = segment.getModeOfTransport();
+            Preconditions.checkArgument(mot != null, "modeOfTransport is mandatory but missing");
+            addSegment(epochSecond(segment.getStartTimeAsEpochTime()), epochSecond(segment.getEndTimeAsEpochTime()),
+                    segment.getDistanceMeters(), segment.getDurationSeconds(), segment.getBoardingSeconds().orElse(0),
+                    segment.getAlightingSeconds().orElse(0), mot.getGeneralizedType(),
+                    mot.getDetailedType().orElse(null));
+        }
+        addRoute(route.getDistanceMeters(), route.getDurationSeconds(), epochSecond(route.getStartTimeAsEpochTime()),
+                epochSecond(route.getEndTimeAsEpochTime()));
+    }
+
+    /**
+     * Discards all rows added after the given counts, segment rows are only
+     * visible through their route so it is enough to reset the counts
+     */
+    private void rollback(int routes, int segments) {
+        routeCount = routes;
+        segmentCount = segments;
+    }
+
+    private static long epochSecond(EpochTime time) {
+        return time == null ? 0 : time.getEpochSecond();
+    }
+
+    private void addSegment(long start, long end, int distance, int duration, int boarding, int alighting,
+            GeneralizedModeOfTransportType generalized, DetailedModeOfTransportType detailed) {
+        Preconditions.checkArgument(generalized != null, "generalizedType is mandatory but missing");
+        if (segmentCount == startTime.length) {
+            int capacity = segmentCount * 2;
+            startTime = Arrays.copyOf(startTime, capacity);
+            endTime = Arrays.copyOf(endTime, capacity);
+            distanceMeters = Arrays.copyOf(distanceMeters, capacity);
+            durationSeconds = Arrays.copyOf(durationSeconds, capacity);
+            boardingSeconds = Arrays.copyOf(boardingSeconds, capacity);
+            alightingSeconds = Arrays.copyOf(alightingSeconds, capacity);
+            generalizedType = Arrays.copyOf(generalizedType, capacity);
+            detailedType = Arrays.copyOf(detailedType, capacity);
+        }
+        startTime[segmentCount] = start;
+        endTime[segmentCount] = end;
+        distanceMeters[segmentCount] = distance;
+        durationSeconds[segmentCount] = duration;
+        boardingSeconds[segmentCount] = boarding;
+        alightingSeconds[segmentCount] = alighting;
+        generalizedType[segmentCount] = (byte) generalized.ordinal();
+        detailedType[segmentCount] = (byte) (detailed == null ? -1 : detailed.ordinal());
+        segmentCount++;
+    }
+
+    /** completes a route with all segments added since the previous route */
+    private void addRoute(int distance, int duration, long start, long end) {
+        if (routeCount == routeDistanceMeters.length) {
+            int capacity = routeCount * 2;
+            segmentOffset = Arrays.copyOf(segmentOffset, capacity + 1);
+            routeDistanceMeters = Arrays.copyOf(routeDistanceMeters, capacity);
+            routeDurationSeconds = Arrays.copyOf(routeDurationSeconds, capacity);
+            routeStartTime = Arrays.copyOf(routeStartTime, capacity);
+            routeEndTime = Arrays.copyOf(routeEndTime, capacity);
+        }
+        routeDistanceMeters[routeCount] = distance;
+        routeDurationSeconds[routeCount] = duration;
+        routeStartTime[routeCount] = start;
+        routeEndTime[routeCount] = end;
+        routeCount++;
+        segmentOffset[routeCount] = segmentCount;
+    }
+
+    /**
+     * Adds the routes of all {@link RoutingResponse}s in the JSON stream (one
+     * or more responses separated by whitespace, e.g. NDJSON), the stream is
+     * closed
+     */
+    public RouteTable readJson(InputStream in) throws IOException {
+        try (JsonParser parser = RouteFormatMapper.getDefault().getFactory().createParser(in)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Adds the routes of all {@link RoutingResponse}s the parser returns
+     * (which may also be a binary parser, see
+     * {@link RouteFormatMapper#getBinary()}), the parser is not closed
+     */
+    public RouteTable read(JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            expect(parser, token, JsonToken.START_OBJECT);
+            int routes = routeCount, segments = segmentCount;
+            try {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if ("routes".equals(field) && token == JsonToken.START_ARRAY) {
+                        while ((token = parser.nextToken()) != JsonToken.END_ARRAY)
+                            readRoute(parser, token);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                rollback(routes, segments);
+                throw e;
+            }
+        }
+        return this;
+    }
+
+    private void readRoute(JsonParser parser, JsonToken token) throws IOException {
+        expect(parser, token, JsonToken.START_OBJECT);
+        int distance = 0, duration = 0;
+        long start = 0, end = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            token = parser.nextToken();
+            switch (field) {
+            case "distanceMeters":
+                distance = parser.getIntValue();
+                break;
+            case "durationSeconds":
+                duration = parser.getIntValue();
+                break;
+            case "startTime":
+                start = EpochTime.parse(parser.getText()).getEpochSecond();
+                break;
+            case "endTime":
+                end = EpochTime.parse(parser.getText()).getEpochSecond();
+                break;
+            case "segments":
+                if (token == JsonToken.START_ARRAY) {
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY)
+                        readSegment(parser, token);
+                }
+                break;
+            default:
+                parser.skipChildren();
+            }
+        }
+        addRoute(distance, duration, start, end);
+    }
+
+    private void readSegment(JsonParser parser, JsonToken token) throws IOException {
+        expect(parser, token, JsonToken.START_OBJECT);
+        int distance = 0, duration = 0, boarding = 0, alighting = 0;
+        long start = 0, end = 0;
+        GeneralizedModeOfTransportType generalized = null;
+        DetailedModeOfTransportType detailed = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            token = parser.nextToken();
+            switch (field) {
+            case "distanceMeters":
+                distance = parser.getIntValue();
+                break;
+            case "durationSeconds":
+                duration = parser.getIntValue();
+                break;
+            case "boardingSeconds":
+                boarding = parser.getIntValue();
+                break;
+            case "alightingSeconds":
+                alighting = parser.getIntValue();
+                break;
+            case "startTime":
+                start = EpochTime.parse(parser.getText()).getEpochSecond();
+                break;
+            case "endTime":
+                end = EpochTime.parse(parser.getText()).getEpochSecond();
+                break;
+            case "modeOfTransport":
+                expect(parser, token, JsonToken.START_OBJECT);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String motField = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("generalizedType".equals(motField))
+                        generalized = GeneralizedModeOfTransportType.valueOf(parser.getText());
+                    else if ("detailedType".equals(motField))
+                        detailed = DetailedModeOfTransportType.valueOf(parser.getText());
+                    else
+                        parser.skipChildren();
+                }
+                break;
+            default:
+                parser.skipChildren();
+            }
+        }
+        addSegment(start, end, distance, duration, boarding, alighting, generalized, detailed);
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) {
+        if (actual != expected)
+            throw new IllegalArgumentException(
+                    "expected " + expected + " but was " + actual + " at " + parser.getCurrentLocation());
+    }
+
+    // -- column access
+
+    public int getRouteCount() {
+        return routeCount;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * @return the index of the first segment of the route
+     */
+    public int getFirstSegment(int route) {
+        checkRoute(route);
+        return segmentOffset[route];
+    }
+
+    /**
+     * @return the index after the last segment of the route
+     */
+    public int getLastSegment(int route) {
+        checkRoute(route);
+        return segmentOffset[route + 1];
+    }
+
+    public int getRouteDistanceMeters(int route) {
+        checkRoute(route);
+        return routeDistanceMeters[route];
+    }
+
+    public int getRouteDurationSeconds(int route) {
+        checkRoute(route);
+        return routeDurationSeconds[route];
+    }
+
+    public long getRouteStartEpochSecond(int route) {
+        checkRoute(route);
+        return routeStartTime[route];
+    }
+
+    public long getRouteEndEpochSecond(int route) {
+        checkRoute(route);
+        return routeEndTime[route];
+    }
+
+    public long getStartEpochSecond(int segment) {
+        checkSegment(segment);
+        return startTime[segment];
+    }
+
+    public long getEndEpochSecond(int segment) {
+        checkSegment(segment);
+        return endTime[segment];
+    }
+
+    public int getDistanceMeters(int segment) {
+        checkSegment(segment);
+        return distanceMeters[segment];
+    }
+
+    public int getDurationSeconds(int segment) {
+        checkSegment(segment);
+        return durationSeconds[segment];
+    }
+
+    public int getBoardingSeconds(int segment) {
+        checkSegment(segment);
+        return boardingSeconds[segment];
+    }
+
+    public int getAlightingSeconds(int segment) {
+        checkSegment(segment);
+        return alightingSeconds[segment];
+    }
+
+    public GeneralizedModeOfTransportType getGeneralizedType(int segment) {
+        checkSegment(segment);
+        return GENERALIZED_TYPES[generalizedType[segment]];
+    }
+
+    public Optional<DetailedModeOfTransportType> getDetailedType(int segment) {
+        checkSegment(segment);
+        return detailedType[segment] < 0 ? Optional.empty() : Optional.of(DETAILED_TYPES[detailedType[segment]]);
+    }
+
+    private void checkRoute(int route) {
+        Preconditions.checkElementIndex(route, routeCount, "route");
+    }
+
+    private void checkSegment(int segment) {
+        Preconditions.checkElementIndex(segment, segmentCount, "segment");
+    }
+
+    // -- filter
+
+    /**
+     * @return all routes
+     */
+    public BitSet allRoutes() {
+        BitSet routes = new BitSet(routeCount);
+        routes.set(0, routeCount);
+        return routes;
+    }
+
+    /**
+     * @param predicate
+     *            is called with the index of each route
+     * @return the routes that fulfill the predicate
+     */
+    public BitSet filterRoutes(IntPredicate predicate) {
+        BitSet routes = new BitSet(routeCount);
+        for (int route = 0; route < routeCount; route++) {
+            if (predicate.test(route))
+                routes.set(route);
+        }
+        return routes;
+    }
+
+    /**
+     * @return the routes with at least one segment of the type
+     */
+    public BitSet filterRoutesFeaturing(GeneralizedModeOfTransportType type) {
+        byte ordinal = (byte) type.ordinal();
+        BitSet routes = new BitSet(routeCount);
+        for (int route = 0; route < routeCount; route++) {
+            for (int segment = segmentOffset[route]; segment < segmentOffset[route + 1]; segment++) {
+                if (generalizedType[segment] == ordinal) {
+                    routes.set(route);
+                    break;
+                }
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * @return the routes with segments of more than one generalized type
+     */
+    public BitSet filterIntermodalRoutes() {
+        BitSet routes = new BitSet(routeCount);
+        for (int route = 0; route < routeCount; route++) {
+            int first = segmentOffset[route];
+            for (int segment = first + 1; segment < segmentOffset[route + 1]; segment++) {
+                if (generalizedType[segment] != generalizedType[first]) {
+                    routes.set(route);
+                    break;
+                }
+            }
+        }
+        return routes;
+    }
+
+    // -- aggregates
+
+    public long sumRouteDistanceMeters(BitSet routes) {
+        long sum = 0;
+        for (int route = routes.nextSetBit(0); route >= 0 && route < routeCount; route = routes.nextSetBit(route + 1))
+            sum += routeDistanceMeters[route];
+        return sum;
+    }
+
+    public long sumRouteDurationSeconds(BitSet routes) {
+        long sum = 0;
+        for (int route = routes.nextSetBit(0); route >= 0 && route < routeCount; route = routes.nextSetBit(route + 1))
+            sum += routeDurationSeconds[route];
+        return sum;
+    }
+
+    /**
+     * @return the number of changes for each route, i.e. the number of
+     *         segments that are not walked minus one (as
+     *         {@link Routes#countChanges(Route)})
+     */
+    public int[] countChanges() {
+        byte foot = (byte) GeneralizedModeOfTransportType.FOOT.ordinal();
+        int[] changes = new int[routeCount];
+        for (int route = 0; route < routeCount; route++) {
+            int count = -1;
+            for (int segment = segmentOffset[route]; segment < segmentOffset[route + 1]; segment++)
+                count += generalizedType[segment] != foot ? 1 : 0;
+            changes[route] = count;
+        }
+        return changes;
+    }
+
+    // -- group by mode of transport
+
+    /**
+     * @return the summed distance of the segments of all routes per
+     *         generalized type (indexed by ordinal), i.e. the modal split by
+     *         distance
+     */
+    public long[] sumDistanceMetersByGeneralizedType() {
+        return sumByGeneralizedType(distanceMeters, allRoutes());
+    }
+
+    /**
+     * @return the summed distance of the segments of the given routes per
+     *         generalized type (indexed by ordinal)
+     */
+    public long[] sumDistanceMetersByGeneralizedType(BitSet routes) {
+        return sumByGeneralizedType(distanceMeters, routes);
+    }
+
+    /**
+     * @return the summed duration of the segments of the given routes per
+     *         generalized type (indexed by ordinal)
+     */
+    public long[] sumDurationSecondsByGeneralizedType(BitSet routes) {
+        return sumByGeneralizedType(durationSeconds, routes);
+    }
+
+    /**
+     * @return the number of segments of the given routes per generalized type
+     *         (indexed by ordinal)
+     */
+    public long[] countSegmentsByGeneralizedType(BitSet routes) {
+        return sumByGeneralizedType(null, routes);
+    }
+
+    /**
+     * @return the summed distance of the segments of the given routes per
+     *         detailed type (indexed by ordinal), segments without detailed
+     *         type are not included
+     */
+    public long[] sumDistanceMetersByDetailedType(BitSet routes) {
+        return sumByDetailedType(distanceMeters, routes);
+    }
+
+    /**
+     * @return the summed duration of the segments of the given routes per
+     *         detailed type (indexed by ordinal), segments without detailed
+     *         type are not included
+     */
+    public long[] sumDurationSecondsByDetailedType(BitSet routes) {
+        return sumByDetailedType(durationSeconds, routes);
+    }
+
+    /** @param column <code>null</code> to count the segments */
+    private long[] sumByGeneralizedType(int[] column, BitSet routes) {
+        long[] sums = new long[GENERALIZED_TYPES.length];
+        for (int route = routes.nextSetBit(0); route >= 0 && route < routeCount; route = routes
+                .nextSetBit(route + 1)) {
+            for (int segment = segmentOffset[route]; segment < segmentOffset[route + 1]; segment++)
+                sums[generalizedType[segment]] += column == null ? 1 : column[segment];
+        }
+        return sums;
+    }
+
+    private long[] sumByDetailedType(int[] column, BitSet routes) {
+        long[] sums = new long[DETAILED_TYPES.length];
+        for (int route = routes.nextSetBit(0); route >= 0 && route < routeCount; route = routes
+                .nextSetBit(route + 1)) {
+            for (int segment = segmentOffset[route]; segment < segmentOffset[route + 1]; segment++) {
+                if (detailedType[segment] >= 0)
+                    sums[detailedType[segment]] += column[segment];
+            }
+        }
+        return sums;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteTable [routeCount=" + routeCount + ", segmentCount=" + segmentCount + "]";
+    }
+
+}
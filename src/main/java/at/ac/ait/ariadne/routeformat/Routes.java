@@ -1,20 +1,18 @@
 package at.ac.ait.ariadne.routeformat;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
-
 import at.ac.ait.ariadne.routeformat.Constants.DetailedModeOfTransportType;
 import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
 
 /**
- * Helper methods to find out more about properties of a {@link Route}
+ * Helper methods to find out more about properties of a {@link Route}. Apart
+ * from the lists of segments all methods are answered in constant time from
+ * the cached {@link Route#getSummary()}.
  */
 public class Routes {
 
@@ -23,12 +21,7 @@ public class Routes {
     }
 
     public static boolean isIntermodal(Route route) {
-        Set<GeneralizedModeOfTransportType> usedModes = route
-                .getSegments()
-                .stream()
-                .map(s -> s.getModeOfTransport().getGeneralizedType())
-                .collect(Collectors.toSet());
-        return usedModes.size() > 1;
+        return route.getSummary().countGeneralizedTypes() > 1;
     }
 
     public static boolean isLongerThan(Route route, int meters) {
@@ -36,156 +29,66 @@ public class Routes {
     }
 
     public static boolean isLongerThan(Route route, GeneralizedModeOfTransportType mot, int meters) {
-        int totalMeters = route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getGeneralizedType().equals(mot))
-                .mapToInt(s -> s.getDistanceMeters())
-                .sum();
-        return totalMeters > meters;
+        return route.getSummary().getDistanceMeters(mot) > meters;
     }
 
     public static boolean featuresMot(Route route, GeneralizedModeOfTransportType mot) {
-        return route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getGeneralizedType().equals(mot))
-                .count() > 0;
+        return route.getSummary().features(mot);
     }
 
     public static boolean featuresMot(Route route, DetailedModeOfTransportType mot) {
-        return route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getDetailedType().isPresent())
-                .filter(s -> s.getModeOfTransport().getDetailedType().get().equals(mot))
-                .count() > 0;
+        return route.getSummary().features(mot);
     }
 
     public static boolean featuresExactlyTheseGeneralizedMots(
             Route route,
             Collection<GeneralizedModeOfTransportType> mots) {
-        Set<GeneralizedModeOfTransportType> tmpMots = route
-                .getSegments()
-                .stream()
-                .map(s -> s.getModeOfTransport().getGeneralizedType())
-                .collect(HashSet::new, Set::add, Set::addAll);
-        return Sets.symmetricDifference(tmpMots, ImmutableSet.copyOf(mots)).isEmpty();
+        return route.getSummary().getGeneralizedTypes() == RouteSummary.generalizedBits(mots);
     }
 
     public static boolean featuresExactlyTheseDetailedMots(Route route, Collection<DetailedModeOfTransportType> mots) {
-        Set<DetailedModeOfTransportType> tmpMots = route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getDetailedType().isPresent())
-                .map(s -> s.getModeOfTransport().getDetailedType().get())
-                .collect(HashSet::new, Set::add, Set::addAll);
-        return Sets.symmetricDifference(tmpMots, ImmutableSet.copyOf(mots)).isEmpty();
+        return route.getSummary().getDetailedTypes() == RouteSummary.detailedBits(mots);
     }
 
     public static boolean featuresGeneralizedMotsOtherThan(
             Route route,
             Collection<GeneralizedModeOfTransportType> mots) {
-        HashSet<GeneralizedModeOfTransportType> tmpMots = route
-                .getSegments()
-                .stream()
-                .map(s -> s.getModeOfTransport().getGeneralizedType())
-                .collect(HashSet::new, Set::add, Set::addAll);
-        tmpMots.removeAll(mots);
-        return !tmpMots.isEmpty();
+        return (route.getSummary().getGeneralizedTypes() & ~RouteSummary.generalizedBits(mots)) != 0;
     }
 
     public static boolean featuresDetailedMotsOtherThan(Route route, Collection<DetailedModeOfTransportType> mots) {
-        HashSet<DetailedModeOfTransportType> tmpMots = route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getDetailedType().isPresent())
-                .map(s -> s.getModeOfTransport().getDetailedType().get())
-                .collect(HashSet::new, Set::add, Set::addAll);
-        tmpMots.removeAll(mots);
-        return !tmpMots.isEmpty();
+        return (route.getSummary().getDetailedTypes() & ~RouteSummary.detailedBits(mots)) != 0;
     }
 
     public static boolean featuresSharedGeneralizedMot(Route route, GeneralizedModeOfTransportType type) {
-        return route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getGeneralizedType().equals(type))
-                .filter(s -> s.getModeOfTransport().getSharingType().isPresent())
-                .count() > 0;
+        return route.getSummary().featuresShared(type);
     }
 
     public static int countChanges(Route route) {
-        return (int) route
-                .getSegments()
-                .stream()
-                .filter(s -> !s.getModeOfTransport().getGeneralizedType().equals(GeneralizedModeOfTransportType.FOOT))
-                .count() - 1;
+        return route.getSummary().getChanges();
     }
 
     /**
      * @return the seconds spent waiting for public transport vehicles
      */
     public static int getWaitingSecondsForPublicTransport(Route route) {
-        int seconds = route
-                .getSegments()
-                .stream()
-                .filter(
-                        s -> s.getModeOfTransport().getGeneralizedType().equals(
-                                GeneralizedModeOfTransportType.PUBLIC_TRANSPORT))
-                .mapToInt(s -> s.getBoardingSeconds().orElse(0))
-                .sum();
-        seconds += route
-                .getSegments()
-                .stream()
-                .filter(
-                        s -> s.getModeOfTransport().getDetailedType().equals(
-                                Optional.of(DetailedModeOfTransportType.TRANSFER)))
-                .mapToInt(s -> s.getAlightingSeconds().orElse(0))
-                .sum();
-        return seconds;
+        return route.getSummary().getWaitingSecondsForPublicTransport();
     }
 
     public static int getTotalDistanceMetersForMot(Route route, GeneralizedModeOfTransportType mot) {
-        return route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getGeneralizedType().equals(mot))
-                .map(s -> (int) s.getDistanceMeters())
-                .mapToInt(i -> i)
-                .sum();
+        return route.getSummary().getDistanceMeters(mot);
     }
 
     public static int getTotalDistanceMetersForMot(Route route, DetailedModeOfTransportType mot) {
-        return route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getDetailedType().isPresent())
-                .filter(s -> s.getModeOfTransport().getDetailedType().get().equals(mot))
-                .map(s -> (int) s.getDistanceMeters())
-                .mapToInt(i -> i)
-                .sum();
+        return route.getSummary().getDistanceMeters(mot);
     }
 
     public static int getTotalDurationSecondsForMot(Route route, GeneralizedModeOfTransportType mot) {
-        return route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getGeneralizedType().equals(mot))
-                .map(s -> (int) s.getDurationSeconds())
-                .mapToInt(i -> i)
-                .sum();
+        return route.getSummary().getDurationSeconds(mot);
     }
 
     public static int getTotalDurationSecondsForMot(Route route, DetailedModeOfTransportType mot) {
-        return route
-                .getSegments()
-                .stream()
-                .filter(s -> s.getModeOfTransport().getDetailedType().isPresent())
-                .filter(s -> s.getModeOfTransport().getDetailedType().get().equals(mot))
-                .map(s -> (int) s.getDurationSeconds())
-                .mapToInt(i -> i)
-                .sum();
+        return route.getSummary().getDurationSeconds(mot);
     }
 
     /**
@@ -193,31 +96,12 @@ public class Routes {
      *         counts as one mot
      */
     public static int countUniqueModesOfTransport(Route route) {
-        boolean containsPublicTransport = route
-                .getSegments()
-                .stream()
-                .filter(
-                        s -> s.getModeOfTransport().getGeneralizedType().equals(
-                                GeneralizedModeOfTransportType.PUBLIC_TRANSPORT))
-                .count() > 0;
-
-        int nonPublicTransportCount = route
-                .getSegments()
-                .stream()
-                .filter(
-                        s -> !s.getModeOfTransport().getGeneralizedType().equals(
-                                GeneralizedModeOfTransportType.PUBLIC_TRANSPORT))
-                .filter(
-                        s -> !s.getModeOfTransport().getDetailedType().equals(
-                                Optional.of(DetailedModeOfTransportType.TRANSFER)))
-                .map(s -> s.getModeOfTransport())
-                .collect(Collectors.toSet())
-                .size();
-
-        return nonPublicTransportCount + (containsPublicTransport ? 1 : 0);
+        return route.getSummary().getUniqueModesOfTransport();
     }
 
     public static List<RouteSegment> getSegmentsWithMot(Route route, GeneralizedModeOfTransportType mot) {
+        if (!route.getSummary().features(mot))
+            return new ArrayList<>();
         return route
                 .getSegments()
                 .stream()
@@ -226,6 +110,8 @@ public class Routes {
     }
 
     public static List<RouteSegment> getSegmentsWithMot(Route route, DetailedModeOfTransportType mot) {
+        if (!route.getSummary().features(mot))
+            return new ArrayList<>();
         return route
                 .getSegments()
                 .stream()
@@ -235,11 +121,20 @@ public class Routes {
     }
 
     public static Optional<RouteSegment> getFirstSegmentWithMot(Route route, GeneralizedModeOfTransportType mot) {
-        return getSegmentsWithMot(route, mot).stream().findFirst();
+        int index = route.getSummary().getFirstSegmentIndex(mot);
+        if (index >= 0 && route.getSegments().get(index).getModeOfTransport().getGeneralizedType() != mot)
+            // the mode of transport object was modified in place
+            index = route.invalidateSummary().getSummary().getFirstSegmentIndex(mot);
+        return index < 0 ? Optional.empty() : Optional.of(route.getSegments().get(index));
     }
 
     public static Optional<RouteSegment> getFirstSegmentWithMot(Route route, DetailedModeOfTransportType mot) {
-        return getSegmentsWithMot(route, mot).stream().findFirst();
+        int index = route.getSummary().getFirstSegmentIndex(mot);
+        if (index >= 0 && !route.getSegments().get(index).getModeOfTransport().getDetailedType()
+                .equals(Optional.of(mot)))
+            // the mode of transport object was modified in place
+            index = route.invalidateSummary().getSummary().getFirstSegmentIndex(mot);
+        return index < 0 ? Optional.empty() : Optional.of(route.getSegments().get(index));
     }
 
 }
@@ -8,7 +8,6 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
@@ -23,6 +22,7 @@ import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
 import at.ac.ait.ariadne.routeformat.Constants.OutputFormat;
 import at.ac.ait.ariadne.routeformat.features.Site;
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -75,7 +75,7 @@ public class RoutingRequest implements Validatable {
     private Set<AccessibilityRestriction> accessibilityRestrictions = new TreeSet<>();
     private List<String> languages = new ArrayList<>();
     private List<OutputFormat> outputFormats = new ArrayList<>();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     public RoutingRequest() {
         setDepartureTime(DEFAULT_DEPARTURE_TIME);
@@ -383,7 +383,7 @@ public class RoutingRequest implements Validatable {
     }
 
     public RoutingRequest setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -5,7 +5,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -14,6 +13,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.Constants.Status;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
+import at.ac.ait.ariadne.routeformat.util.EpochTime;
+import at.ac.ait.ariadne.routeformat.util.Snapshot;
 import at.ac.ait.ariadne.routeformat.util.Utils;
 
 /**
@@ -36,13 +38,13 @@ public class RoutingResponse implements Validatable {
 
     private String routeFormatVersion;
     private String requestId;
-    private ZonedDateTime processedTime;
+    private EpochTime processedTime;
     private Status status;
     private Optional<String> debugMessage = Optional.empty();
     private String coordinateReferenceSystem;
     private Optional<RoutingRequest> request = Optional.empty();
     private List<Route> routes = new ArrayList<>();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -62,12 +64,12 @@ public class RoutingResponse implements Validatable {
      */
     @JsonProperty(required = true)
     public String getProcessedTime() {
-        return Utils.getDateTimeString(processedTime);
+        return processedTime.toString();
     }
 
     @JsonIgnore
     public ZonedDateTime getProcessedTimeAsZonedDateTime() {
-        return processedTime;
+        return processedTime == null ? null : processedTime.toZonedDateTime();
     }
 
     @JsonProperty(required = true)
@@ -118,19 +120,19 @@ public class RoutingResponse implements Validatable {
     }
 
     public RoutingResponse setProcessedTimeNow() {
-        this.processedTime = ZonedDateTime.now();
+        this.processedTime = EpochTime.of(ZonedDateTime.now());
         return this;
     }
 
     @JsonIgnore
     public RoutingResponse setProcessedTime(ZonedDateTime processedTime) {
-        this.processedTime = processedTime;
+        this.processedTime = processedTime == null ? null : EpochTime.of(processedTime);
         return this;
     }
 
     @JsonProperty
     public RoutingResponse setProcessedTime(String processedTime) {
-        this.processedTime = Utils.parseDateTime(processedTime, "processedTime");
+        this.processedTime = Utils.parseEpochTime(processedTime, "processedTime");
         return this;
     }
 
@@ -165,7 +167,7 @@ public class RoutingResponse implements Validatable {
     }
 
     public RoutingResponse setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -173,6 +175,18 @@ public class RoutingResponse implements Validatable {
 
     // no createMinimal! see javadoc for explanation.
 
+    /**
+     * @return an immutable snapshot of the current state that can be shared
+     *         by several threads, later changes of this object do not affect
+     *         it. Snapshots are written as JSON and read through an untyped
+     *         view (see {@link Snapshot#get(Object...)}) without copying, but
+     *         model objects are only available as a decoded copy (see
+     *         {@link Snapshot#thaw()}).
+     */
+    public Snapshot<RoutingResponse> freeze() {
+        return Snapshot.of(this, RoutingResponse.class);
+    }
+
     @Override
     public void validate() {
         Preconditions.checkArgument(routeFormatVersion != null, "routeFormatVersion is mandatory but missing");
@@ -2,12 +2,13 @@ package at.ac.ait.ariadne.routeformat;
 
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.google.common.base.Preconditions;
 
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
+
 /**
  * A {@link Service} typically represents a public transport service / line
  * <p>
@@ -22,7 +23,7 @@ import com.google.common.base.Preconditions;
 public class Service implements Validatable {
     private String name;
     private Optional<String> towards = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -59,7 +60,7 @@ public class Service implements Validatable {
     }
 
     public Service setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -9,8 +9,6 @@ import java.nio.file.StandardOpenOption;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 
 import at.ac.ait.ariadne.routeformat.Route;
 import at.ac.ait.ariadne.routeformat.RouteSegment;
@@ -18,6 +16,7 @@ import at.ac.ait.ariadne.routeformat.Service;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeatureCollection;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatMapper;
 
 public class QGISGeoJSONExporter {
 
@@ -28,10 +27,6 @@ public class QGISGeoJSONExporter {
     }
 
     public void writeLines(Path outFile) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.findAndRegisterModules();
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
-
         GeoJSONFeatureCollection<GeoJSONLineString> collection = new GeoJSONFeatureCollection<>();
         for (RouteSegment segment : route.getSegments()) {
             if (segment.getGeometryGeoJson().isPresent()) {
@@ -49,7 +44,7 @@ public class QGISGeoJSONExporter {
             }
         }
 
-        String geoJson = mapper.writeValueAsString(collection);
+        String geoJson = RouteFormatMapper.getDefault().getPrettyWriter().writeValueAsString(collection);
         System.out.println(geoJson);
         try (BufferedWriter writer = Files.newBufferedWriter(outFile, StandardOpenOption.CREATE,
                 StandardOpenOption.TRUNCATE_EXISTING)) {
@@ -0,0 +1,172 @@
+package at.ac.ait.ariadne.routeformat.example;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatMapper;
+
+/**
+ * Streams a corpus of synthetic responses (each including its request) from a
+ * {@link SyntheticRouteGenerator}, e.g. for load tests. Only one response is
+ * kept in memory at a time, so the size of the corpus is only limited by the
+ * disk. Two formats are supported:
+ * <ul>
+ * <li>{@link Format#NDJSON}: one compact JSON response per line (newline
+ * delimited JSON)</li>
+ * <li>{@link Format#BINARY}: a sequence of Smile documents as written by
+ * {@link RouteFormatMapper#getBinary()}</li>
+ * </ul>
+ * Both can be read again with
+ * {@link com.fasterxml.jackson.databind.ObjectReader#readValues(java.io.InputStream)}
+ * of the reader for {@link RoutingResponse} of the respective mapper.
+ * <p>
+ * Usage from the command line (sizes are optional and default to the values
+ * of {@link SyntheticRouteGenerator}):
+ *
+ * <pre>
+ * SyntheticCorpusWriter &lt;file&gt; &lt;count&gt; [NDJSON|BINARY] [seed]
+ *         [alternatives=3] [segments=5] [points=50] [instructions=5] [stops=3] [additionalInfo=2]
+ * </pre>
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class SyntheticCorpusWriter {
+
+    public enum Format {
+        NDJSON, BINARY
+    }
+
+    private final SyntheticRouteGenerator generator;
+    private Format format = Format.NDJSON;
+    private long firstIndex = 0;
+
+    public SyntheticCorpusWriter(SyntheticRouteGenerator generator) {
+        this.generator = Preconditions.checkNotNull(generator, "generator is mandatory");
+    }
+
+    // -- getters
+
+    public SyntheticRouteGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * default: {@link Format#NDJSON}
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the index of the first response, so that a corpus can be
+     *         written in several parts (default: 0)
+     */
+    public long getFirstIndex() {
+        return firstIndex;
+    }
+
+    // -- setters
+
+    public SyntheticCorpusWriter setFormat(Format format) {
+        this.format = Preconditions.checkNotNull(format, "format is mandatory");
+        return this;
+    }
+
+    public SyntheticCorpusWriter setFirstIndex(long firstIndex) {
+        this.firstIndex = firstIndex;
+        return this;
+    }
+
+    // --
+
+    /**
+     * Writes <code>count</code> responses to the stream, which is neither
+     * buffered nor closed by this method. In {@link Format#NDJSON} each
+     * response is terminated by a newline.
+     *
+     * @return the number of written responses
+     */
+    public long write(OutputStream out, long count) throws IOException {
+        try (SequenceWriter sequenceWriter = createWriter().writeValues(out)) {
+            Iterator<RoutingResponse> responses = generator.createResponses(firstIndex, count).iterator();
+            while (responses.hasNext())
+                sequenceWriter.write(responses.next());
+        }
+        // the separator is only written between values, but each line must be terminated
+        if (format == Format.NDJSON && count > 0)
+            out.write('\n');
+        out.flush();
+        return count;
+    }
+
+    private ObjectWriter createWriter() {
+        RouteFormatMapper mapper = format == Format.NDJSON ? RouteFormatMapper.getDefault()
+                : RouteFormatMapper.getBinary();
+        ObjectWriter writer = mapper.getWriter(RoutingResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Smile documents are self-delimiting
+        return format == Format.NDJSON ? writer.withRootValueSeparator("\n") : writer;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: SyntheticCorpusWriter <file> <count> [NDJSON|BINARY] [seed] "
+                    + "[alternatives=3] [segments=5] [points=50] [instructions=5] [stops=3] [additionalInfo=2]");
+            System.exit(1);
+        }
+        String file = args[0];
+        long count = Long.parseLong(args[1]);
+        Format format = args.length > 2 ? Format.valueOf(args[2].toUpperCase()) : Format.NDJSON;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        SyntheticRouteGenerator generator = new SyntheticRouteGenerator(seed);
+        for (int i = 4; i < args.length; i++)
+            configure(generator, args[i]);
+
+        long start = System.currentTimeMillis();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            new SyntheticCorpusWriter(generator).setFormat(format).write(out, count);
+        }
+        System.out.println("wrote " + count + " responses to " + file + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static void configure(SyntheticRouteGenerator generator, String option) {
+        String[] keyValue = option.split("=", 2);
+        Preconditions.checkArgument(keyValue.length == 2, "options must have the form key=value but was %s", option);
+        int value = Integer.parseInt(keyValue[1]);
+        switch (keyValue[0]) {
+        case "alternatives":
+            generator.setAlternatives(value);
+            break;
+        case "segments":
+            generator.setSegmentsPerRoute(value);
+            break;
+        case "points":
+            generator.setPointsPerSegment(value);
+            break;
+        case "instructions":
+            generator.setInstructionsPerSegment(value);
+            break;
+        case "stops":
+            generator.setIntermediateStopsPerSegment(value);
+            break;
+        case "additionalInfo":
+            generator.setAdditionalInfoEntries(value);
+            break;
+        default:
+            throw new IllegalArgumentException("unknown option " + keyValue[0]);
+        }
+    }
+
+}
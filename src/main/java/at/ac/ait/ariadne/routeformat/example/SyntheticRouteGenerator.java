@@ -0,0 +1,396 @@
+package at.ac.ait.ariadne.routeformat.example;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Constants.DetailedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.Constants.Status;
+import at.ac.ait.ariadne.routeformat.Constants.TurnDirection;
+import at.ac.ait.ariadne.routeformat.IntermediateStop;
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.RequestModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.Service;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.instruction.Instruction;
+import at.ac.ait.ariadne.routeformat.instruction.RoadInstruction;
+import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.location.PublicTransportStop;
+
+/**
+ * Generates synthetic but valid routing requests and responses, e.g. for
+ * benchmarks and load tests. In contrast to {@link IntermodalRouteExample} the
+ * size of the responses can be controlled: the number of alternative routes,
+ * segments per route, points per segment geometry, navigation instructions
+ * per segment, intermediate stops per public transport segment and entries in
+ * the additional info.
+ * <p>
+ * The output is deterministic: {@link #createResponse(long)} returns the same
+ * response for the same seed, configuration and index (also across JVMs), so
+ * that responses can be regenerated independently of each other, e.g. in
+ * parallel. Routes lead through the area of Vienna, coordinates have seven
+ * decimal places.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class SyntheticRouteGenerator {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2016, 1, 1, 6, 0, 0, 0, ZoneOffset.ofHours(1));
+    /** ordinates are stored as multiples of 1e-7 degrees */
+    private static final int SCALE = 7;
+    private static final double UNITS_PER_DEGREE = 1e7;
+    private static final long MIN_X = 162_000_000, MIN_Y = 481_200_000, EXTENT_X = 3_500_000, EXTENT_Y = 2_000_000;
+    private static final double METERS_PER_UNIT = 6371008.8 * StrictMath.PI / 180 / UNITS_PER_DEGREE;
+    private static final ModeOfTransport BUS = ModeOfTransport.createMinimal(DetailedModeOfTransportType.BUS)
+            .setId("bus");
+    private static final ModeOfTransport SUBWAY = ModeOfTransport.createMinimal(DetailedModeOfTransportType.SUBWAY)
+            .setId("subway");
+    private static final ModeOfTransport[] MAIN_MODES_OF_TRANSPORT = { ModeOfTransport.STANDARD_BICYCLE,
+            ModeOfTransport.STANDARD_CAR, BUS, SUBWAY };
+    private static final TurnDirection[] TURN_DIRECTIONS = TurnDirection.values();
+
+    private final long seed;
+    private int alternatives = 3;
+    private int segmentsPerRoute = 5;
+    private int pointsPerSegment = 50;
+    private int instructionsPerSegment = 5;
+    private int intermediateStopsPerSegment = 3;
+    private int additionalInfoEntries = 2;
+
+    public SyntheticRouteGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // -- getters
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * default: 3
+     */
+    public int getAlternatives() {
+        return alternatives;
+    }
+
+    /**
+     * default: 5
+     */
+    public int getSegmentsPerRoute() {
+        return segmentsPerRoute;
+    }
+
+    /**
+     * default: 50
+     */
+    public int getPointsPerSegment() {
+        return pointsPerSegment;
+    }
+
+    /**
+     * @return navigation instructions per segment that is not a public
+     *         transport segment (default: 5)
+     */
+    public int getInstructionsPerSegment() {
+        return instructionsPerSegment;
+    }
+
+    /**
+     * @return intermediate stops per public transport segment (default: 3)
+     */
+    public int getIntermediateStopsPerSegment() {
+        return intermediateStopsPerSegment;
+    }
+
+    /**
+     * @return entries in the additional info of each route and segment
+     *         (default: 2)
+     */
+    public int getAdditionalInfoEntries() {
+        return additionalInfoEntries;
+    }
+
+    // -- setters
+
+    public SyntheticRouteGenerator setAlternatives(int alternatives) {
+        Preconditions.checkArgument(alternatives >= 0, "alternatives must be >= 0 but was %s", alternatives);
+        this.alternatives = alternatives;
+        return this;
+    }
+
+    public SyntheticRouteGenerator setSegmentsPerRoute(int segmentsPerRoute) {
+        Preconditions.checkArgument(segmentsPerRoute >= 1, "segments per route must be >= 1 but was %s",
+                segmentsPerRoute);
+        this.segmentsPerRoute = segmentsPerRoute;
+        return this;
+    }
+
+    public SyntheticRouteGenerator setPointsPerSegment(int pointsPerSegment) {
+        Preconditions.checkArgument(pointsPerSegment >= 2, "points per segment must be >= 2 but was %s",
+                pointsPerSegment);
+        this.pointsPerSegment = pointsPerSegment;
+        return this;
+    }
+
+    public SyntheticRouteGenerator setInstructionsPerSegment(int instructionsPerSegment) {
+        Preconditions.checkArgument(instructionsPerSegment >= 0, "instructions per segment must be >= 0 but was %s",
+                instructionsPerSegment);
+        this.instructionsPerSegment = instructionsPerSegment;
+        return this;
+    }
+
+    public SyntheticRouteGenerator setIntermediateStopsPerSegment(int intermediateStopsPerSegment) {
+        Preconditions.checkArgument(intermediateStopsPerSegment >= 0,
+                "intermediate stops per segment must be >= 0 but was %s", intermediateStopsPerSegment);
+        this.intermediateStopsPerSegment = intermediateStopsPerSegment;
+        return this;
+    }
+
+    public SyntheticRouteGenerator setAdditionalInfoEntries(int additionalInfoEntries) {
+        Preconditions.checkArgument(additionalInfoEntries >= 0, "additional info entries must be >= 0 but was %s",
+                additionalInfoEntries);
+        this.additionalInfoEntries = additionalInfoEntries;
+        return this;
+    }
+
+    // --
+
+    /**
+     * @return the request of {@link #createResponse(long)} with the same index
+     */
+    public RoutingRequest createRequest(long index) {
+        return createRequest(new Random(mix(index)));
+    }
+
+    /**
+     * @param index
+     *            any number, the same index always leads to the same response
+     * @return a valid response including its request
+     */
+    public RoutingResponse createResponse(long index) {
+        Random random = new Random(mix(index));
+        RoutingRequest request = createRequest(random);
+        List<Route> routes = new ArrayList<>(alternatives);
+        for (int i = 0; i < alternatives; i++)
+            routes.add(createRoute(random, request, i));
+        return new RoutingResponse().setRouteFormatVersion("X.Y-SYNTHETIC").setRequestId("synthetic-" + index)
+                .setProcessedTime(request.getDepartureTimeAsZonedDateTime().get()).setStatus(Status.OK)
+                .setDefaultCoordinateReferenceSystem().setRequest(request).setRoutes(routes);
+    }
+
+    /**
+     * @return a lazy stream of the responses with the indices
+     *         <code>firstIndex</code> to <code>firstIndex + count - 1</code>,
+     *         which can also be processed in parallel
+     */
+    public Stream<RoutingResponse> createResponses(long firstIndex, long count) {
+        Preconditions.checkArgument(count >= 0, "count must be >= 0 but was %s", count);
+        return LongStream.range(firstIndex, firstIndex + count).mapToObj(this::createResponse);
+    }
+
+    private long mix(long index) {
+        // different indices must not lead to correlated random sequences
+        long z = seed + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private RoutingRequest createRequest(Random random) {
+        Location<?> from = Location.createMinimal(createCoordinate(randomX(random), randomY(random)));
+        Location<?> to = Location.createMinimal(createCoordinate(randomX(random), randomY(random)));
+        List<RequestModeOfTransport<?>> modes = Arrays.asList(
+                RequestModeOfTransport.createMinimal(ModeOfTransport.STANDARD_FOOT),
+                RequestModeOfTransport.createMinimal(ModeOfTransport.STANDARD_BICYCLE),
+                RequestModeOfTransport.createMinimal(ModeOfTransport.STANDARD_CAR),
+                RequestModeOfTransport.createMinimal(ModeOfTransport.STANDARD_PUBLIC_TRANSPORT));
+        ZonedDateTime departure = START.plusSeconds(random.nextInt(16 * 60 * 60));
+        return RoutingRequest.createMinimal(from, to, modes).setDepartureTime(departure)
+                .setAdditionalInfo(createAdditionalInfo(random));
+    }
+
+    private static long randomX(Random random) {
+        return MIN_X + (long) (random.nextDouble() * EXTENT_X);
+    }
+
+    private static long randomY(Random random) {
+        return MIN_Y + (long) (random.nextDouble() * EXTENT_Y);
+    }
+
+    private Route createRoute(Random random, RoutingRequest request, int alternative) {
+        GeoJSONCoordinate from = request.getFrom().getSimpleCoordinate();
+        GeoJSONCoordinate to = request.getTo().getSimpleCoordinate();
+        long fromX = unscaled(from.getX()), fromY = unscaled(from.getY());
+        long toX = unscaled(to.getX()), toY = unscaled(to.getY());
+        // lateral offset of the alternative, segments meet at points between from and to
+        double offset = (alternative - (alternatives - 1) / 2.0) * 0.15;
+        double normalX = -(toY - fromY), normalY = toX - fromX;
+
+        List<RouteSegment> segments = new ArrayList<>(segmentsPerRoute);
+        Location<?> start = request.getFrom();
+        ZonedDateTime time = request.getDepartureTimeAsZonedDateTime().get();
+        long startX = fromX, startY = fromY;
+        for (int nr = 1; nr <= segmentsPerRoute; nr++) {
+            long endX = toX, endY = toY;
+            Location<?> end = request.getTo();
+            if (nr < segmentsPerRoute) {
+                double fraction = (double) nr / segmentsPerRoute;
+                double bend = offset * StrictMath.sin(StrictMath.PI * fraction) + (random.nextDouble() - 0.5) * 0.05;
+                endX = fromX + Math.round((toX - fromX) * fraction + normalX * bend);
+                endY = fromY + Math.round((toY - fromY) * fraction + normalY * bend);
+                end = Location.createMinimal(createCoordinate(endX, endY));
+            }
+            ModeOfTransport mot = getModeOfTransport(random, nr);
+            RouteSegment segment = createSegment(random, nr, mot, start, end, startX, startY, endX, endY, time);
+            segments.add(segment);
+            time = segment.getEndTimeAsZonedDateTime();
+            start = end;
+            startX = endX;
+            startY = endY;
+        }
+        return Route.createFromSegments(segments).setId("route-" + alternative)
+                .setOptimizedFor(RoutingRequest.DEFAULT_OPTIMIZED_FOR).setAdditionalInfo(createAdditionalInfo(random));
+    }
+
+    /** first and last segments are walked */
+    private ModeOfTransport getModeOfTransport(Random random, int nr) {
+        if (nr == 1 || nr == segmentsPerRoute)
+            return ModeOfTransport.STANDARD_FOOT;
+        if (nr % 2 == 0)
+            return MAIN_MODES_OF_TRANSPORT[random.nextInt(MAIN_MODES_OF_TRANSPORT.length)];
+        return ModeOfTransport.STANDARD_FOOT;
+    }
+
+    private RouteSegment createSegment(Random random, int nr, ModeOfTransport mot, Location<?> from,
+            Location<?> to, long fromX, long fromY, long toX, long toY, ZonedDateTime startTime) {
+        // the geometry is a wiggly line from the start to the end
+        long[] xs = new long[pointsPerSegment], ys = new long[pointsPerSegment];
+        double amplitude = 0.02 + random.nextDouble() * 0.05, waves = 1 + random.nextInt(4);
+        double normalX = -(toY - fromY), normalY = toX - fromX;
+        double distanceMeters = 0;
+        double latitudeFactor = StrictMath.cos(StrictMath.toRadians(fromY / UNITS_PER_DEGREE));
+        List<GeoJSONCoordinate> coordinates = new ArrayList<>(pointsPerSegment);
+        for (int i = 0; i < pointsPerSegment; i++) {
+            double fraction = (double) i / (pointsPerSegment - 1);
+            double wiggle = amplitude * StrictMath.sin(StrictMath.PI * waves * fraction);
+            if (i > 0 && i < pointsPerSegment - 1)
+                wiggle += (random.nextDouble() - 0.5) * 0.01;
+            xs[i] = fromX + Math.round((toX - fromX) * fraction + normalX * wiggle);
+            ys[i] = fromY + Math.round((toY - fromY) * fraction + normalY * wiggle);
+            if (i == pointsPerSegment - 1) {
+                xs[i] = toX;
+                ys[i] = toY;
+            }
+            if (i > 0)
+                distanceMeters += METERS_PER_UNIT
+                        * StrictMath.hypot((xs[i] - xs[i - 1]) * latitudeFactor, ys[i] - ys[i - 1]);
+            coordinates.add(createCoordinate(xs[i], ys[i]));
+        }
+
+        int durationSeconds = Math.max(1, (int) (distanceMeters / getSpeedMetersPerSecond(mot)));
+        ZonedDateTime endTime = startTime.plusSeconds(durationSeconds);
+        RouteSegment segment = new RouteSegment().setNr(nr).setFrom(from).setTo(to)
+                .setDistanceMeters((int) distanceMeters).setDurationSeconds(durationSeconds).setModeOfTransport(mot)
+                .setStartTime(startTime).setEndTime(endTime)
+                .setGeometryGeoJson(GeoJSONFeature.createLineStringFeature(GeoJSONLineString.create(coordinates)))
+                .setAdditionalInfo(createAdditionalInfo(random));
+
+        if (mot.getGeneralizedType() == GeneralizedModeOfTransportType.PUBLIC_TRANSPORT) {
+            ModeOfTransport line = ModeOfTransport.createMinimal(mot.getDetailedType().get()).setId(mot.getId().get())
+                    .setService(Service.createMinimal(String.valueOf(1 + random.nextInt(99)))
+                            .setTowards("Terminus " + random.nextInt(1000)));
+            segment.setModeOfTransport(line).setIntermediateStops(
+                    createIntermediateStops(random, xs, ys, startTime, durationSeconds));
+        } else {
+            segment.setNavigationInstructions(createInstructions(random, coordinates));
+        }
+        return segment;
+    }
+
+    private static double getSpeedMetersPerSecond(ModeOfTransport mot) {
+        switch (mot.getDetailedType().get()) {
+        case FOOT:
+            return 1.4;
+        case BICYCLE:
+            return 4.5;
+        case CAR:
+            return 11;
+        case SUBWAY:
+            return 12;
+        default:
+            return 8;
+        }
+    }
+
+    private List<IntermediateStop> createIntermediateStops(Random random, long[] xs, long[] ys,
+            ZonedDateTime startTime, int durationSeconds) {
+        List<IntermediateStop> stops = new ArrayList<>(intermediateStopsPerSegment);
+        for (int i = 1; i <= intermediateStopsPerSegment; i++) {
+            double fraction = (double) i / (intermediateStopsPerSegment + 1);
+            int point = (int) (fraction * (xs.length - 1));
+            ZonedDateTime arrival = startTime.plusSeconds((long) (fraction * durationSeconds));
+            PublicTransportStop stop = PublicTransportStop.createMinimal(createCoordinate(xs[point], ys[point]))
+                    .setName("Stop " + random.nextInt(10_000));
+            stops.add(IntermediateStop.createMinimal(stop).setPlannedArrivalTime(arrival)
+                    .setPlannedDepartureTime(arrival));
+        }
+        return stops;
+    }
+
+    private List<Instruction<?>> createInstructions(Random random, List<GeoJSONCoordinate> coordinates) {
+        List<Instruction<?>> instructions = new ArrayList<>(instructionsPerSegment);
+        int last = coordinates.size() - 1;
+        for (int i = 0; i < instructionsPerSegment; i++) {
+            GeoJSONCoordinate position = coordinates
+                    .get(instructionsPerSegment == 1 ? 0 : (int) ((long) i * last / (instructionsPerSegment - 1)));
+            Optional<String> streetName = Optional.of("Street " + random.nextInt(5_000));
+            if (i == 0)
+                instructions.add(RoadInstruction.createMinimalRouteStart(position, streetName, Optional.empty()));
+            else if (i == instructionsPerSegment - 1)
+                instructions.add(RoadInstruction.createMinimalRouteEnd(position, streetName, Optional.empty()));
+            else
+                instructions.add(RoadInstruction.createMinimalOnRoute(position,
+                        TURN_DIRECTIONS[random.nextInt(TURN_DIRECTIONS.length)], streetName, Optional.empty()));
+        }
+        return instructions;
+    }
+
+    private Map<String, Object> createAdditionalInfo(Random random) {
+        Map<String, Object> additionalInfo = new LinkedHashMap<>();
+        for (int i = 0; i < additionalInfoEntries; i++) {
+            if (i % 2 == 0)
+                additionalInfo.put("synthetic:text" + i, "value " + random.nextInt(1_000_000));
+            else
+                additionalInfo.put("synthetic:number" + i, random.nextInt(1_000_000));
+        }
+        return additionalInfo;
+    }
+
+    private static GeoJSONCoordinate createCoordinate(long x, long y) {
+        return GeoJSONCoordinate.create(BigDecimal.valueOf(x, SCALE), BigDecimal.valueOf(y, SCALE));
+    }
+
+    private static long unscaled(BigDecimal value) {
+        return value.setScale(SCALE).unscaledValue().longValueExact();
+    }
+
+}
@@ -2,7 +2,6 @@ package at.ac.ait.ariadne.routeformat.features;
 
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -10,6 +9,7 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.Validatable;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * Defines a criterion a route can be optimized for
@@ -21,7 +21,7 @@ public class OptimizedFor implements Validatable {
 
     private String id;
     private Optional<String> description = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -57,7 +57,7 @@ public class OptimizedFor implements Validatable {
     }
 
     public OptimizedFor setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -5,7 +5,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -13,6 +12,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.Validatable;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * Defines all features supported by a routing service.
@@ -29,7 +29,7 @@ public class RoutingFeatures implements Validatable {
     private Optional<String> logoUrl = Optional.empty();
     private Optional<String> credits = Optional.empty();
     private List<Site> sites = new ArrayList<>();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -135,7 +135,7 @@ public class RoutingFeatures implements Validatable {
     }
 
     public RoutingFeatures setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -18,6 +17,7 @@ import at.ac.ait.ariadne.routeformat.Validatable;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * Details for a site, i.e. a region, that is supported by the routing service.
@@ -35,7 +35,7 @@ public class Site implements Validatable {
     private Optional<Integer> zoomLevel = Optional.empty();
     private Optional<GeoJSONFeature<GeoJSONPolygon>> boundingPolygon = Optional.empty();
     private List<SiteFeature> features = new ArrayList<>();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -144,7 +144,7 @@ public class Site implements Validatable {
     }
 
     public Site setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
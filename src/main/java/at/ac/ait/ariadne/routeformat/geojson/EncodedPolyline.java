@@ -0,0 +1,142 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import static at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate.X;
+import static at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate.Y;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Encoder and decoder for the <a href=
+ * "https://developers.google.com/maps/documentation/utilities/polylinealgorithm"
+ * >Encoded Polyline Algorithm Format</a> as used in
+ * {@link at.ac.ait.ariadne.routeformat.RouteSegment#getGeometryEncodedPolyLine()}
+ * and {@link at.ac.ait.ariadne.routeformat.Route#getSimplifiedGeometryEncodedPolyLine()}
+ * .
+ * <p>
+ * The precision is the number of decimal digits that are kept, i.e.
+ * {@value #PRECISION_5} (1e5, the original format) or {@value #PRECISION_6}
+ * (1e6, e.g. used by OSRM and Valhalla). Coordinates are rounded half up
+ * (away from zero) directly from their exact fixed-point representation, so
+ * no intermediate {@link GeoJSONCoordinate}s or doubles are created. Decoded
+ * coordinates are exact decimals with at most the given number of fraction
+ * digits (trailing zeros are removed). Note, that polylines are encoded in
+ * the order latitude, longitude, i.e. y before x.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class EncodedPolyline {
+
+    /** precision of the original format (1e5) */
+    public static final int PRECISION_5 = 5;
+    /** precision of 1e6 */
+    public static final int PRECISION_6 = 6;
+
+    private static final int MAX_PRECISION = 10;
+
+    private EncodedPolyline() {
+    }
+
+    /**
+     * @return the linestring encoded with precision {@value #PRECISION_5}
+     */
+    public static String encode(GeoJSONLineString lineString) {
+        return encode(lineString, PRECISION_5);
+    }
+
+    /**
+     * @param precision
+     *            number of decimal digits, e.g. {@link #PRECISION_6}
+     * @return the linestring as encoded polyline (z values are ignored)
+     */
+    public static String encode(GeoJSONLineString lineString, int precision) {
+        checkPrecision(precision);
+        PackedCoordinates coordinates = lineString.packedCoordinates();
+        // most deltas of routes need 3-4 characters per ordinate
+        StringBuilder sb = new StringBuilder(coordinates.size() * 8);
+        long previousY = 0, previousX = 0;
+        for (int i = 0; i < coordinates.size(); i++) {
+            long y = coordinates.getRounded(i, Y, precision);
+            long x = coordinates.getRounded(i, X, precision);
+            appendValue(sb, y - previousY);
+            appendValue(sb, x - previousX);
+            previousY = y;
+            previousX = x;
+        }
+        return sb.toString();
+    }
+
+    private static void appendValue(StringBuilder sb, long delta) {
+        long value = delta < 0 ? ~(delta << 1) : delta << 1;
+        while (value >= 0x20) {
+            sb.append((char) ((0x20 | (value & 0x1f)) + 63));
+            value >>>= 5;
+        }
+        sb.append((char) (value + 63));
+    }
+
+    /**
+     * @return the linestring decoded with precision {@value #PRECISION_5}
+     */
+    public static GeoJSONLineString decode(String encodedPolyline) {
+        return decode(encodedPolyline, PRECISION_5);
+    }
+
+    /**
+     * @param precision
+     *            number of decimal digits the polyline was encoded with, e.g.
+     *            {@link #PRECISION_6}
+     * @throws IllegalArgumentException
+     *             if the polyline is malformed
+     */
+    public static GeoJSONLineString decode(CharSequence encodedPolyline, int precision) {
+        checkPrecision(precision);
+        int length = encodedPolyline.length();
+        // at least two characters per coordinate
+        PackedCoordinates.Builder builder = new PackedCoordinates.Builder(length / 2);
+        long y = 0, x = 0;
+        int index = 0;
+        while (index < length) {
+            // latitude (y) first, then longitude (x)
+            for (int axis = Y; axis >= X; axis--) {
+                Preconditions.checkArgument(index < length, "polyline ends after a latitude");
+                long result = 0;
+                int shift = 0, b;
+                do {
+                    Preconditions.checkArgument(index < length, "polyline ends within a value");
+                    b = encodedPolyline.charAt(index++) - 63;
+                    Preconditions.checkArgument(b >= 0 && b < 64 && shift < 64, "invalid polyline at character %s",
+                            index - 1);
+                    result |= (long) (b & 0x1f) << shift;
+                    shift += 5;
+                } while (b >= 0x20);
+                long delta = (result & 1) != 0 ? ~(result >>> 1) : result >>> 1;
+                if (axis == Y)
+                    y += delta;
+                else
+                    x += delta;
+            }
+            addCoordinate(builder, x, y, precision);
+        }
+        return GeoJSONLineString.create(builder.build());
+    }
+
+    /** adds the coordinate without trailing zeros, e.g. 48.2267 instead of 48.22670 */
+    private static void addCoordinate(PackedCoordinates.Builder builder, long x, long y, int precision) {
+        int scaleX = precision, scaleY = precision;
+        while (scaleX > 0 && x % 10 == 0) {
+            x /= 10;
+            scaleX--;
+        }
+        while (scaleY > 0 && y % 10 == 0) {
+            y /= 10;
+            scaleY--;
+        }
+        builder.add(x, scaleX, y, scaleY);
+    }
+
+    private static void checkPrecision(int precision) {
+        Preconditions.checkArgument(precision >= 0 && precision <= MAX_PRECISION,
+                "precision must be between 0 and %s but was %s", MAX_PRECISION, precision);
+    }
+
+}
@@ -0,0 +1,162 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable axis-aligned envelope (minimum bounding rectangle) of
+ * coordinates. Comparisons are done with doubles, but the exact decimal
+ * values of the extreme coordinates are retained, so that
+ * {@link #toBoundingBox()} contains the same values as the geometry.
+ * <p>
+ * Envelopes of linestrings are cached (see
+ * {@link GeoJSONLineString#getEnvelope()}), envelopes of larger geometries
+ * (e.g. routes) are calculated with {@link #union(Envelope)} without looking
+ * at the coordinates again.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class Envelope {
+
+    private final double minX, minY, maxX, maxY;
+    private final BigDecimal exactMinX, exactMinY, exactMaxX, exactMaxY;
+
+    private Envelope(double minX, BigDecimal exactMinX, double minY, BigDecimal exactMinY, double maxX,
+            BigDecimal exactMaxX, double maxY, BigDecimal exactMaxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.exactMinX = exactMinX;
+        this.exactMinY = exactMinY;
+        this.exactMaxX = exactMaxX;
+        this.exactMaxY = exactMaxY;
+    }
+
+    /**
+     * @return the envelope of all coordinates in one pass over the packed
+     *         primitive values or <code>null</code> if there are no
+     *         coordinates
+     */
+    static Envelope of(PackedCoordinates coordinates) {
+        if (coordinates.isEmpty())
+            return null;
+        int minXIndex = 0, maxXIndex = 0, minYIndex = 0, maxYIndex = 0;
+        double minX = coordinates.getXAsDouble(0), maxX = minX;
+        double minY = coordinates.getYAsDouble(0), maxY = minY;
+        for (int i = 1; i < coordinates.size(); i++) {
+            double x = coordinates.getXAsDouble(i), y = coordinates.getYAsDouble(i);
+            if (x < minX) {
+                minX = x;
+                minXIndex = i;
+            } else if (x > maxX) {
+                maxX = x;
+                maxXIndex = i;
+            }
+            if (y < minY) {
+                minY = y;
+                minYIndex = i;
+            } else if (y > maxY) {
+                maxY = y;
+                maxYIndex = i;
+            }
+        }
+        // only the extreme coordinates are converted to their exact values
+        return new Envelope(minX, coordinates.get(minXIndex).getX(), minY, coordinates.get(minYIndex).getY(), maxX,
+                coordinates.get(maxXIndex).getX(), maxY, coordinates.get(maxYIndex).getY());
+    }
+
+    /**
+     * @return the smallest envelope containing both envelopes
+     */
+    public Envelope union(Envelope other) {
+        if (other == null || other == this)
+            return this;
+        boolean thisMinX = minX <= other.minX, thisMinY = minY <= other.minY;
+        boolean thisMaxX = maxX >= other.maxX, thisMaxY = maxY >= other.maxY;
+        if (thisMinX && thisMinY && thisMaxX && thisMaxY)
+            return this;
+        return new Envelope(thisMinX ? minX : other.minX, thisMinX ? exactMinX : other.exactMinX,
+                thisMinY ? minY : other.minY, thisMinY ? exactMinY : other.exactMinY, thisMaxX ? maxX : other.maxX,
+                thisMaxX ? exactMaxX : other.exactMaxX, thisMaxY ? maxY : other.maxY,
+                thisMaxY ? exactMaxY : other.exactMaxY);
+    }
+
+    public BigDecimal getMinX() {
+        return exactMinX;
+    }
+
+    public BigDecimal getMinY() {
+        return exactMinY;
+    }
+
+    public BigDecimal getMaxX() {
+        return exactMaxX;
+    }
+
+    public BigDecimal getMaxY() {
+        return exactMaxY;
+    }
+
+    public double getMinXAsDouble() {
+        return minX;
+    }
+
+    public double getMinYAsDouble() {
+        return minY;
+    }
+
+    public double getMaxXAsDouble() {
+        return maxX;
+    }
+
+    public double getMaxYAsDouble() {
+        return maxY;
+    }
+
+    /**
+     * @return a polygon with the points beginning in south-west and then
+     *         continuing clockwise
+     */
+    public GeoJSONFeature<GeoJSONPolygon> toBoundingBox() {
+        List<GeoJSONCoordinate> outerRing = new ArrayList<>(5);
+        outerRing.add(GeoJSONCoordinate.create(exactMinX, exactMinY));
+        outerRing.add(GeoJSONCoordinate.create(exactMinX, exactMaxY));
+        outerRing.add(GeoJSONCoordinate.create(exactMaxX, exactMaxY));
+        outerRing.add(GeoJSONCoordinate.create(exactMaxX, exactMinY));
+        outerRing.add(GeoJSONCoordinate.create(exactMinX, exactMinY));
+        return GeoJSONFeature.createPolygonFeatureFromRings(outerRing, Collections.emptyList());
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + exactMinX.hashCode();
+        result = prime * result + exactMinY.hashCode();
+        result = prime * result + exactMaxX.hashCode();
+        result = prime * result + exactMaxY.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        Envelope other = (Envelope) obj;
+        return exactMinX.equals(other.exactMinX) && exactMinY.equals(other.exactMinY)
+                && exactMaxX.equals(other.exactMaxX) && exactMaxY.equals(other.exactMaxY);
+    }
+
+    @Override
+    public String toString() {
+        return "Envelope [" + exactMinX + " " + exactMinY + ", " + exactMaxX + " " + exactMaxY + "]";
+    }
+
+}
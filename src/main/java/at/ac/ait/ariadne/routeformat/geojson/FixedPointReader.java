@@ -0,0 +1,160 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadCapability;
+
+/**
+ * Reads numeric tokens directly into the fixed-point representation used by
+ * {@link GeoJSONCoordinate} and {@link PackedCoordinates}, i.e. without an
+ * intermediate {@link String} or {@link BigDecimal}. The number's characters
+ * are parsed from the parser's text buffer, which retains the exact decimal
+ * representation of the input. Only numbers without fixed-point representation
+ * fall back to {@link JsonParser#getDecimalValue()}. Binary formats (e.g.
+ * Smile) that store exact decimals are read via their {@link BigDecimal}
+ * instead of formatting and re-parsing it.
+ * <p>
+ * Instances are mutable and hold the result of the last {@link #read(JsonParser)}
+ * , so one instance can be reused for all ordinates of a coordinate array.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+final class FixedPointReader {
+
+    private static final long MAX_UNSCALED_BEFORE_MULTIPLY = Long.MAX_VALUE / 10;
+    private static final int MAX_EXPONENT = 1000;
+
+    /** valid if {@link #decimal} is <code>null</code> */
+    long unscaled;
+    /** valid if {@link #decimal} is <code>null</code> */
+    int scale;
+    /** only set for numbers without fixed-point representation */
+    BigDecimal decimal;
+
+    /**
+     * Reads the current token, which must be numeric
+     */
+    void read(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            NumberType type = p.getNumberType();
+            if (type == NumberType.INT || type == NumberType.LONG) {
+                setFixedPoint(p.getLongValue(), 0);
+                return;
+            }
+        } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            if (p.getReadCapabilities().isEnabled(StreamReadCapability.EXACT_FLOATS)
+                    && p.getNumberType() == NumberType.BIG_DECIMAL) {
+                setExact(p.getDecimalValue());
+                return;
+            }
+            if (parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()))
+                return;
+        } else {
+            throw new JsonParseException(p, "expected number but got " + token);
+        }
+        setDecimal(p.getDecimalValue());
+    }
+
+    /**
+     * Parses a JSON number into {@link #unscaled} and {@link #scale} with the
+     * same semantics as {@link BigDecimal#BigDecimal(String)}.
+     *
+     * @return <code>false</code> if the number could not be parsed or has no
+     *         fixed-point representation
+     */
+    boolean parse(char[] chars, int offset, int length) {
+        int i = offset, end = offset + length;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+'))
+            negative = chars[i++] == '-';
+
+        long value = 0;
+        int digits = 0, fractionDigits = 0;
+        for (; i < end && isDigit(chars[i]); i++, digits++) {
+            if (value > MAX_UNSCALED_BEFORE_MULTIPLY)
+                return false;
+            value = value * 10 + (chars[i] - '0');
+        }
+        if (i < end && chars[i] == '.') {
+            for (i++; i < end && isDigit(chars[i]); i++, digits++, fractionDigits++) {
+                if (value > MAX_UNSCALED_BEFORE_MULTIPLY)
+                    return false;
+                value = value * 10 + (chars[i] - '0');
+            }
+        }
+        if (digits == 0 || value < 0)
+            return false;
+
+        int exponent = 0;
+        if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+'))
+                negativeExponent = chars[i++] == '-';
+            if (i == end)
+                return false;
+            for (; i < end && isDigit(chars[i]); i++) {
+                exponent = exponent * 10 + (chars[i] - '0');
+                if (exponent > MAX_EXPONENT)
+                    return false;
+            }
+            if (negativeExponent)
+                exponent = -exponent;
+        }
+        if (i != end)
+            return false;
+
+        int scale = fractionDigits - exponent;
+        if (scale < GeoJSONCoordinate.MIN_FIXED_POINT_SCALE || scale > GeoJSONCoordinate.MAX_FIXED_POINT_SCALE)
+            return false;
+        setFixedPoint(negative ? -value : value, scale);
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void setFixedPoint(long unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+        this.decimal = null;
+    }
+
+    private void setExact(BigDecimal value) {
+        if (value.scale() >= GeoJSONCoordinate.MIN_FIXED_POINT_SCALE
+                && value.scale() <= GeoJSONCoordinate.MAX_FIXED_POINT_SCALE
+                && value.unscaledValue().bitLength() < 64)
+            setFixedPoint(value.unscaledValue().longValue(), value.scale());
+        else
+            setDecimal(value);
+    }
+
+    private void setDecimal(BigDecimal decimal) {
+        this.unscaled = 0;
+        this.scale = 0;
+        this.decimal = decimal;
+    }
+
+    /**
+     * Sets the last read value as ordinate of the given coordinate
+     */
+    void applyTo(GeoJSONCoordinate coordinate, int axis) {
+        if (decimal == null) {
+            coordinate.setFixedPoint(axis, unscaled, scale);
+        } else if (axis == GeoJSONCoordinate.X) {
+            coordinate.setX(decimal);
+        } else if (axis == GeoJSONCoordinate.Y) {
+            coordinate.setY(decimal);
+        } else {
+            coordinate.setZ(decimal);
+        }
+    }
+
+}
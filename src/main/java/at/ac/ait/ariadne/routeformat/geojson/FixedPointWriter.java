@@ -0,0 +1,137 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+/**
+ * Writes fixed-point numbers as used by {@link GeoJSONCoordinate} and
+ * {@link PackedCoordinates} directly as characters, i.e. without creating a
+ * {@link BigDecimal} per ordinate. The output is exactly the same as
+ * {@link JsonGenerator#writeNumber(BigDecimal)}, which is used as fallback for
+ * generators that do not write textual numbers (e.g. binary formats) or write
+ * {@link BigDecimal}s in plain notation.
+ * <p>
+ * Instances hold a character buffer and must not be shared between threads.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+final class FixedPointWriter {
+
+    /**
+     * sign, 19 digits, decimal point and exponent (plain notation has at most
+     * six leading zeros)
+     */
+    private static final int MAX_LENGTH = 32;
+
+    private final char[] buffer = new char[MAX_LENGTH];
+    private final JsonGenerator gen;
+    private final boolean direct;
+
+    FixedPointWriter(JsonGenerator gen) {
+        this.gen = gen;
+        this.direct = gen.canWriteFormattedNumbers() && !gen.isEnabled(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN);
+    }
+
+    /**
+     * Writes the number unscaled * 10^-scale
+     */
+    void write(long unscaled, int scale) throws IOException {
+        if (!direct || unscaled == Long.MIN_VALUE) {
+            gen.writeNumber(BigDecimal.valueOf(unscaled, scale));
+            return;
+        }
+        gen.writeNumber(buffer, 0, format(unscaled, scale));
+    }
+
+    /**
+     * Writes an ordinate of a coordinate, <code>null</code> if it is not set
+     */
+    void write(GeoJSONCoordinate coordinate, int axis) throws IOException {
+        if (!coordinate.isPresent(axis))
+            gen.writeNull();
+        else if (coordinate.getOverflow(axis) != null)
+            gen.writeNumber(coordinate.getOverflow(axis));
+        else
+            write(coordinate.unscaled(axis), coordinate.scale(axis));
+    }
+
+    /**
+     * Formats the number into the buffer with the same rules as
+     * {@link BigDecimal#toString()}
+     *
+     * @return the number of characters written
+     */
+    int format(long unscaled, int scale) {
+        int pos = 0;
+        if (unscaled < 0) {
+            buffer[pos++] = '-';
+            unscaled = -unscaled;
+        }
+        int digitsStart = pos;
+        int digits = appendDigits(unscaled, pos);
+        int adjusted = -scale + (digits - 1);
+
+        if (scale == 0)
+            return pos + digits;
+
+        if (scale > 0 && adjusted >= -6) {
+            if (digits > scale) {
+                // insert the decimal point
+                int integerDigits = digits - scale;
+                System.arraycopy(buffer, digitsStart + integerDigits, buffer, digitsStart + integerDigits + 1, scale);
+                buffer[digitsStart + integerDigits] = '.';
+                return pos + digits + 1;
+            }
+            // 0.000ddd
+            int leadingZeros = scale - digits;
+            System.arraycopy(buffer, digitsStart, buffer, digitsStart + 2 + leadingZeros, digits);
+            buffer[pos++] = '0';
+            buffer[pos++] = '.';
+            for (int i = 0; i < leadingZeros; i++)
+                buffer[pos++] = '0';
+            return pos + digits;
+        }
+
+        // scientific notation
+        if (digits > 1) {
+            System.arraycopy(buffer, digitsStart + 1, buffer, digitsStart + 2, digits - 1);
+            buffer[digitsStart + 1] = '.';
+            pos += digits + 1;
+        } else {
+            pos += 1;
+        }
+        if (adjusted != 0) {
+            buffer[pos++] = 'E';
+            if (adjusted > 0)
+                buffer[pos++] = '+';
+            pos += appendDigits(adjusted, pos);
+        }
+        return pos;
+    }
+
+    char[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the number of characters written (including a minus sign)
+     */
+    private int appendDigits(long value, int pos) {
+        if (value < 0) {
+            buffer[pos] = '-';
+            return 1 + appendDigits(-value, pos + 1);
+        }
+        int length = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10)
+            length++;
+        for (int i = pos + length - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return length;
+    }
+
+}
@@ -2,6 +2,7 @@ package at.ac.ait.ariadne.routeformat.geojson;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -23,56 +24,145 @@ import at.ac.ait.ariadne.routeformat.Validatable;
  * precisely in that order and using decimal numbers. Altitude or elevation MAY
  * be included as an optional third element.</i>
  * <p>
- * 
+ * Internally each ordinate is stored as a fixed-point number, i.e. as unscaled
+ * <code>long</code> plus its decimal scale, which retains the exact decimal
+ * representation (and therefore the JSON output) of the {@link BigDecimal}s it
+ * was created from. The {@link BigDecimal} getters create views on demand.
+ * Values that do not fit into this representation are kept as
+ * {@link BigDecimal}s.
+ * <p>
+ * Coordinates returned by {@link GeoJSONLineString#getCoordinates()} are
+ * read-only views of the packed coordinates of the linestring, their setters
+ * throw an {@link UnsupportedOperationException}. Use {@link #copy()} for a
+ * modifiable copy.
+ *
  * @author AIT Austrian Institute of Technology GmbH
  */
 @JsonDeserialize(using = GeoJSONCoordinateDeserializer.class)
 @JsonSerialize(using = GeoJSONCoordinateSerializer.class)
 public class GeoJSONCoordinate implements Validatable {
 
-    private BigDecimal x, y;
-    private Optional<BigDecimal> z = Optional.empty();
+    /** number of decimal places used when creating coordinates from doubles */
+    public static final int DOUBLE_SCALE = 7;
+
+    /** ordinate indices */
+    static final int X = 0, Y = 1, Z = 2;
+    /** range of scales stored as fixed-point number */
+    static final int MIN_FIXED_POINT_SCALE = -100, MAX_FIXED_POINT_SCALE = 100;
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    /** doubles that can be scaled and rounded to longs without loss */
+    private static final double MAX_FAST_DOUBLE = 1024;
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    private long x, y, z;
+    private byte xScale, yScale, zScale;
+    /** bit mask of the present ordinates */
+    private byte present;
+    /** only allocated for values without fixed-point representation */
+    private BigDecimal[] overflow;
+    private boolean readOnly;
 
     // -- getters
 
     public BigDecimal getX() {
-        return x;
+        return get(X);
     }
 
     public BigDecimal getY() {
-        return y;
+        return get(Y);
     }
 
     public Optional<BigDecimal> getZ() {
-        return z;
+        return Optional.ofNullable(get(Z));
+    }
+
+    /**
+     * @return x as double without creating an intermediate {@link BigDecimal}
+     * @throws NullPointerException
+     *             if x is not set
+     */
+    @JsonIgnore
+    public double getXAsDouble() {
+        return getAsDouble(X);
+    }
+
+    /**
+     * @return y as double without creating an intermediate {@link BigDecimal}
+     * @throws NullPointerException
+     *             if y is not set
+     */
+    @JsonIgnore
+    public double getYAsDouble() {
+        return getAsDouble(Y);
+    }
+
+    /**
+     * @return <code>true</code> if the setters throw an
+     *         {@link UnsupportedOperationException}
+     */
+    @JsonIgnore
+    public boolean isReadOnly() {
+        return readOnly;
     }
 
     // -- setters
 
+    /**
+     * @throws UnsupportedOperationException
+     *             if the coordinate is read-only
+     */
     public GeoJSONCoordinate setX(BigDecimal x) {
-        this.x = x;
+        checkModifiable();
+        set(X, x);
         return this;
     }
 
+    /**
+     * @throws UnsupportedOperationException
+     *             if the coordinate is read-only
+     */
     public GeoJSONCoordinate setY(BigDecimal y) {
-        this.y = y;
+        checkModifiable();
+        set(Y, y);
         return this;
     }
 
+    /**
+     * @throws UnsupportedOperationException
+     *             if the coordinate is read-only
+     */
     public GeoJSONCoordinate setZ(BigDecimal z) {
-        this.z = Optional.ofNullable(z);
+        checkModifiable();
+        set(Z, z);
         return this;
     }
 
+    private void checkModifiable() {
+        if (readOnly)
+            throw new UnsupportedOperationException(
+                    "read-only coordinate of a GeoJSONLineString, modify a copy and set the coordinates again");
+    }
+
     // --
 
+    /**
+     * Creates a coordinate rounded to {@value #DOUBLE_SCALE} decimal places
+     */
     public static GeoJSONCoordinate create(double x, double y) {
-        return GeoJSONCoordinate.create(String.format(Locale.US, "%.7f", x), String.format(Locale.US, "%.7f", y));
+        GeoJSONCoordinate coordinate = new GeoJSONCoordinate();
+        coordinate.setFromDouble(X, x);
+        coordinate.setFromDouble(Y, y);
+        return coordinate;
     }
 
+    /**
+     * Creates a coordinate rounded to {@value #DOUBLE_SCALE} decimal places
+     */
     public static GeoJSONCoordinate create(double x, double y, double z) {
-        return GeoJSONCoordinate.create(String.format(Locale.US, "%.7f", x), String.format(Locale.US, "%.7f", y),
-                String.format(Locale.US, "%.7f", z));
+        GeoJSONCoordinate coordinate = create(x, y);
+        coordinate.setFromDouble(Z, z);
+        return coordinate;
     }
 
     public static GeoJSONCoordinate create(String x, String y) {
@@ -102,22 +192,175 @@ public class GeoJSONCoordinate implements Validatable {
         return new GeoJSONCoordinate().setX(x).setY(y).setZ(z);
     }
 
+    /** @return a modifiable copy of this coordinate */
+    public GeoJSONCoordinate copy() {
+        GeoJSONCoordinate copy = new GeoJSONCoordinate();
+        copy.x = x;
+        copy.y = y;
+        copy.z = z;
+        copy.xScale = xScale;
+        copy.yScale = yScale;
+        copy.zScale = zScale;
+        copy.present = present;
+        copy.overflow = overflow == null ? null : overflow.clone();
+        return copy;
+    }
+
+    /** makes this coordinate read-only, used for views of packed coordinates */
+    GeoJSONCoordinate setReadOnly() {
+        readOnly = true;
+        return this;
+    }
+
     @Override
     public void validate() {
-        Preconditions.checkArgument(x != null, "x is mandatory but missing");
-        Preconditions.checkArgument(y != null, "y is mandatory but missing");
+        Preconditions.checkArgument(isPresent(X), "x is mandatory but missing");
+        Preconditions.checkArgument(isPresent(Y), "y is mandatory but missing");
+    }
+
+    // -- fixed-point storage
+
+    boolean isPresent(int axis) {
+        return (present & (1 << axis)) != 0;
+    }
+
+    /** @return the unscaled value of a fixed-point ordinate */
+    long unscaled(int axis) {
+        return axis == X ? x : axis == Y ? y : z;
+    }
+
+    /** @return the scale of a fixed-point ordinate */
+    int scale(int axis) {
+        return axis == X ? xScale : axis == Y ? yScale : zScale;
+    }
+
+    private BigDecimal get(int axis) {
+        if (!isPresent(axis))
+            return null;
+        if (getOverflow(axis) != null)
+            return overflow[axis];
+        return BigDecimal.valueOf(unscaled(axis), scale(axis));
+    }
+
+    private double getAsDouble(int axis) {
+        if (!isPresent(axis))
+            throw new NullPointerException("coordinate " + (char) ('x' + axis) + " is not set");
+        if (getOverflow(axis) != null)
+            return overflow[axis].doubleValue();
+        return toDouble(unscaled(axis), scale(axis));
+    }
+
+    /**
+     * @return the double closest to <code>unscaled * 10^-scale</code>
+     */
+    static double toDouble(long unscaled, int scale) {
+        // both operands are exact, therefore the division is correctly rounded
+        if (Math.abs(unscaled) <= MAX_EXACT_LONG && scale >= 0 && scale < POWERS_OF_TEN.length)
+            return unscaled / POWERS_OF_TEN[scale];
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+
+    private void set(int axis, BigDecimal value) {
+        if (value == null) {
+            clearOverflow(axis);
+            storeFixedPoint(axis, 0, 0);
+            present &= ~(1 << axis);
+        } else if (value.scale() >= MIN_FIXED_POINT_SCALE && value.scale() <= MAX_FIXED_POINT_SCALE
+                && value.unscaledValue().bitLength() < 64) {
+            setFixedPoint(axis, value.unscaledValue().longValue(), value.scale());
+        } else {
+            storeFixedPoint(axis, 0, 0);
+            present |= 1 << axis;
+            if (overflow == null)
+                overflow = new BigDecimal[3];
+            overflow[axis] = value;
+        }
+    }
+
+    /**
+     * Sets an ordinate to the value <code>unscaled * 10^-scale</code>
+     */
+    GeoJSONCoordinate setFixedPoint(int axis, long unscaled, int scale) {
+        Preconditions.checkArgument(scale >= MIN_FIXED_POINT_SCALE && scale <= MAX_FIXED_POINT_SCALE,
+                "scale out of range: %s", scale);
+        clearOverflow(axis);
+        storeFixedPoint(axis, unscaled, scale);
+        present |= 1 << axis;
+        return this;
+    }
+
+    /**
+     * @return the value of an ordinate without fixed-point representation or
+     *         <code>null</code>
+     */
+    BigDecimal getOverflow(int axis) {
+        return overflow == null ? null : overflow[axis];
+    }
+
+    /** keeps the invariant that {@link #overflow} is null if it is empty */
+    private void clearOverflow(int axis) {
+        if (overflow == null)
+            return;
+        overflow[axis] = null;
+        if (overflow[X] == null && overflow[Y] == null && overflow[Z] == null)
+            overflow = null;
+    }
+
+    private void storeFixedPoint(int axis, long unscaled, int scale) {
+        switch (axis) {
+        case X:
+            x = unscaled;
+            xScale = (byte) scale;
+            break;
+        case Y:
+            y = unscaled;
+            yScale = (byte) scale;
+            break;
+        default:
+            z = unscaled;
+            zScale = (byte) scale;
+        }
+    }
+
+    /**
+     * Rounds half-up to {@value #DOUBLE_SCALE} decimal places, exactly like
+     * formatting with <code>%.7f</code>. Values close to a tie are formatted
+     * with {@link String#format(Locale, String, Object...)} to guarantee the
+     * same result.
+     */
+    private void setFromDouble(int axis, double value) {
+        if (Math.abs(value) < MAX_FAST_DOUBLE) {
+            double scaled = value * POWERS_OF_TEN[DOUBLE_SCALE];
+            double fraction = scaled - Math.floor(scaled);
+            if (Math.abs(fraction - 0.5) > 1e-5) {
+                setFixedPoint(axis, Math.round(scaled), DOUBLE_SCALE);
+                return;
+            }
+        }
+        set(axis, new BigDecimal(String.format(Locale.US, "%." + DOUBLE_SCALE + "f", value)));
     }
 
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((x == null) ? 0 : x.hashCode());
-        result = prime * result + ((y == null) ? 0 : y.hashCode());
-        result = prime * result + ((z == null) ? 0 : z.hashCode());
+        for (int axis = X; axis <= Z; axis++)
+            result = prime * result + ordinateHashCode(isPresent(axis), unscaled(axis), scale(axis), getOverflow(axis));
         return result;
     }
 
+    /**
+     * Hash code of a single ordinate, so that containers of packed coordinates
+     * can compute the same hash code as {@link #hashCode()}
+     */
+    static int ordinateHashCode(boolean present, long unscaled, int scale, BigDecimal overflow) {
+        if (!present)
+            return 0;
+        if (overflow != null)
+            return overflow.hashCode();
+        return 31 * Long.hashCode(unscaled) + scale;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
@@ -127,20 +370,15 @@ public class GeoJSONCoordinate implements Validatable {
         if (getClass() != obj.getClass())
             return false;
         GeoJSONCoordinate other = (GeoJSONCoordinate) obj;
-        if (x == null) {
-            if (other.x != null)
-                return false;
-        } else if (!x.equals(other.x))
+        if (present != other.present)
+            return false;
+        if (x != other.x || xScale != other.xScale)
+            return false;
+        if (y != other.y || yScale != other.yScale)
             return false;
-        if (y == null) {
-            if (other.y != null)
-                return false;
-        } else if (!y.equals(other.y))
+        if (z != other.z || zScale != other.zScale)
             return false;
-        if (z == null) {
-            if (other.z != null)
-                return false;
-        } else if (!z.equals(other.z))
+        if (!Arrays.equals(overflow, other.overflow))
             return false;
         return true;
     }
@@ -148,14 +386,14 @@ public class GeoJSONCoordinate implements Validatable {
     @JsonIgnore
     public List<BigDecimal> asNewList() {
         List<BigDecimal> list = new ArrayList<>();
-        list.add(x);
-        list.add(y);
+        list.add(getX());
+        list.add(getY());
         return list;
     }
 
     @Override
     public String toString() {
-        return "Coordinate [x=" + x + ", y=" + y + ", z=" + z + "]";
+        return "Coordinate [x=" + getX() + ", y=" + getY() + ", z=" + getZ() + "]";
     }
 
 }
@@ -1,9 +1,6 @@
 package at.ac.ait.ariadne.routeformat.geojson;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
@@ -11,6 +8,11 @@ import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 
+/**
+ * Reads a single coordinate array directly into the fixed-point storage of a
+ * {@link GeoJSONCoordinate}. For whole arrays of coordinates see
+ * {@link GeoJSONCoordinatesDeserializer}.
+ */
 public class GeoJSONCoordinateDeserializer extends JsonDeserializer<GeoJSONCoordinate> {
 
     @Override
@@ -19,14 +21,23 @@ public class GeoJSONCoordinateDeserializer extends JsonDeserializer<GeoJSONCoord
         if (!p.isExpectedStartArrayToken())
             throw new JsonParseException(p, "expected array start for coordinate");
 
-        List<BigDecimal> coordinates = new ArrayList<>();
-        for (JsonToken t = p.nextToken(); t != null; t = p.nextToken()) {
-            if (t.equals(JsonToken.VALUE_NUMBER_INT) || t.equals(JsonToken.VALUE_NUMBER_FLOAT))
-                coordinates.add(new BigDecimal(p.getValueAsString()));
-            else
-                break;
+        GeoJSONCoordinate coordinate = new GeoJSONCoordinate();
+        FixedPointReader reader = new FixedPointReader();
+        int count = 0;
+        for (JsonToken t = p.nextToken(); t != null && t.isNumeric(); t = p.nextToken()) {
+            if (count <= GeoJSONCoordinate.Z) {
+                reader.read(p);
+                reader.applyTo(coordinate, count);
+            }
+            count++;
         }
-        return GeoJSONCoordinate.create(coordinates);
+        checkCount(count);
+        return coordinate;
+    }
+
+    static void checkCount(int count) {
+        if (count != 2 && count != 3)
+            throw new IllegalArgumentException("exactly 2 or 3 coordinates allowed, but were " + count);
     }
 
 }
@@ -12,11 +12,12 @@ public class GeoJSONCoordinateSerializer extends JsonSerializer<GeoJSONCoordinat
     @Override
     public void serialize(GeoJSONCoordinate value, JsonGenerator gen, SerializerProvider serializers)
             throws IOException, JsonProcessingException {
+        FixedPointWriter writer = new FixedPointWriter(gen);
         gen.writeStartArray();
-        gen.writeNumber(value.getX());
-        gen.writeNumber(value.getY());
-        if (value.getZ().isPresent())
-            gen.writeNumber(value.getZ().get());
+        writer.write(value, GeoJSONCoordinate.X);
+        writer.write(value, GeoJSONCoordinate.Y);
+        if (value.isPresent(GeoJSONCoordinate.Z))
+            writer.write(value, GeoJSONCoordinate.Z);
         gen.writeEndArray();
     }
 
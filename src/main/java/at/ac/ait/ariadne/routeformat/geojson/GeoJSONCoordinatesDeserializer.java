@@ -0,0 +1,123 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+/**
+ * Reads a whole array of coordinates (e.g. of a {@link GeoJSONLineString}) in
+ * one pass directly into packed primitive arrays, i.e. without creating a
+ * {@link GeoJSONCoordinate} per position. The nested classes handle the
+ * coordinate arrays of {@link GeoJSONPolygon} and {@link GeoJSONMultiPolygon},
+ * whose rings are read directly into modifiable lists of modifiable
+ * coordinates (since polygon rings are not stored packed).
+ * <p>
+ * The lists of line string coordinates are read-only.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class GeoJSONCoordinatesDeserializer extends JsonDeserializer<List<GeoJSONCoordinate>> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Override
+    public List<GeoJSONCoordinate> deserialize(JsonParser p, DeserializationContext ctxt)
+            throws IOException, JsonParseException {
+        return readCoordinates(p, new FixedPointReader());
+    }
+
+    /** Deserializer for the rings of a {@link GeoJSONPolygon} */
+    public static class Rings extends JsonDeserializer<List<List<GeoJSONCoordinate>>> {
+        @Override
+        public List<List<GeoJSONCoordinate>> deserialize(JsonParser p, DeserializationContext ctxt)
+                throws IOException, JsonParseException {
+            return readRings(p, new FixedPointReader());
+        }
+    }
+
+    /** Deserializer for the polygons of a {@link GeoJSONMultiPolygon} */
+    public static class Polygons extends JsonDeserializer<List<List<List<GeoJSONCoordinate>>>> {
+        @Override
+        public List<List<List<GeoJSONCoordinate>>> deserialize(JsonParser p, DeserializationContext ctxt)
+                throws IOException, JsonParseException {
+            FixedPointReader reader = new FixedPointReader();
+            expectStartArray(p, "polygons");
+            List<List<List<GeoJSONCoordinate>>> polygons = new ArrayList<>();
+            JsonToken t;
+            for (t = p.nextToken(); t == JsonToken.START_ARRAY; t = p.nextToken())
+                polygons.add(readRings(p, reader));
+            expectEndArray(p, t, "polygons");
+            return polygons;
+        }
+    }
+
+    private static List<List<GeoJSONCoordinate>> readRings(JsonParser p, FixedPointReader reader)
+            throws IOException {
+        expectStartArray(p, "rings");
+        List<List<GeoJSONCoordinate>> rings = new ArrayList<>();
+        JsonToken t;
+        for (t = p.nextToken(); t == JsonToken.START_ARRAY; t = p.nextToken())
+            rings.add(readRing(p, reader));
+        expectEndArray(p, t, "rings");
+        return rings;
+    }
+
+    private static PackedCoordinates readCoordinates(JsonParser p, FixedPointReader reader) throws IOException {
+        expectStartArray(p, "coordinates");
+        PackedCoordinates.Builder builder = new PackedCoordinates.Builder(INITIAL_CAPACITY);
+        JsonToken t;
+        for (t = p.nextToken(); t == JsonToken.START_ARRAY; t = p.nextToken()) {
+            int position = builder.startCoordinate();
+            int count = 0;
+            for (t = p.nextToken(); t != null && t.isNumeric(); t = p.nextToken()) {
+                if (count <= GeoJSONCoordinate.Z) {
+                    reader.read(p);
+                    builder.setOrdinate(position + count, reader);
+                }
+                count++;
+            }
+            expectEndArray(p, t, "coordinate");
+            GeoJSONCoordinateDeserializer.checkCount(count);
+        }
+        expectEndArray(p, t, "coordinates");
+        return builder.build();
+    }
+
+    private static List<GeoJSONCoordinate> readRing(JsonParser p, FixedPointReader reader) throws IOException {
+        List<GeoJSONCoordinate> ring = new ArrayList<>();
+        JsonToken t;
+        for (t = p.nextToken(); t == JsonToken.START_ARRAY; t = p.nextToken()) {
+            GeoJSONCoordinate coordinate = new GeoJSONCoordinate();
+            int count = 0;
+            for (t = p.nextToken(); t != null && t.isNumeric(); t = p.nextToken()) {
+                if (count <= GeoJSONCoordinate.Z) {
+                    reader.read(p);
+                    reader.applyTo(coordinate, count);
+                }
+                count++;
+            }
+            expectEndArray(p, t, "coordinate");
+            GeoJSONCoordinateDeserializer.checkCount(count);
+            ring.add(coordinate);
+        }
+        expectEndArray(p, t, "ring");
+        return ring;
+    }
+
+    private static void expectStartArray(JsonParser p, String name) throws JsonParseException {
+        if (!p.isExpectedStartArrayToken())
+            throw new JsonParseException(p, "expected array start for " + name);
+    }
+
+    private static void expectEndArray(JsonParser p, JsonToken t, String name) throws JsonParseException {
+        if (t != JsonToken.END_ARRAY)
+            throw new JsonParseException(p, "expected array end for " + name + " but got " + t);
+    }
+
+}
@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -13,6 +12,7 @@ import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.Validatable;
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * @author AIT Austrian Institute of Technology GmbH
@@ -23,7 +23,7 @@ public class GeoJSONFeature<T extends GeoJSONGeometryObject> implements Validata
     @JsonProperty(required = true)
     public final String type = GeoJSONUtil.getTypeName(this.getClass());
     private T geometry;
-    private Map<String, Object> properties = new TreeMap<>();
+    private Map<String, Object> properties = new CompactSortedMap<>();
 
     // -- getters
 
@@ -50,7 +50,7 @@ public class GeoJSONFeature<T extends GeoJSONGeometryObject> implements Validata
     }
 
     public GeoJSONFeature<T> setProperties(Map<String, Object> properties) {
-        this.properties = new TreeMap<>(properties);
+        this.properties = new CompactSortedMap<>(properties);
         return this;
     }
 
@@ -0,0 +1,44 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Hand-written serializer for {@link GeoJSONFeatureCollection}, the output is
+ * identical to the default (bean) serialization.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class GeoJSONFeatureCollectionSerializer extends JsonSerializer<GeoJSONFeatureCollection<?>> {
+
+    private final GeoJSONFeatureSerializer featureSerializer = new GeoJSONFeatureSerializer();
+
+    @Override
+    public void serialize(GeoJSONFeatureCollection<?> value, JsonGenerator gen, SerializerProvider serializers)
+            throws IOException, JsonProcessingException {
+        gen.writeStartObject(value);
+        if (value.type != null)
+            gen.writeStringField(GeoJSONGeometrySerializer.TYPE, value.type);
+        gen.writeFieldName("features");
+        List<? extends GeoJSONFeature<?>> features = value.getFeatures();
+        if (features == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray();
+            for (GeoJSONFeature<?> feature : features) {
+                if (feature == null)
+                    gen.writeNull();
+                else
+                    featureSerializer.serialize(feature, gen, serializers);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+}
@@ -0,0 +1,33 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Hand-written serializer for {@link GeoJSONFeature}, the output is identical
+ * to the default (bean) serialization.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class GeoJSONFeatureSerializer extends JsonSerializer<GeoJSONFeature<?>> {
+
+    @Override
+    public void serialize(GeoJSONFeature<?> value, JsonGenerator gen, SerializerProvider serializers)
+            throws IOException, JsonProcessingException {
+        gen.writeStartObject(value);
+        if (value.type != null)
+            gen.writeStringField(GeoJSONGeometrySerializer.TYPE, value.type);
+        GeoJSONGeometryObject geometry = value.getGeometry();
+        if (geometry != null) {
+            gen.writeFieldName("geometry");
+            GeoJSONGeometrySerializer.serializeTyped(geometry, gen, serializers);
+        }
+        serializers.defaultSerializeField("properties", value.getProperties(), gen);
+        gen.writeEndObject();
+    }
+
+}
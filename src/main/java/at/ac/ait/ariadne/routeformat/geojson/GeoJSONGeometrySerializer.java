@@ -0,0 +1,143 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/**
+ * Hand-written serializer for {@link GeoJSONPoint}, {@link GeoJSONLineString},
+ * {@link GeoJSONPolygon} and {@link GeoJSONMultiPolygon} that writes the
+ * coordinates straight from their fixed-point representation. The output is
+ * identical to the default (bean) serialization.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class GeoJSONGeometrySerializer extends JsonSerializer<GeoJSONGeometryObject> {
+
+    static final String TYPE = "type";
+    static final String COORDINATES = "coordinates";
+
+    @Override
+    public void serialize(GeoJSONGeometryObject value, JsonGenerator gen, SerializerProvider serializers)
+            throws IOException, JsonProcessingException {
+        gen.writeStartObject(value);
+        writeCoordinatesField(value, gen);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(GeoJSONGeometryObject value, JsonGenerator gen, SerializerProvider serializers,
+            TypeSerializer typeSer) throws IOException {
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, JsonToken.START_OBJECT));
+        writeCoordinatesField(value, gen);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    /**
+     * Writes the geometry including its type property as done for polymorphic
+     * properties (e.g. the geometry of a {@link GeoJSONFeature})
+     */
+    static void serializeTyped(GeoJSONGeometryObject value, JsonGenerator gen, SerializerProvider serializers)
+            throws IOException {
+        String typeName = getTypeName(value);
+        if (typeName == null) {
+            serializers.findTypedValueSerializer(value.getClass(), true, null).serialize(value, gen, serializers);
+            return;
+        }
+        gen.writeStartObject(value);
+        gen.writeStringField(TYPE, typeName);
+        writeCoordinatesField(value, gen);
+        gen.writeEndObject();
+    }
+
+    /**
+     * @return the type name for the geometry classes of this package,
+     *         <code>null</code> for other implementations
+     */
+    private static String getTypeName(GeoJSONGeometryObject value) {
+        Class<?> clazz = value.getClass();
+        if (clazz == GeoJSONLineString.class)
+            return "LineString";
+        if (clazz == GeoJSONPoint.class)
+            return "Point";
+        if (clazz == GeoJSONPolygon.class)
+            return "Polygon";
+        if (clazz == GeoJSONMultiPolygon.class)
+            return "MultiPolygon";
+        return null;
+    }
+
+    private static void writeCoordinatesField(GeoJSONGeometryObject value, JsonGenerator gen) throws IOException {
+        FixedPointWriter writer = new FixedPointWriter(gen);
+        gen.writeFieldName(COORDINATES);
+        if (value instanceof GeoJSONLineString) {
+            writeCoordinates(((GeoJSONLineString) value).getCoordinates(), gen, writer);
+        } else if (value instanceof GeoJSONPoint) {
+            Optional<GeoJSONCoordinate> coordinate = ((GeoJSONPoint) value).getCoordinates();
+            writeCoordinate(coordinate.orElse(null), gen, writer);
+        } else if (value instanceof GeoJSONPolygon) {
+            writeRings(((GeoJSONPolygon) value).getCoordinates(), gen, writer);
+        } else if (value instanceof GeoJSONMultiPolygon) {
+            List<List<List<GeoJSONCoordinate>>> polygons = ((GeoJSONMultiPolygon) value).getCoordinates();
+            gen.writeStartArray();
+            for (List<List<GeoJSONCoordinate>> polygon : polygons)
+                writeRings(polygon, gen, writer);
+            gen.writeEndArray();
+        } else {
+            throw new IllegalArgumentException("unsupported geometry " + value.getClass());
+        }
+    }
+
+    private static void writeRings(List<List<GeoJSONCoordinate>> rings, JsonGenerator gen, FixedPointWriter writer)
+            throws IOException {
+        if (rings == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray();
+        for (List<GeoJSONCoordinate> ring : rings)
+            writeCoordinates(ring, gen, writer);
+        gen.writeEndArray();
+    }
+
+    private static void writeCoordinates(List<GeoJSONCoordinate> coordinates, JsonGenerator gen,
+            FixedPointWriter writer) throws IOException {
+        if (coordinates == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray();
+        if (coordinates instanceof PackedCoordinates) {
+            PackedCoordinates packed = (PackedCoordinates) coordinates;
+            for (int i = 0; i < packed.size(); i++)
+                packed.write(i, gen, writer);
+        } else {
+            for (GeoJSONCoordinate coordinate : coordinates)
+                writeCoordinate(coordinate, gen, writer);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeCoordinate(GeoJSONCoordinate coordinate, JsonGenerator gen, FixedPointWriter writer)
+            throws IOException {
+        if (coordinate == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray();
+        writer.write(coordinate, GeoJSONCoordinate.X);
+        writer.write(coordinate, GeoJSONCoordinate.Y);
+        if (coordinate.isPresent(GeoJSONCoordinate.Z))
+            writer.write(coordinate, GeoJSONCoordinate.Z);
+        gen.writeEndArray();
+    }
+
+}
@@ -2,34 +2,97 @@ package at.ac.ait.ariadne.routeformat.geojson;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.base.Preconditions;
 
 /**
  * A linestring that may be empty, i.e. not contain a coordinate, but may never
  * consist of a single coordinate.
+ * <p>
+ * The coordinates are stored in packed primitive arrays. Therefore
+ * {@link #getCoordinates()} returns a read-only view, which creates read-only
+ * {@link GeoJSONCoordinate}s on access: modifying the list or one of its
+ * coordinates throws an {@link UnsupportedOperationException}. To change
+ * coordinates modify a copy (see {@link GeoJSONCoordinate#copy()}) and call
+ * {@link #setCoordinates(List)}. For bulk access use {@link #size()},
+ * {@link #getXAsDouble(int)}, and {@link #getYAsDouble(int)} instead.
+ * <p>
+ * The {@link Envelope} is calculated on first access and cached until the
+ * coordinates are replaced.
  * 
  * @author AIT Austrian Institute of Technology GmbH
  */
 @JsonInclude(Include.ALWAYS)
 public class GeoJSONLineString implements GeoJSONGeometryObject {
 
-    private List<GeoJSONCoordinate> coordinates = new ArrayList<>();
+    private PackedCoordinates coordinates = PackedCoordinates.EMPTY;
+    /** lazily calculated, the coordinates are immutable */
+    private Envelope envelope;
 
     // -- getters
 
+    /**
+     * @return a read-only view of the coordinates, the list and its elements
+     *         can not be modified
+     */
     @JsonProperty(required = true)
     public List<GeoJSONCoordinate> getCoordinates() {
         return coordinates;
     }
 
+    /**
+     * @return the number of coordinates
+     */
+    public int size() {
+        return coordinates.size();
+    }
+
+    /**
+     * @return x of the coordinate at the given index without creating a
+     *         {@link GeoJSONCoordinate}
+     */
+    @JsonIgnore
+    public double getXAsDouble(int index) {
+        return coordinates.getXAsDouble(index);
+    }
+
+    /**
+     * @return y of the coordinate at the given index without creating a
+     *         {@link GeoJSONCoordinate}
+     */
+    @JsonIgnore
+    public double getYAsDouble(int index) {
+        return coordinates.getYAsDouble(index);
+    }
+
+    /**
+     * @return the envelope of all coordinates or empty for an empty
+     *         linestring
+     */
+    @JsonIgnore
+    public Optional<Envelope> getEnvelope() {
+        if (envelope == null)
+            envelope = Envelope.of(coordinates);
+        return Optional.ofNullable(envelope);
+    }
+
+    /** the packed coordinates for primitive access within the package */
+    PackedCoordinates packedCoordinates() {
+        return coordinates;
+    }
+
     // -- setters
 
+    @JsonDeserialize(using = GeoJSONCoordinatesDeserializer.class)
     public GeoJSONLineString setCoordinates(List<GeoJSONCoordinate> coordinates) {
-        this.coordinates = new ArrayList<>(coordinates);
+        this.coordinates = PackedCoordinates.copyOf(coordinates);
+        this.envelope = null;
         return this;
     }
 
@@ -39,17 +102,38 @@ public class GeoJSONLineString implements GeoJSONGeometryObject {
         return new GeoJSONLineString().setCoordinates(points);
     }
 
+    static GeoJSONLineString create(PackedCoordinates coordinates) {
+        GeoJSONLineString lineString = new GeoJSONLineString();
+        lineString.coordinates = coordinates;
+        return lineString;
+    }
+
+    /**
+     * @return a linestring with all coordinates of the given linestrings in
+     *         the given order (coordinates where two linestrings meet are not
+     *         deduplicated)
+     */
+    public static GeoJSONLineString concat(List<GeoJSONLineString> lineStrings) {
+        List<PackedCoordinates> parts = new ArrayList<>(lineStrings.size());
+        for (GeoJSONLineString lineString : lineStrings)
+            parts.add(lineString.coordinates);
+        GeoJSONLineString concatenated = new GeoJSONLineString();
+        concatenated.coordinates = PackedCoordinates.concat(parts);
+        return concatenated;
+    }
+
     /**
      * @param fromIndex
      *            low coordinate-pair (inclusive) of the subLineString
      * @param toIndex
      *            high coordinate-pair (exclusive) of the subLineString
-     * @return a shallow copy of the requested sub part, i.e. the sublist and
-     *         the old list are independent from each other but use the same
-     *         {@link GeoJSONCoordinate}s
+     * @return the requested sub part, which shares the (immutable) packed
+     *         coordinates with this linestring instead of copying them
      */
     public GeoJSONLineString subLineString(int fromIndex, int toIndex) {
-        return GeoJSONLineString.create(coordinates.subList(fromIndex, toIndex));
+        GeoJSONLineString subLineString = new GeoJSONLineString();
+        subLineString.coordinates = coordinates.subList(fromIndex, toIndex);
+        return subLineString;
     }
 
     @Override
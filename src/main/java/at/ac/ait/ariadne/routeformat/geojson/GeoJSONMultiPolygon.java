@@ -6,6 +6,7 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 /**
  * A multi polygon, i.e. several polygons as defined in {@link GeoJSONPolygon}.
@@ -35,12 +36,13 @@ public class GeoJSONMultiPolygon implements GeoJSONGeometryObject {
 
     // -- setters
 
+    @JsonDeserialize(using = GeoJSONCoordinatesDeserializer.Polygons.class)
     public GeoJSONMultiPolygon setCoordinates(List<List<List<GeoJSONCoordinate>>> coordinates) {
         this.coordinates = new ArrayList<>();
         for (List<List<GeoJSONCoordinate>> polygon : coordinates) {
             List<List<GeoJSONCoordinate>> polyCoordinates = new ArrayList<>();
             for (List<GeoJSONCoordinate> ring : polygon) {
-                polyCoordinates.add(new ArrayList<>(ring));
+                polyCoordinates.add(PackedCoordinates.toModifiableList(ring));
             }
             this.coordinates.add(polyCoordinates);
         }
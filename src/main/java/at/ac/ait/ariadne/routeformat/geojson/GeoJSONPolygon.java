@@ -6,6 +6,7 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 /**
  * A polygon consisting of a mandatory exterior ring and optional interior rings
@@ -34,10 +35,11 @@ public class GeoJSONPolygon implements GeoJSONGeometryObject {
 
     // -- setters
 
+    @JsonDeserialize(using = GeoJSONCoordinatesDeserializer.Rings.class)
     public GeoJSONPolygon setCoordinates(List<List<GeoJSONCoordinate>> coordinates) {
         this.coordinates = new ArrayList<>();
         for (List<GeoJSONCoordinate> ring : coordinates) {
-            this.coordinates.add(new ArrayList<>(ring));
+            this.coordinates.add(PackedCoordinates.toModifiableList(ring));
         }
         return this;
     }
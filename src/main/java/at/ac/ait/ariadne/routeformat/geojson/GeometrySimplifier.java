@@ -0,0 +1,336 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Simplifies linestrings, e.g. to create overview geometries such as
+ * {@link at.ac.ait.ariadne.routeformat.Route#getSimplifiedGeometryGeoJson()}
+ * . Two algorithms are supported:
+ * <ul>
+ * <li>{@link Algorithm#DOUGLAS_PEUCKER}: keeps all coordinates that are more
+ * than the tolerance away from the simplified line</li>
+ * <li>{@link Algorithm#VISVALINGAM_WHYATT}: removes coordinates with the
+ * smallest effective area (the triangle with their neighbours) as long as the
+ * area is below the square of the tolerance. This typically gives smoother
+ * results than Douglas-Peucker.</li>
+ * </ul>
+ * Optionally the number of coordinates can be limited with
+ * {@link #setMaxPoints(Integer)}, i.e. the most significant coordinates are
+ * kept (also if the tolerance alone would keep more). A tolerance of 0 in
+ * combination with a maximum number of points simplifies to a target point
+ * count.
+ * <p>
+ * The first and last coordinate are always kept, the kept coordinates are not
+ * altered (including their exact decimal representation and z values).
+ * Distances are calculated on an equirectangular projection around the mean
+ * latitude, which is accurate enough for the extent of routes. Both algorithms
+ * work on primitive arrays. Visvalingam-Whyatt runs in O(n log n),
+ * Douglas-Peucker in expected O(n log n) and O(n&sup2;) in the worst case
+ * (e.g. when each split only separates a single coordinate).
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class GeometrySimplifier {
+
+    public enum Algorithm {
+        DOUGLAS_PEUCKER, VISVALINGAM_WHYATT
+    }
+
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS_METERS * Math.PI / 180;
+
+    private Algorithm algorithm = Algorithm.DOUGLAS_PEUCKER;
+    private double toleranceMeters = 10;
+    private Optional<Integer> maxPoints = Optional.empty();
+
+    // -- getters
+
+    /**
+     * default: {@link Algorithm#DOUGLAS_PEUCKER}
+     */
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * default: 10 meters
+     */
+    public double getToleranceMeters() {
+        return toleranceMeters;
+    }
+
+    /**
+     * default: no limit
+     */
+    public Optional<Integer> getMaxPoints() {
+        return maxPoints;
+    }
+
+    // -- setters
+
+    public GeometrySimplifier setAlgorithm(Algorithm algorithm) {
+        this.algorithm = Preconditions.checkNotNull(algorithm, "algorithm is mandatory");
+        return this;
+    }
+
+    public GeometrySimplifier setToleranceMeters(double toleranceMeters) {
+        Preconditions.checkArgument(toleranceMeters >= 0, "tolerance must be >= 0 but was %s", toleranceMeters);
+        this.toleranceMeters = toleranceMeters;
+        return this;
+    }
+
+    public GeometrySimplifier setMaxPoints(Integer maxPoints) {
+        Preconditions.checkArgument(maxPoints == null || maxPoints >= 2, "max points must be >= 2 but was %s",
+                maxPoints);
+        this.maxPoints = Optional.ofNullable(maxPoints);
+        return this;
+    }
+
+    // --
+
+    /**
+     * @return a simplified copy or the linestring itself if it can not be
+     *         simplified (i.e. consists of less than three coordinates)
+     */
+    public GeoJSONLineString simplify(GeoJSONLineString lineString) {
+        PackedCoordinates coordinates = lineString.packedCoordinates();
+        int size = coordinates.size();
+        if (size <= 2)
+            return lineString;
+
+        double[] xs = new double[size], ys = new double[size];
+        project(coordinates, xs, ys);
+        boolean[] keep = algorithm == Algorithm.DOUGLAS_PEUCKER ? douglasPeucker(xs, ys) : visvalingamWhyatt(xs, ys);
+
+        PackedCoordinates.Builder builder = new PackedCoordinates.Builder(size);
+        for (int i = 0; i < size; i++) {
+            if (keep[i])
+                builder.add(coordinates, i);
+        }
+        return GeoJSONLineString.create(builder.build());
+    }
+
+    /**
+     * Simplifies consecutive linestrings (e.g. the geometries of all segments
+     * of a route) as one linestring
+     */
+    public GeoJSONLineString simplify(List<GeoJSONLineString> lineStrings) {
+        return simplify(GeoJSONLineString.concat(lineStrings));
+    }
+
+    /** projects to meters around the mean latitude */
+    private static void project(PackedCoordinates coordinates, double[] xs, double[] ys) {
+        double latitudeSum = 0;
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = coordinates.getXAsDouble(i);
+            ys[i] = coordinates.getYAsDouble(i);
+            latitudeSum += ys[i];
+        }
+        double xFactor = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitudeSum / xs.length));
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] *= xFactor;
+            ys[i] *= METERS_PER_DEGREE;
+        }
+    }
+
+    /**
+     * Splits the section with the farthest coordinate first, so that a maximum
+     * number of points keeps the most significant ones
+     */
+    private boolean[] douglasPeucker(double[] xs, double[] ys) {
+        int size = xs.length, limit = maxPoints.orElse(size);
+        double squaredTolerance = toleranceMeters * toleranceMeters;
+        boolean[] keep = new boolean[size];
+        keep[0] = keep[size - 1] = true;
+
+        // each split creates at most two new sections
+        Sections sections = new Sections(2 * size, xs, ys);
+        sections.add(0, size - 1);
+        for (int kept = 2; kept < limit && !sections.heap.isEmpty(); kept++) {
+            // keys are negated squared distances, i.e. the farthest split comes first
+            if (-sections.heap.peekKey() <= squaredTolerance)
+                break;
+            int section = sections.heap.poll();
+            int split = sections.splits[section];
+            keep[split] = true;
+            sections.add(sections.starts[section], split);
+            sections.add(split, sections.ends[section]);
+        }
+        return keep;
+    }
+
+    private boolean[] visvalingamWhyatt(double[] xs, double[] ys) {
+        int size = xs.length, limit = maxPoints.orElse(size);
+        double areaTolerance = toleranceMeters * toleranceMeters;
+        int[] previous = new int[size], next = new int[size];
+        IndexedMinHeap heap = new IndexedMinHeap(size);
+        for (int i = 1; i < size - 1; i++) {
+            previous[i] = i - 1;
+            next[i] = i + 1;
+            heap.insert(i, area(xs, ys, i - 1, i, i + 1));
+        }
+
+        boolean[] keep = new boolean[size];
+        Arrays.fill(keep, true);
+        double lastArea = 0;
+        for (int kept = size; !heap.isEmpty(); kept--) {
+            // the effective area never decreases, otherwise removing a point
+            // could make its neighbours less significant than already removed points
+            double area = Math.max(heap.peekKey(), lastArea);
+            if (area >= areaTolerance && kept <= limit)
+                break;
+            int removed = heap.poll();
+            keep[removed] = false;
+            lastArea = area;
+            int before = previous[removed], after = next[removed];
+            next[before] = after;
+            previous[after] = before;
+            if (before > 0)
+                heap.update(before, area(xs, ys, previous[before], before, after));
+            if (after < size - 1)
+                heap.update(after, area(xs, ys, before, after, next[after]));
+        }
+        return keep;
+    }
+
+    private static double area(double[] xs, double[] ys, int a, int b, int c) {
+        return Math.abs((xs[b] - xs[a]) * (ys[c] - ys[a]) - (xs[c] - xs[a]) * (ys[b] - ys[a])) / 2;
+    }
+
+    /**
+     * Sections between two kept coordinates together with their farthest
+     * coordinate
+     */
+    private static final class Sections {
+        final int[] starts, ends, splits;
+        final IndexedMinHeap heap;
+        private final double[] xs, ys;
+        private int count = 0;
+
+        Sections(int capacity, double[] xs, double[] ys) {
+            this.starts = new int[capacity];
+            this.ends = new int[capacity];
+            this.splits = new int[capacity];
+            this.heap = new IndexedMinHeap(capacity);
+            this.xs = xs;
+            this.ys = ys;
+        }
+
+        void add(int start, int end) {
+            if (end - start < 2)
+                return;
+            double maxDistance = -1;
+            int split = start + 1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = squaredSegmentDistance(i, start, end);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    split = i;
+                }
+            }
+            starts[count] = start;
+            ends[count] = end;
+            splits[count] = split;
+            heap.insert(count++, -maxDistance);
+        }
+
+        private double squaredSegmentDistance(int point, int start, int end) {
+            double dx = xs[end] - xs[start], dy = ys[end] - ys[start];
+            double px = xs[point] - xs[start], py = ys[point] - ys[start];
+            double squaredLength = dx * dx + dy * dy;
+            if (squaredLength > 0) {
+                double t = Math.max(0, Math.min(1, (px * dx + py * dy) / squaredLength));
+                px -= t * dx;
+                py -= t * dy;
+            }
+            return px * px + py * py;
+        }
+    }
+
+    /**
+     * Binary min-heap of ids in the range [0, capacity) with double keys that
+     * supports updating keys
+     */
+    private static final class IndexedMinHeap {
+        private final int[] heap, positions;
+        private final double[] keys;
+        private int size = 0;
+
+        IndexedMinHeap(int capacity) {
+            heap = new int[capacity];
+            positions = new int[capacity];
+            keys = new double[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double peekKey() {
+            return keys[heap[0]];
+        }
+
+        int poll() {
+            int id = heap[0];
+            size--;
+            if (size > 0) {
+                move(heap[size], 0);
+                siftDown(0);
+            }
+            return id;
+        }
+
+        void insert(int id, double key) {
+            keys[id] = key;
+            move(id, size++);
+            siftUp(size - 1);
+        }
+
+        void update(int id, double key) {
+            double oldKey = keys[id];
+            keys[id] = key;
+            if (key < oldKey)
+                siftUp(positions[id]);
+            else
+                siftDown(positions[id]);
+        }
+
+        private void siftUp(int position) {
+            int id = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (keys[heap[parent]] <= keys[id])
+                    break;
+                move(heap[parent], position);
+                position = parent;
+            }
+            move(id, position);
+        }
+
+        private void siftDown(int position) {
+            int id = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+                    child++;
+                if (keys[heap[child]] >= keys[id])
+                    break;
+                move(heap[child], position);
+                position = child;
+            }
+            move(id, position);
+        }
+
+        private void move(int id, int position) {
+            heap[position] = id;
+            positions[id] = position;
+        }
+    }
+
+}
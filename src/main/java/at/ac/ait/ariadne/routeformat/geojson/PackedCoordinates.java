@@ -0,0 +1,418 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import static at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate.X;
+import static at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate.Y;
+import static at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate.Z;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.base.Preconditions;
+
+/**
+ * An immutable, read-only list of coordinates that stores all ordinates in a
+ * single interleaved primitive array (x, y and optionally z for each
+ * coordinate) instead of one {@link GeoJSONCoordinate} object per position.
+ * <p>
+ * Like {@link GeoJSONCoordinate} each ordinate is a fixed-point number, i.e.
+ * the exact decimal representation is retained. {@link #get(int)} creates a
+ * new read-only {@link GeoJSONCoordinate} on every invocation (so that
+ * attempts to modify it fail instead of being silently lost), the primitive
+ * accessors such as {@link #getXAsDouble(int)} do not allocate at all.
+ * <p>
+ * Since instances are immutable sub lists share the underlying arrays.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+final class PackedCoordinates extends AbstractList<GeoJSONCoordinate> implements RandomAccess {
+
+    static final PackedCoordinates EMPTY = new Builder(0).build();
+
+    /** scale marker for an ordinate that is not set */
+    private static final byte ABSENT = Byte.MIN_VALUE;
+    /** scale marker for an ordinate stored in {@link #overflow} */
+    private static final byte OVERFLOW = Byte.MIN_VALUE + 1;
+
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+            100000000L, 1000000000L, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+            100000000000000L, 1000000000000000L, 10000000000000000L, 100000000000000000L,
+            1000000000000000000L };
+
+    /** 2 or 3 */
+    private final int dimension;
+    private final long[] unscaled;
+    private final byte[] scales;
+    /** null unless at least one ordinate has no fixed-point representation */
+    private final BigDecimal[] overflow;
+    /** first coordinate of this (sub) list */
+    private final int offset;
+    private final int size;
+
+    private PackedCoordinates(int dimension, long[] unscaled, byte[] scales, BigDecimal[] overflow, int offset,
+            int size) {
+        this.dimension = dimension;
+        this.unscaled = unscaled;
+        this.scales = scales;
+        this.overflow = overflow;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    static PackedCoordinates copyOf(List<GeoJSONCoordinate> coordinates) {
+        if (coordinates instanceof PackedCoordinates)
+            return (PackedCoordinates) coordinates;
+        Builder builder = new Builder(coordinates.size());
+        for (GeoJSONCoordinate coordinate : coordinates)
+            builder.add(coordinate);
+        return builder.build();
+    }
+
+    /**
+     * @return a modifiable list of modifiable coordinates, the coordinates are
+     *         copied if they are read-only (i.e. from packed coordinates)
+     */
+    static List<GeoJSONCoordinate> toModifiableList(List<GeoJSONCoordinate> coordinates) {
+        if (!(coordinates instanceof PackedCoordinates))
+            return new ArrayList<>(coordinates);
+        PackedCoordinates packed = (PackedCoordinates) coordinates;
+        List<GeoJSONCoordinate> list = new ArrayList<>(packed.size);
+        for (int i = 0; i < packed.size; i++)
+            list.add(packed.getModifiable(i));
+        return list;
+    }
+
+    /**
+     * @return the concatenation of all coordinates (without removing duplicate
+     *         coordinates where the lists meet)
+     */
+    static PackedCoordinates concat(List<PackedCoordinates> parts) {
+        int total = 0;
+        for (PackedCoordinates part : parts)
+            total += part.size;
+        Builder builder = new Builder(total);
+        for (PackedCoordinates part : parts)
+            builder.addAll(part);
+        return builder.build();
+    }
+
+    // -- primitive access
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return x of the coordinate at the given index as double
+     */
+    double getXAsDouble(int index) {
+        return getAsDouble(index, X);
+    }
+
+    /**
+     * @return y of the coordinate at the given index as double
+     */
+    double getYAsDouble(int index) {
+        return getAsDouble(index, Y);
+    }
+
+    private int position(int index, int axis) {
+        Preconditions.checkElementIndex(index, size);
+        return (offset + index) * dimension + axis;
+    }
+
+    private double getAsDouble(int index, int axis) {
+        int position = position(index, axis);
+        byte scale = scales[position];
+        if (scale == ABSENT)
+            throw new NullPointerException("coordinate " + (char) ('x' + axis) + " is not set");
+        if (scale == OVERFLOW)
+            return overflow[position].doubleValue();
+        return GeoJSONCoordinate.toDouble(unscaled[position], scale);
+    }
+
+    /**
+     * @return the ordinate multiplied by 10^digits and rounded half up (away
+     *         from zero), calculated exactly from the fixed-point value
+     * @throws ArithmeticException
+     *             if the result does not fit into a long
+     */
+    long getRounded(int index, int axis, int digits) {
+        int position = position(index, axis);
+        byte scale = scales[position];
+        if (scale == ABSENT)
+            throw new NullPointerException("coordinate " + (char) ('x' + axis) + " is not set");
+        if (scale != OVERFLOW) {
+            long value = unscaled[position];
+            int shift = digits - scale;
+            if (shift >= 0 && shift < POWERS_OF_TEN.length) {
+                long factor = POWERS_OF_TEN[shift];
+                if (Math.abs(value) <= Long.MAX_VALUE / factor)
+                    return value * factor;
+            } else if (shift < 0 && -shift < POWERS_OF_TEN.length) {
+                long divisor = POWERS_OF_TEN[-shift];
+                long quotient = value / divisor, remainder = Math.abs(value % divisor);
+                if (remainder >= divisor - remainder)
+                    quotient += Long.signum(value);
+                return quotient;
+            }
+        }
+        BigDecimal value = scale == OVERFLOW ? overflow[position] : BigDecimal.valueOf(unscaled[position], scale);
+        return value.setScale(digits, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private boolean isPresent(int index, int axis) {
+        return axis < dimension && scales[position(index, axis)] != ABSENT;
+    }
+
+    /**
+     * Writes the coordinate at the given index as JSON array
+     */
+    void write(int index, JsonGenerator gen, FixedPointWriter writer) throws IOException {
+        gen.writeStartArray();
+        for (int axis = X; axis < dimension; axis++) {
+            int position = position(index, axis);
+            byte scale = scales[position];
+            if (scale == OVERFLOW)
+                gen.writeNumber(overflow[position]);
+            else if (scale != ABSENT)
+                writer.write(unscaled[position], scale);
+            else if (axis != Z)
+                gen.writeNull();
+        }
+        gen.writeEndArray();
+    }
+
+    // -- list view
+
+    @Override
+    public GeoJSONCoordinate get(int index) {
+        return getModifiable(index).setReadOnly();
+    }
+
+    private GeoJSONCoordinate getModifiable(int index) {
+        GeoJSONCoordinate coordinate = new GeoJSONCoordinate();
+        for (int axis = X; axis < dimension; axis++) {
+            int position = position(index, axis);
+            byte scale = scales[position];
+            if (scale == OVERFLOW) {
+                if (axis == X)
+                    coordinate.setX(overflow[position]);
+                else if (axis == Y)
+                    coordinate.setY(overflow[position]);
+                else
+                    coordinate.setZ(overflow[position]);
+            } else if (scale != ABSENT) {
+                coordinate.setFixedPoint(axis, unscaled[position], scale);
+            }
+        }
+        return coordinate;
+    }
+
+    @Override
+    public PackedCoordinates subList(int fromIndex, int toIndex) {
+        Preconditions.checkPositionIndexes(fromIndex, toIndex, size);
+        return new PackedCoordinates(dimension, unscaled, scales, overflow, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            int coordinateHash = 1;
+            for (int axis = X; axis <= Z; axis++) {
+                int hash = 0;
+                if (isPresent(i, axis)) {
+                    int position = position(i, axis);
+                    if (scales[position] == OVERFLOW)
+                        hash = GeoJSONCoordinate.ordinateHashCode(true, 0, 0, overflow[position]);
+                    else
+                        hash = GeoJSONCoordinate.ordinateHashCode(true, unscaled[position], scales[position], null);
+                }
+                coordinateHash = 31 * coordinateHash + hash;
+            }
+            result = 31 * result + coordinateHash;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof PackedCoordinates))
+            return super.equals(obj);
+        PackedCoordinates other = (PackedCoordinates) obj;
+        if (size != other.size)
+            return false;
+        for (int i = 0; i < size; i++) {
+            for (int axis = X; axis <= Z; axis++) {
+                boolean present = isPresent(i, axis);
+                if (present != other.isPresent(i, axis))
+                    return false;
+                if (!present)
+                    continue;
+                int position = position(i, axis), otherPosition = other.position(i, axis);
+                if (scales[position] != other.scales[otherPosition])
+                    return false;
+                if (scales[position] == OVERFLOW) {
+                    if (!overflow[position].equals(other.overflow[otherPosition]))
+                        return false;
+                } else if (unscaled[position] != other.unscaled[otherPosition]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects coordinates into the packed arrays. Three dimensions are
+     * reserved while building, {@link #build()} drops the third dimension if no
+     * z value was added.
+     */
+    static class Builder {
+        private long[] unscaled;
+        private byte[] scales;
+        private BigDecimal[] overflow;
+        private int size = 0;
+        private boolean hasZ = false;
+
+        Builder(int expectedSize) {
+            unscaled = new long[Math.max(expectedSize, 2) * 3];
+            scales = new byte[unscaled.length];
+        }
+
+        Builder add(GeoJSONCoordinate coordinate) {
+            int position = nextPosition();
+            for (int axis = X; axis <= Z; axis++, position++) {
+                if (!coordinate.isPresent(axis)) {
+                    scales[position] = ABSENT;
+                } else if (coordinate.getOverflow(axis) != null) {
+                    setOverflow(position, coordinate.getOverflow(axis));
+                } else {
+                    unscaled[position] = coordinate.unscaled(axis);
+                    scales[position] = (byte) coordinate.scale(axis);
+                }
+            }
+            hasZ |= coordinate.isPresent(Z);
+            return this;
+        }
+
+        Builder addAll(PackedCoordinates coordinates) {
+            for (int i = 0; i < coordinates.size; i++)
+                add(coordinates, i);
+            return this;
+        }
+
+        /**
+         * Adds the coordinate at the given index of the packed coordinates
+         * (without creating a {@link GeoJSONCoordinate})
+         */
+        Builder add(PackedCoordinates coordinates, int index) {
+            int position = nextPosition();
+            for (int axis = X; axis <= Z; axis++, position++) {
+                if (!coordinates.isPresent(index, axis)) {
+                    scales[position] = ABSENT;
+                    continue;
+                }
+                int source = coordinates.position(index, axis);
+                if (coordinates.scales[source] == OVERFLOW) {
+                    setOverflow(position, coordinates.overflow[source]);
+                } else {
+                    unscaled[position] = coordinates.unscaled[source];
+                    scales[position] = coordinates.scales[source];
+                }
+            }
+            hasZ |= coordinates.isPresent(index, Z);
+            return this;
+        }
+
+        /**
+         * Adds a two-dimensional coordinate with x and y in fixed-point
+         * representation
+         */
+        Builder add(long unscaledX, int scaleX, long unscaledY, int scaleY) {
+            int position = nextPosition();
+            unscaled[position + X] = unscaledX;
+            scales[position + X] = (byte) scaleX;
+            unscaled[position + Y] = unscaledY;
+            scales[position + Y] = (byte) scaleY;
+            scales[position + Z] = ABSENT;
+            return this;
+        }
+
+        /**
+         * Starts a new coordinate without any ordinates set
+         * 
+         * @return the position of the new coordinate's x value, y and z follow
+         *         directly
+         */
+        int startCoordinate() {
+            int position = nextPosition();
+            scales[position + X] = scales[position + Y] = scales[position + Z] = ABSENT;
+            return position;
+        }
+
+        /**
+         * Sets an ordinate of a coordinate started with
+         * {@link #startCoordinate()} to the value last read by the reader
+         */
+        void setOrdinate(int position, FixedPointReader reader) {
+            if (reader.decimal != null) {
+                setOverflow(position, reader.decimal);
+            } else {
+                unscaled[position] = reader.unscaled;
+                scales[position] = (byte) reader.scale;
+            }
+            hasZ |= position % 3 == Z;
+        }
+
+        private int nextPosition() {
+            if ((size + 1) * 3 > unscaled.length) {
+                int newLength = unscaled.length * 2;
+                unscaled = Arrays.copyOf(unscaled, newLength);
+                scales = Arrays.copyOf(scales, newLength);
+                if (overflow != null)
+                    overflow = Arrays.copyOf(overflow, newLength);
+            }
+            return size++ * 3;
+        }
+
+        private void setOverflow(int position, BigDecimal value) {
+            if (overflow == null)
+                overflow = new BigDecimal[unscaled.length];
+            overflow[position] = value;
+            scales[position] = OVERFLOW;
+        }
+
+        PackedCoordinates build() {
+            if (hasZ) {
+                int length = size * 3;
+                return new PackedCoordinates(3, Arrays.copyOf(unscaled, length), Arrays.copyOf(scales, length),
+                        overflow == null ? null : Arrays.copyOf(overflow, length), 0, size);
+            }
+
+            long[] packedUnscaled = new long[size * 2];
+            byte[] packedScales = new byte[size * 2];
+            BigDecimal[] packedOverflow = overflow == null ? null : new BigDecimal[size * 2];
+            for (int i = 0; i < size; i++) {
+                for (int axis = X; axis <= Y; axis++) {
+                    packedUnscaled[i * 2 + axis] = unscaled[i * 3 + axis];
+                    packedScales[i * 2 + axis] = scales[i * 3 + axis];
+                    if (packedOverflow != null)
+                        packedOverflow[i * 2 + axis] = overflow[i * 3 + axis];
+                }
+            }
+            return new PackedCoordinates(2, packedUnscaled, packedScales, packedOverflow, 0, size);
+        }
+    }
+
+}
@@ -14,6 +14,7 @@ import at.ac.ait.ariadne.routeformat.Validatable;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * Common base class for all types of turn-by-turn navigation instructions.
@@ -34,7 +35,7 @@ public abstract class Instruction<T extends Instruction<T>> implements Validatab
     private Optional<GeoJSONFeature<GeoJSONPoint>> previewTriggerPosition = Optional.empty();
     private Optional<GeoJSONFeature<GeoJSONPoint>> confirmationTriggerPosition = Optional.empty();
     private Map<String, String> text = new TreeMap<>();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -127,7 +128,7 @@ public abstract class Instruction<T extends Instruction<T>> implements Validatab
 
     @SuppressWarnings("unchecked")
     public T setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return (T) this;
     }
 
@@ -2,7 +2,6 @@ package at.ac.ait.ariadne.routeformat.instruction;
 
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
@@ -11,6 +10,7 @@ import at.ac.ait.ariadne.routeformat.Constants.Preposition;
 import at.ac.ait.ariadne.routeformat.Constants.RelativeDirection;
 import at.ac.ait.ariadne.routeformat.Validatable;
 import at.ac.ait.ariadne.routeformat.location.Location;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * A landmark, i.e. a salient object in the real world, that is used in
@@ -25,7 +25,7 @@ public class Landmark implements Validatable {
     private Preposition preposition;
     private Location<?> location;
     private Optional<RelativeDirection> direction = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -75,7 +75,7 @@ public class Landmark implements Validatable {
     }
 
     public Landmark setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -4,13 +4,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.google.common.base.Joiner;
 
 import at.ac.ait.ariadne.routeformat.Validatable;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * 
@@ -24,7 +24,7 @@ public class Address implements Validatable {
     private Optional<String> postCode = Optional.empty();
     private Optional<String> streetName = Optional.empty();
     private Optional<String> houseNumber = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -80,7 +80,7 @@ public class Address implements Validatable {
     }
 
     public Address setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return this;
     }
 
@@ -2,7 +2,6 @@ package at.ac.ait.ariadne.routeformat.location;
 
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -17,6 +16,7 @@ import at.ac.ait.ariadne.routeformat.Validatable;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
+import at.ac.ait.ariadne.routeformat.util.CompactSortedMap;
 
 /**
  * A generic {@link Location}.
@@ -34,7 +34,7 @@ public class Location<T extends Location<T>> implements Validatable {
     private GeoJSONFeature<GeoJSONPoint> coordinate;
     private Optional<GeoJSONFeature<?>> complexGeometry = Optional.empty();
     private Optional<Address> address = Optional.empty();
-    private Map<String, Object> additionalInfo = new TreeMap<>();
+    private Map<String, Object> additionalInfo = new CompactSortedMap<>();
 
     // -- getters
 
@@ -111,7 +111,7 @@ public class Location<T extends Location<T>> implements Validatable {
 
     @SuppressWarnings("unchecked")
     public T setAdditionalInfo(Map<String, Object> additionalInfo) {
-        this.additionalInfo = new TreeMap<>(additionalInfo);
+        this.additionalInfo = new CompactSortedMap<>(additionalInfo);
         return (T) this;
     }
 
@@ -1,11 +1,13 @@
 package at.ac.ait.ariadne.routeformat.location;
 
+import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
 import at.ac.ait.ariadne.routeformat.Constants.ParkingType;
@@ -69,6 +71,8 @@ public class Parking extends Location<Parking> {
         return this;
     }
 
+    /** deserialized in the order of the input, so that a round trip keeps the order */
+    @JsonDeserialize(as = LinkedHashSet.class)
     public Parking setModesOfTransport(Set<GeneralizedModeOfTransportType> modesOfTransport) {
         this.modesOfTransport = modesOfTransport;
         return this;
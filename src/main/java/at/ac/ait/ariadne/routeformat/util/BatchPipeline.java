@@ -0,0 +1,513 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.Validatable;
+
+/**
+ * Processes many JSON documents (typically stored {@link RoutingResponse}s) in
+ * parallel. Each document runs through the stages parse, validate (see
+ * {@link Validatable#validate()}), transform and serialize on a work-stealing
+ * {@link ForkJoinPool}, the serialized results are handed to a
+ * {@link DocumentSink} on the calling thread (so the sink does not have to be
+ * thread-safe).
+ * <p>
+ * At most {@link #getMaxDocumentsInFlight()} documents are read from the
+ * source but not yet written to the sink, i.e. a slow sink or slow documents
+ * slow down reading the source (backpressure) and memory usage is bounded.
+ * Results are written in the order of the source if
+ * {@link #setPreserveOrder(boolean)} is set, otherwise as soon as they are
+ * ready.
+ * <p>
+ * Documents that fail in one of the stages are skipped and reported in the
+ * {@link Result} together with the time spent in each stage.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class BatchPipeline<T extends Validatable> {
+
+    public enum Stage {
+        PARSE, VALIDATE, TRANSFORM, SERIALIZE, WRITE
+    }
+
+    /**
+     * Receives the serialized documents
+     */
+    @FunctionalInterface
+    public interface DocumentSink {
+        /**
+         * @param index
+         *            the position of the document in the source (starting
+         *            with 0)
+         */
+        void accept(long index, byte[] document) throws IOException;
+    }
+
+    private final Class<T> type;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int maxDocumentsInFlight = 4 * parallelism;
+    private boolean preserveOrder = true;
+    private boolean validate = true;
+    private UnaryOperator<T> transform = UnaryOperator.identity();
+    private RouteFormatMapper inputMapper = RouteFormatMapper.getDefault();
+    private RouteFormatMapper outputMapper = RouteFormatMapper.getDefault();
+
+    public BatchPipeline(Class<T> type) {
+        this.type = Preconditions.checkNotNull(type, "type is mandatory");
+    }
+
+    public static BatchPipeline<RoutingResponse> forResponses() {
+        return new BatchPipeline<>(RoutingResponse.class);
+    }
+
+    // -- getters
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getMaxDocumentsInFlight() {
+        return maxDocumentsInFlight;
+    }
+
+    public boolean isPreserveOrder() {
+        return preserveOrder;
+    }
+
+    public boolean isValidate() {
+        return validate;
+    }
+
+    public UnaryOperator<T> getTransform() {
+        return transform;
+    }
+
+    public RouteFormatMapper getInputMapper() {
+        return inputMapper;
+    }
+
+    public RouteFormatMapper getOutputMapper() {
+        return outputMapper;
+    }
+
+    // -- setters
+
+    /**
+     * @param parallelism
+     *            the number of worker threads, default is the number of
+     *            available processors
+     */
+    public BatchPipeline<T> setParallelism(int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be > 0, but was %s", parallelism);
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @param maxDocumentsInFlight
+     *            the maximum number of documents that are read from the
+     *            source but not yet written, default is four times the
+     *            parallelism
+     */
+    public BatchPipeline<T> setMaxDocumentsInFlight(int maxDocumentsInFlight) {
+        Preconditions.checkArgument(maxDocumentsInFlight > 0, "maxDocumentsInFlight must be > 0, but was %s",
+                maxDocumentsInFlight);
+        this.maxDocumentsInFlight = maxDocumentsInFlight;
+        return this;
+    }
+
+    public BatchPipeline<T> setPreserveOrder(boolean preserveOrder) {
+        this.preserveOrder = preserveOrder;
+        return this;
+    }
+
+    /**
+     * @param validate
+     *            call {@link Validatable#validate()} after parsing (default)
+     */
+    public BatchPipeline<T> setValidate(boolean validate) {
+        this.validate = validate;
+        return this;
+    }
+
+    /**
+     * @param transform
+     *            is called concurrently for different documents, may modify
+     *            and return the document or return a new one. If it returns
+     *            <code>null</code> the document is dropped.
+     */
+    public BatchPipeline<T> setTransform(UnaryOperator<T> transform) {
+        this.transform = Preconditions.checkNotNull(transform, "transform is mandatory");
+        return this;
+    }
+
+    /**
+     * @param mapper
+     *            used to parse the documents, e.g. with additional modules or
+     *            the binary format
+     */
+    public BatchPipeline<T> setInputMapper(RouteFormatMapper mapper) {
+        this.inputMapper = Preconditions.checkNotNull(mapper, "mapper is mandatory");
+        return this;
+    }
+
+    /**
+     * @param mapper
+     *            used to serialize the documents, e.g. to re-encode them
+     */
+    public BatchPipeline<T> setOutputMapper(RouteFormatMapper mapper) {
+        this.outputMapper = Preconditions.checkNotNull(mapper, "mapper is mandatory");
+        return this;
+    }
+
+    // -- processing
+
+    /**
+     * Processes all documents of the source, the sink is called on the
+     * calling thread
+     *
+     * @throws IOException
+     *             if the sink fails (processing stops)
+     */
+    public Result run(Iterator<byte[]> source, DocumentSink sink) throws IOException {
+        ObjectReader reader = inputMapper.getReader(type);
+        ObjectWriter writer = outputMapper.getWriter(type);
+        Result result = new Result();
+        LinkedBlockingQueue<Outcome> completed = new LinkedBlockingQueue<>();
+        Map<Long, Outcome> pending = new HashMap<>();
+        long submitted = 0, handled = 0;
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (source.hasNext()) {
+                while (submitted - handled >= maxDocumentsInFlight)
+                    handled += handle(take(completed), pending, handled, sink, result);
+                long index = submitted++;
+                byte[] document = source.next();
+                pool.execute(() -> completed.add(process(index, document, reader, writer, result)));
+                Outcome outcome;
+                while ((outcome = completed.poll()) != null)
+                    handled += handle(outcome, pending, handled, sink, result);
+            }
+            while (handled < submitted)
+                handled += handle(take(completed), pending, handled, sink, result);
+        } finally {
+            pool.shutdownNow();
+            result.wallNanos = System.nanoTime() - start;
+        }
+        return result;
+    }
+
+    /**
+     * Processes all documents of an NDJSON stream (one document per line,
+     * empty lines are ignored) and writes the results as NDJSON. The input
+     * stream is closed, the output stream is not.
+     */
+    public Result runNdjson(InputStream in, OutputStream out) throws IOException {
+        try (InputStream input = in) {
+            LineIterator lines = new LineIterator(input);
+            Result result = run(lines, (index, document) -> {
+                out.write(document);
+                out.write('\n');
+            });
+            out.flush();
+            return result;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Outcome take(LinkedBlockingQueue<Outcome> completed) {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for documents", e);
+        }
+    }
+
+    /**
+     * @return the number of documents that are completely handled
+     */
+    private int handle(Outcome outcome, Map<Long, Outcome> pending, long nextIndex, DocumentSink sink,
+            Result result) throws IOException {
+        if (!preserveOrder) {
+            write(outcome, sink, result);
+            return 1;
+        }
+        // only documents after nextIndex can be pending, i.e. at most
+        // maxDocumentsInFlight
+        pending.put(outcome.index, outcome);
+        int count = 0;
+        Outcome next;
+        while ((next = pending.remove(nextIndex + count)) != null) {
+            write(next, sink, result);
+            count++;
+        }
+        return count;
+    }
+
+    private void write(Outcome outcome, DocumentSink sink, Result result) throws IOException {
+        if (outcome.failure instanceof Error)
+            throw (Error) outcome.failure;
+        if (outcome.failure != null) {
+            result.failures.add(new Failure(outcome.index, outcome.failedStage, outcome.failure));
+        } else if (outcome.document == null) {
+            result.dropped++;
+        } else {
+            long start = System.nanoTime();
+            sink.accept(outcome.index, outcome.document);
+            result.record(Stage.WRITE, start);
+            result.written++;
+        }
+    }
+
+    private Outcome process(long index, byte[] document, ObjectReader reader, ObjectWriter writer, Result result) {
+        Stage stage = Stage.PARSE;
+        try {
+            long start = System.nanoTime();
+            T value = reader.readValue(document);
+            start = result.record(stage, start);
+            if (validate) {
+                stage = Stage.VALIDATE;
+                value.validate();
+                start = result.record(stage, start);
+            }
+            stage = Stage.TRANSFORM;
+            value = transform.apply(value);
+            start = result.record(stage, start);
+            if (value == null)
+                return new Outcome(index, null, null, null);
+            stage = Stage.SERIALIZE;
+            byte[] serialized = writer.writeValueAsBytes(value);
+            result.record(stage, start);
+            return new Outcome(index, serialized, null, null);
+        } catch (Throwable t) {
+            return new Outcome(index, null, stage, t);
+        }
+    }
+
+    private static class Outcome {
+        private final long index;
+        private final byte[] document;
+        private final Stage failedStage;
+        private final Throwable failure;
+
+        Outcome(long index, byte[] document, Stage failedStage, Throwable failure) {
+            this.index = index;
+            this.document = document;
+            this.failedStage = failedStage;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * A document that could not be processed
+     */
+    public static class Failure {
+        private final long index;
+        private final Stage stage;
+        private final Throwable cause;
+
+        Failure(long index, Stage stage, Throwable cause) {
+            this.index = index;
+            this.stage = stage;
+            this.cause = cause;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        public Stage getStage() {
+            return stage;
+        }
+
+        public Throwable getCause() {
+            return cause;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure [index=" + index + ", stage=" + stage + ", cause=" + cause + "]";
+        }
+    }
+
+    /**
+     * Statistics of a run, the failures are sorted by the index of the
+     * documents
+     */
+    public static class Result {
+        private final Map<Stage, LongAdder> nanos = new EnumMap<>(Stage.class);
+        private final Map<Stage, LongAdder> counts = new EnumMap<>(Stage.class);
+        private final List<Failure> failures = new ArrayList<>();
+        private long written, dropped, wallNanos;
+
+        Result() {
+            for (Stage stage : Stage.values()) {
+                nanos.put(stage, new LongAdder());
+                counts.put(stage, new LongAdder());
+            }
+        }
+
+        /** @return the end time of the stage */
+        private long record(Stage stage, long start) {
+            long end = System.nanoTime();
+            nanos.get(stage).add(end - start);
+            counts.get(stage).increment();
+            return end;
+        }
+
+        /**
+         * @return the number of documents written to the sink
+         */
+        public long getWritten() {
+            return written;
+        }
+
+        /**
+         * @return the number of documents dropped by the transform
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        public List<Failure> getFailures() {
+            List<Failure> sorted = new ArrayList<>(failures);
+            sorted.sort((a, b) -> Long.compare(a.index, b.index));
+            return Collections.unmodifiableList(sorted);
+        }
+
+        /**
+         * @return the summed time of all documents in the stage (over all
+         *         threads)
+         */
+        public long getTime(Stage stage, TimeUnit unit) {
+            return unit.convert(nanos.get(stage).sum(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * @return the number of documents that completed the stage
+         */
+        public long getCount(Stage stage) {
+            return counts.get(stage).sum();
+        }
+
+        public long getWallTime(TimeUnit unit) {
+            return unit.convert(wallNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("Result [written=").append(written).append(", dropped=")
+                    .append(dropped).append(", failed=").append(failures.size()).append(", wallMillis=")
+                    .append(getWallTime(TimeUnit.MILLISECONDS));
+            for (Stage stage : Stage.values())
+                builder.append(", ").append(stage.name().toLowerCase()).append("Millis=")
+                        .append(getTime(stage, TimeUnit.MILLISECONDS));
+            return builder.append("]").toString();
+        }
+    }
+
+    /**
+     * Splits a stream into lines (without line terminators), blank lines are
+     * skipped
+     */
+    private static class LineIterator implements Iterator<byte[]> {
+        private final InputStream in;
+        private final byte[] buffer = new byte[65536];
+        private int position = 0, limit = 0;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(8192);
+        private byte[] next;
+
+        LineIterator(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null)
+                next = readLine();
+            return next != null;
+        }
+
+        @Override
+        public byte[] next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            byte[] result = next;
+            next = null;
+            return result;
+        }
+
+        /** @return the next non-blank line or <code>null</code> at the end */
+        private byte[] readLine() {
+            try {
+                boolean blank = true;
+                while (true) {
+                    if (position == limit) {
+                        limit = in.read(buffer);
+                        position = 0;
+                        if (limit < 0) {
+                            limit = 0;
+                            return blank ? null : takeLine();
+                        }
+                    }
+                    int start = position;
+                    while (position < limit && buffer[position] != '\n') {
+                        byte b = buffer[position++];
+                        if (b != ' ' && b != '\t' && b != '\r')
+                            blank = false;
+                    }
+                    line.write(buffer, start, position - start);
+                    if (position < limit) {
+                        // skip the line feed
+                        position++;
+                        if (!blank)
+                            return takeLine();
+                        line.reset();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] takeLine() {
+            byte[] bytes = line.toByteArray();
+            line.reset();
+            int length = bytes.length;
+            if (length > 0 && bytes[length - 1] == '\r')
+                length--;
+            return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link OutputStream} that writes into (direct) {@link ByteBuffer}s, e.g. to
+ * serialize a response for an NIO based HTTP layer without an intermediate
+ * {@link String} or <code>byte[]</code> of the whole document (see
+ * {@link RouteFormatMapper#writeValue(Object, ByteBufferOutput)}).
+ * <p>
+ * Bytes are written into an optional caller-supplied buffer first (starting at
+ * its position, which is advanced) and then into chunks acquired from a
+ * {@link ByteBufferPool}, i.e. the output grows by chunks and written bytes
+ * are never copied again. {@link #getBuffers()} returns the written bytes
+ * ready for a gathering write, {@link #release()} returns the chunks to the
+ * pool.
+ * <p>
+ * {@link #close()} does nothing, so instances can be passed to methods that
+ * close their target. Instances are not thread-safe.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class ByteBufferOutput extends OutputStream {
+
+    private final ByteBufferPool pool;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final ByteBuffer first;
+    private final int firstStart;
+    private ByteBuffer current;
+    private long size;
+
+    /** writes into chunks of the given pool */
+    public ByteBufferOutput(ByteBufferPool pool) {
+        this(null, pool);
+    }
+
+    /**
+     * @param first
+     *            the buffer to write into first
+     * @param pool
+     *            the pool for additional chunks or <code>null</code> if
+     *            writing more bytes than fit into <code>first</code> is an
+     *            error (an {@link IOException} is thrown)
+     */
+    public ByteBufferOutput(ByteBuffer first, ByteBufferPool pool) {
+        this.first = first;
+        this.firstStart = first == null ? 0 : first.position();
+        this.pool = pool;
+        this.current = first;
+    }
+
+    /** @return the number of bytes written so far */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (current == null || !current.hasRemaining())
+            nextChunk();
+        current.put((byte) b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (current == null || !current.hasRemaining())
+                nextChunk();
+            int n = Math.min(len, current.remaining());
+            current.put(b, off, n);
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+
+    private void nextChunk() throws IOException {
+        if (pool == null)
+            throw new IOException("output exceeds the supplied buffer of " + (first == null ? 0 : first.capacity())
+                    + " bytes");
+        current = pool.acquire();
+        chunks.add(current);
+    }
+
+    /**
+     * @return read-only views of the written bytes (in the supplied buffer and
+     *         the chunks) in order, positioned for reading
+     */
+    public ByteBuffer[] getBuffers() {
+        List<ByteBuffer> buffers = new ArrayList<>(chunks.size() + 1);
+        if (first != null)
+            buffers.add(view(first, firstStart));
+        for (ByteBuffer chunk : chunks)
+            buffers.add(view(chunk, 0));
+        return buffers.toArray(new ByteBuffer[buffers.size()]);
+    }
+
+    private static ByteBuffer view(ByteBuffer buffer, int start) {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        ((Buffer) view).limit(buffer.position());
+        ((Buffer) view).position(start);
+        return view;
+    }
+
+    /**
+     * Writes all bytes to a blocking channel, with a single gathering write if
+     * supported by the channel
+     *
+     * @return the number of bytes written
+     */
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer[] buffers = getBuffers();
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gathering = (GatheringByteChannel) channel;
+            long written = 0;
+            while (written < size)
+                written += gathering.write(buffers);
+        } else {
+            for (ByteBuffer buffer : buffers)
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+        }
+        return size;
+    }
+
+    /**
+     * Returns the chunks to the pool, neither this output nor buffers returned
+     * by {@link #getBuffers()} must be used afterwards. The supplied buffer is
+     * kept as it is, i.e. positioned after the written bytes.
+     */
+    public void release() {
+        for (ByteBuffer chunk : chunks)
+            pool.release(chunk);
+        chunks.clear();
+        current = null;
+    }
+
+    /** does nothing, see {@link #release()} */
+    @Override
+    public void close() {
+    }
+
+}
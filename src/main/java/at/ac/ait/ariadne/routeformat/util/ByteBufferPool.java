@@ -0,0 +1,88 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Pool of equally sized {@link ByteBuffer}s (chunks) for
+ * {@link ByteBufferOutput}. Allocating direct buffers is expensive, so chunks
+ * are reused after {@link ByteBufferOutput#release()}. At most
+ * <code>maxPooled</code> free chunks are kept, others are left to the garbage
+ * collector. Instances are thread-safe and lock-free.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class ByteBufferPool {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static final ByteBufferPool DIRECT = new ByteBufferPool(DEFAULT_CHUNK_SIZE, 256, true);
+
+    private final int chunkSize, maxPooled;
+    private final boolean direct;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * @param direct
+     *            <code>true</code> for direct buffers,
+     *            <code>false</code> for heap buffers
+     */
+    public ByteBufferPool(int chunkSize, int maxPooled, boolean direct) {
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize must be > 0");
+        Preconditions.checkArgument(maxPooled >= 0, "maxPooled must be >= 0");
+        this.chunkSize = chunkSize;
+        this.maxPooled = maxPooled;
+        this.direct = direct;
+    }
+
+    /**
+     * @return the shared pool of direct chunks with {@value #DEFAULT_CHUNK_SIZE}
+     *         bytes (keeping up to 16 MB of free chunks)
+     */
+    public static ByteBufferPool getDirect() {
+        return DIRECT;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /** @return the number of free chunks currently kept by the pool */
+    public int getPooled() {
+        return pooled.get();
+    }
+
+    /** @return a cleared chunk */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null)
+            return direct ? ByteBuffer.allocateDirect(chunkSize) : ByteBuffer.allocate(chunkSize);
+        pooled.decrementAndGet();
+        ((Buffer) buffer).clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a chunk to the pool, it must not be used by the caller afterwards.
+     * Buffers that were not acquired from this pool are ignored.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != chunkSize || buffer.isDirect() != direct || buffer.isReadOnly())
+            return;
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        free.offer(buffer);
+    }
+
+}
@@ -0,0 +1,268 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A mutable map that iterates its entries in the natural order of the keys
+ * (like a {@link TreeMap}), but is optimized for maps that are usually empty
+ * or small, such as <code>additionalInfo</code> and the properties of GeoJSON
+ * features:
+ * <ul>
+ * <li>an empty map only consists of the map object itself, all empty maps
+ * share the same (empty) arrays</li>
+ * <li>up to {@value #MAX_ARRAY_SIZE} entries are stored in two sorted arrays
+ * (with binary search)</li>
+ * <li>larger maps are stored in a {@link TreeMap}</li>
+ * </ul>
+ * As for {@link TreeMap} <code>null</code> keys are not permitted, but
+ * <code>null</code> values are. Instances are not thread-safe.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class CompactSortedMap<K extends Comparable<? super K>, V> extends AbstractMap<K, V> {
+
+    static final int MAX_ARRAY_SIZE = 8;
+    private static final Object[] EMPTY = {};
+
+    private Object[] keys = EMPTY, values = EMPTY;
+    private int size = 0;
+    /** only used for more than {@link #MAX_ARRAY_SIZE} entries */
+    private TreeMap<K, V> tree;
+    private transient int modCount = 0;
+
+    public CompactSortedMap() {
+    }
+
+    public CompactSortedMap(Map<? extends K, ? extends V> map) {
+        putAll(map);
+    }
+
+    @Override
+    public int size() {
+        return tree == null ? size : tree.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return tree == null ? indexOf(key) >= 0 : tree.containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (tree != null)
+            return tree.get(key);
+        int index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Preconditions.checkNotNull(key, "null keys are not permitted");
+        if (tree != null)
+            return tree.put(key, value);
+        int index = indexOf(key);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+        modCount++;
+        if (size == MAX_ARRAY_SIZE) {
+            tree = new TreeMap<>();
+            for (int i = 0; i < size; i++)
+                tree.put((K) keys[i], (V) values[i]);
+            tree.put(key, value);
+            keys = values = EMPTY;
+            size = 0;
+            return null;
+        }
+        int insertion = -index - 1;
+        if (size == keys.length) {
+            int capacity = Math.min(MAX_ARRAY_SIZE, Math.max(2, size * 2));
+            keys = copy(keys, capacity, insertion);
+            values = copy(values, capacity, insertion);
+        } else {
+            System.arraycopy(keys, insertion, keys, insertion + 1, size - insertion);
+            System.arraycopy(values, insertion, values, insertion + 1, size - insertion);
+        }
+        keys[insertion] = key;
+        values[insertion] = value;
+        size++;
+        return null;
+    }
+
+    /** copies the array with a gap at the given index */
+    private Object[] copy(Object[] array, int capacity, int gap) {
+        Object[] copy = new Object[capacity];
+        System.arraycopy(array, 0, copy, 0, gap);
+        System.arraycopy(array, gap, copy, gap + 1, size - gap);
+        return copy;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (tree != null)
+            return tree.remove(key);
+        int index = indexOf(key);
+        if (index < 0)
+            return null;
+        V previous = (V) values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    private void removeAt(int index) {
+        modCount++;
+        size--;
+        System.arraycopy(keys, index + 1, keys, index, size - index);
+        System.arraycopy(values, index + 1, values, index, size - index);
+        keys[size] = values[size] = null;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        keys = values = EMPTY;
+        size = 0;
+        tree = null;
+    }
+
+    /**
+     * @return the index of the key or <code>-(insertion point) - 1</code> (as
+     *         in {@link java.util.Arrays#binarySearch(Object[], Object)})
+     */
+    @SuppressWarnings("unchecked")
+    private int indexOf(Object key) {
+        if (key == null)
+            return -1;
+        Comparable<? super K> comparable = (Comparable<? super K>) key;
+        int low = 0, high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = comparable.compareTo((K) keys[middle]);
+            if (comparison > 0)
+                low = middle + 1;
+            else if (comparison < 0)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return tree == null ? new ArrayIterator() : tree.entrySet().iterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactSortedMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                CompactSortedMap.this.clear();
+            }
+        };
+    }
+
+    private class ArrayIterator implements Iterator<Entry<K, V>> {
+        private int next = 0, last = -1, expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (next >= size)
+                throw new NoSuchElementException();
+            last = next++;
+            return new ArrayEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            Preconditions.checkState(last >= 0, "next() must be called before remove()");
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private class ArrayEntry implements Entry<K, V> {
+        private final int index;
+
+        ArrayEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) keys[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) values[index];
+        }
+
+        @Override
+        public V setValue(V value) {
+            V previous = getValue();
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public int hashCode() {
+            Object key = getKey(), value = getValue();
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry))
+                return false;
+            Entry<?, ?> other = (Entry<?, ?>) obj;
+            Object key = getKey(), value = getValue();
+            return key.equals(other.getKey())
+                    && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+}
@@ -0,0 +1,380 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An immutable point in time with seconds accuracy (as used for all
+ * timestamps in the route format) consisting of the seconds since the epoch
+ * and a time zone. Zone offsets are shared instances (see
+ * {@link ZoneOffset#ofTotalSeconds(int)}), so a time only consists of a
+ * <code>long</code>, an <code>int</code> and a reference.
+ * <p>
+ * Timestamps in the format <code>yyyy-MM-dd'T'HH:mm:ssXXX</code> (see
+ * {@link Utils#FORMATTER}) are parsed and written without
+ * {@link java.time.format.DateTimeFormatter} and the string representation is
+ * cached. Other ISO-8601 timestamps (e.g. with fractions of seconds or a zone
+ * id) are parsed with {@link ZonedDateTime#parse(CharSequence)}, the zone is
+ * retained. {@link ZonedDateTime} views are created on demand and cached as
+ * well.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class EpochTime implements Comparable<EpochTime> {
+
+    private static final int SECONDS_PER_DAY = 86400;
+    /** the length of <code>yyyy-MM-ddTHH:mm:ss</code> */
+    private static final int LOCAL_LENGTH = 19;
+    /** the maximum length of the fixed format (offset <code>+HH:MM</code>) */
+    public static final int MAX_LENGTH = LOCAL_LENGTH + 6;
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+    private static final int QUARTER_HOUR = 900;
+    /**
+     * offsets in quarter hours from -18:00 to +18:00 (i.e. all offsets in use),
+     * an array lookup is cheaper than the map lookup of
+     * {@link ZoneOffset#ofTotalSeconds(int)}
+     */
+    private static final ZoneOffset[] QUARTER_HOUR_OFFSETS = new ZoneOffset[2 * MAX_OFFSET_SECONDS / QUARTER_HOUR
+            + 1];
+
+    static {
+        for (int i = 0; i < QUARTER_HOUR_OFFSETS.length; i++)
+            QUARTER_HOUR_OFFSETS[i] = ZoneOffset.ofTotalSeconds(i * QUARTER_HOUR - MAX_OFFSET_SECONDS);
+    }
+
+    private final long epochSecond;
+    private final int offsetSeconds;
+    private final ZoneId zone;
+    /** cached, <code>null</code> if not created yet */
+    private String string;
+    /** cached, <code>null</code> if not created yet */
+    private ZonedDateTime zonedDateTime;
+
+    private EpochTime(long epochSecond, int offsetSeconds, ZoneId zone) {
+        this.epochSecond = epochSecond;
+        this.offsetSeconds = offsetSeconds;
+        this.zone = zone;
+    }
+
+    /**
+     * @return the time truncated to seconds (with the same zone)
+     */
+    public static EpochTime of(ZonedDateTime time) {
+        Preconditions.checkNotNull(time, "time is mandatory");
+        EpochTime epochTime = new EpochTime(time.toEpochSecond(), time.getOffset().getTotalSeconds(),
+                time.getZone());
+        if (time.getNano() == 0)
+            epochTime.zonedDateTime = time;
+        return epochTime;
+    }
+
+    public static EpochTime of(long epochSecond, ZoneId zone) {
+        Preconditions.checkNotNull(zone, "zone is mandatory");
+        return new EpochTime(epochSecond, offsetAt(epochSecond, zone), zone);
+    }
+
+    private static int offsetAt(long epochSecond, ZoneId zone) {
+        if (zone instanceof ZoneOffset)
+            return ((ZoneOffset) zone).getTotalSeconds();
+        return zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    }
+
+    /**
+     * Parses an ISO-8601 timestamp with offset (and optional zone id),
+     * fractions of seconds are dropped
+     *
+     * @throws DateTimeParseException
+     *             if the text can not be parsed
+     */
+    public static EpochTime parse(CharSequence text) {
+        Preconditions.checkNotNull(text, "text is mandatory");
+        EpochTime time = parseFixedFormat(text);
+        if (time == null)
+            time = of(ZonedDateTime.parse(text));
+        return time;
+    }
+
+    /**
+     * @return the time or <code>null</code> if the text is not in the fixed
+     *         format <code>yyyy-MM-dd'T'HH:mm:ssXXX</code> (or not valid)
+     */
+    private static EpochTime parseFixedFormat(CharSequence text) {
+        int length = text.length();
+        if (length != LOCAL_LENGTH + 1 && length != MAX_LENGTH)
+            return null;
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' || text.charAt(13) != ':'
+                || text.charAt(16) != ':')
+            return null;
+        int year = digits(text, 0, 4), month = digits(text, 5, 2), day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2), minute = digits(text, 14, 2), second = digits(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) || hour < 0
+                || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+            return null;
+
+        int offsetSeconds;
+        char sign = text.charAt(LOCAL_LENGTH);
+        if (length == LOCAL_LENGTH + 1) {
+            if (sign != 'Z')
+                return null;
+            offsetSeconds = 0;
+        } else {
+            if ((sign != '+' && sign != '-') || text.charAt(LOCAL_LENGTH + 3) != ':')
+                return null;
+            int offsetHours = digits(text, LOCAL_LENGTH + 1, 2), offsetMinutes = digits(text, LOCAL_LENGTH + 4, 2);
+            if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59)
+                return null;
+            offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+            if (offsetSeconds > MAX_OFFSET_SECONDS)
+                return null;
+            if (sign == '-')
+                offsetSeconds = -offsetSeconds;
+        }
+
+        long localSecond = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        EpochTime time = new EpochTime(localSecond - offsetSeconds, offsetSeconds, zoneOffset(offsetSeconds));
+        // the canonical form is the parsed text, except for "-00:00"
+        if (offsetSeconds != 0 || length == LOCAL_LENGTH + 1)
+            time.string = text.toString();
+        return time;
+    }
+
+    /**
+     * @return the shared instance of the offset
+     */
+    static ZoneOffset zoneOffset(int offsetSeconds) {
+        if (offsetSeconds % QUARTER_HOUR == 0)
+            return QUARTER_HOUR_OFFSETS[(offsetSeconds + MAX_OFFSET_SECONDS) / QUARTER_HOUR];
+        return ZoneOffset.ofTotalSeconds(offsetSeconds);
+    }
+
+    /** @return the parsed number or -1 if there is a non-digit character */
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        switch (month) {
+        case 2:
+            return isLeapYear(year) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * @return the days since 1970-01-01 (proleptic Gregorian calendar, with a
+     *         year starting in March so that leap days are at the end)
+     */
+    private static long epochDay(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // -- getters
+
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    /**
+     * @return the offset from UTC at this time in seconds
+     */
+    public int getOffsetSeconds() {
+        return offsetSeconds;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * @return the time as {@link ZonedDateTime} (cached)
+     */
+    public ZonedDateTime toZonedDateTime() {
+        ZonedDateTime result = zonedDateTime;
+        if (result == null) {
+            result = ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+            zonedDateTime = result;
+        }
+        return result;
+    }
+
+    // -- operations
+
+    /**
+     * @return the time shifted by the given amount of seconds (the offset is
+     *         adjusted for zones with daylight saving time)
+     */
+    public EpochTime plusSeconds(long seconds) {
+        if (seconds == 0)
+            return this;
+        long shifted = epochSecond + seconds;
+        return new EpochTime(shifted, offsetAt(shifted, zone), zone);
+    }
+
+    /**
+     * @return the seconds from this time to the other time (negative if the
+     *         other time is before this time)
+     */
+    public long secondsUntil(EpochTime other) {
+        return other.epochSecond - epochSecond;
+    }
+
+    public boolean isBefore(EpochTime other) {
+        return epochSecond < other.epochSecond;
+    }
+
+    public boolean isAfter(EpochTime other) {
+        return epochSecond > other.epochSecond;
+    }
+
+    /**
+     * Compares the instants of the times, times at the same instant in
+     * different zones are equal in terms of this comparison
+     */
+    @Override
+    public int compareTo(EpochTime other) {
+        return Long.compare(epochSecond, other.epochSecond);
+    }
+
+    // -- formatting
+
+    /**
+     * Writes the time in the format <code>yyyy-MM-dd'T'HH:mm:ssXXX</code> (as
+     * {@link Utils#FORMATTER}) without creating intermediate objects.
+     *
+     * @param buffer
+     *            must have space for at least {@link #MAX_LENGTH} characters
+     *            after the offset
+     * @return the number of written characters
+     */
+    public int format(char[] buffer, int offset) {
+        String cached = string;
+        if (cached != null) {
+            cached.getChars(0, cached.length(), buffer, offset);
+            return cached.length();
+        }
+        if (!isFixedFormat()) {
+            String formatted = Utils.FORMATTER.format(toZonedDateTime());
+            formatted.getChars(0, formatted.length(), buffer, offset);
+            return formatted.length();
+        }
+
+        long localSecond = epochSecond + offsetSeconds;
+        long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(localSecond, SECONDS_PER_DAY);
+
+        // inverse of epochDay(year, month, day)
+        long dayOfEpoch = epochDay + 719468;
+        long era = Math.floorDiv(dayOfEpoch, 146097);
+        long dayOfEra = dayOfEpoch - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        int pos = offset;
+        pos = writeDigits(buffer, pos, year / 100);
+        pos = writeDigits(buffer, pos, year % 100);
+        buffer[pos++] = '-';
+        pos = writeDigits(buffer, pos, month);
+        buffer[pos++] = '-';
+        pos = writeDigits(buffer, pos, day);
+        buffer[pos++] = 'T';
+        pos = writeDigits(buffer, pos, secondOfDay / 3600);
+        buffer[pos++] = ':';
+        pos = writeDigits(buffer, pos, secondOfDay / 60 % 60);
+        buffer[pos++] = ':';
+        pos = writeDigits(buffer, pos, secondOfDay % 60);
+        if (offsetSeconds == 0) {
+            buffer[pos++] = 'Z';
+        } else {
+            int absoluteOffset = Math.abs(offsetSeconds);
+            buffer[pos++] = offsetSeconds < 0 ? '-' : '+';
+            pos = writeDigits(buffer, pos, absoluteOffset / 3600);
+            buffer[pos++] = ':';
+            pos = writeDigits(buffer, pos, absoluteOffset / 60 % 60);
+        }
+        return pos - offset;
+    }
+
+    /**
+     * @return <code>true</code> if the fixed format can represent the time
+     *         (four-digit years and offsets without seconds)
+     */
+    private boolean isFixedFormat() {
+        // 0000-01-01T00:00:00Z and 9999-12-31T23:59:59Z
+        return epochSecond + offsetSeconds >= -62167219200L && epochSecond + offsetSeconds < 253402300800L
+                && offsetSeconds % 60 == 0;
+    }
+
+    private static int writeDigits(char[] buffer, int pos, int twoDigits) {
+        buffer[pos] = (char) ('0' + twoDigits / 10);
+        buffer[pos + 1] = (char) ('0' + twoDigits % 10);
+        return pos + 2;
+    }
+
+    /**
+     * @return the time in the format <code>yyyy-MM-dd'T'HH:mm:ssXXX</code>
+     *         (cached)
+     */
+    @Override
+    public String toString() {
+        String result = string;
+        if (result == null) {
+            char[] buffer = new char[MAX_LENGTH];
+            result = new String(buffer, 0, format(buffer, 0));
+            string = result;
+        }
+        return result;
+    }
+
+    /**
+     * Times are equal if their instants and zones are equal (as for
+     * {@link ZonedDateTime#equals(Object)})
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        EpochTime other = (EpochTime) obj;
+        return epochSecond == other.epochSecond && zone.equals(other.zone);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(epochSecond) + zone.hashCode();
+    }
+
+}
@@ -0,0 +1,93 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import at.ac.ait.ariadne.routeformat.Constants.OutputFormat;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.geojson.EncodedPolyline;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.GeometrySimplifier;
+
+/**
+ * Derives the requested geometry output formats (see
+ * {@link RoutingRequest#getOutputFormats()}) from the GeoJSON geometries, so
+ * that routers only have to provide the GeoJSON geometries:
+ * <ul>
+ * <li>{@link OutputFormat#ENCODED_POLYLINE}: from
+ * {@link RouteSegment#getGeometryGeoJson()} of each segment</li>
+ * <li>{@link OutputFormat#SIMPLIFIED_GEOJSON}: the geometries of all segments
+ * simplified with a {@link GeometrySimplifier}</li>
+ * <li>{@link OutputFormat#SIMPLIFIED_ENCODED_POLYLINE}: from
+ * {@link Route#getSimplifiedGeometryGeoJson()} or, if it is not set, from the
+ * simplified geometries of all segments</li>
+ * </ul>
+ * Values that are already set are never overwritten.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class GeometryOutputFormats {
+
+    /**
+     * Fills the output formats requested in
+     * {@link RoutingResponse#getRequest()} for all routes with precision
+     * {@value EncodedPolyline#PRECISION_5} and the default
+     * {@link GeometrySimplifier}. Nothing happens for responses without
+     * request.
+     */
+    public static void fill(RoutingResponse response) {
+        if (!response.getRequest().isPresent())
+            return;
+        List<OutputFormat> outputFormats = response.getRequest().get().getOutputFormats();
+        GeometrySimplifier simplifier = new GeometrySimplifier();
+        for (Route route : response.getRoutes())
+            fill(route, outputFormats, EncodedPolyline.PRECISION_5, simplifier);
+    }
+
+    /**
+     * @param precision
+     *            of the encoded polylines, see {@link EncodedPolyline}
+     * @param simplifier
+     *            for the simplified geometries
+     */
+    public static void fill(Route route, Collection<OutputFormat> outputFormats, int precision,
+            GeometrySimplifier simplifier) {
+        if (outputFormats.contains(OutputFormat.ENCODED_POLYLINE)) {
+            for (RouteSegment segment : route.getSegments()) {
+                if (!segment.getGeometryEncodedPolyLine().isPresent() && segment.getGeometryGeoJson().isPresent())
+                    segment.setGeometryEncodedPolyLine(
+                            EncodedPolyline.encode(segment.getGeometryGeoJson().get().getGeometry(), precision));
+            }
+        }
+        if (outputFormats.contains(OutputFormat.SIMPLIFIED_GEOJSON)
+                && !route.getSimplifiedGeometryGeoJson().isPresent()) {
+            GeoJSONLineString geometry = simplify(route, simplifier);
+            if (geometry != null)
+                route.setSimplifiedGeometryGeoJson(GeoJSONFeature.createLineStringFeature(geometry));
+        }
+        if (outputFormats.contains(OutputFormat.SIMPLIFIED_ENCODED_POLYLINE)
+                && !route.getSimplifiedGeometryEncodedPolyLine().isPresent()) {
+            GeoJSONLineString geometry = route.getSimplifiedGeometryGeoJson().isPresent()
+                    ? route.getSimplifiedGeometryGeoJson().get().getGeometry() : simplify(route, simplifier);
+            if (geometry != null)
+                route.setSimplifiedGeometryEncodedPolyLine(EncodedPolyline.encode(geometry, precision));
+        }
+    }
+
+    /**
+     * @return the simplified geometries of all segments of the route as one
+     *         linestring or <code>null</code> if no segment has a geometry
+     */
+    public static GeoJSONLineString simplify(Route route, GeometrySimplifier simplifier) {
+        List<GeoJSONLineString> lineStrings = new ArrayList<>(route.getSegments().size());
+        for (RouteSegment segment : route.getSegments())
+            segment.getGeometryGeoJson().ifPresent(g -> lineStrings.add(g.getGeometry()));
+        return lineStrings.isEmpty() ? null : simplifier.simplify(lineStrings);
+    }
+
+}
@@ -0,0 +1,48 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * A pool of canonical instances as used by {@link InterningModule}.
+ * Implementations must be thread-safe if the pool is shared between threads.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+@FunctionalInterface
+public interface InternPool {
+
+    /**
+     * @return the canonical instance equal to the given value (which becomes
+     *         the canonical instance if there is none yet)
+     */
+    Object intern(Object value);
+
+    /**
+     * @return a thread-safe pool that keeps at most <code>maximumSize</code>
+     *         canonical instances, the least recently used ones are evicted
+     *         first (an evicted value is simply not shared anymore)
+     */
+    static InternPool bounded(long maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "maximum size must be > 0 but was %s", maximumSize);
+        ConcurrentMap<Object, Object> pool = CacheBuilder.newBuilder().maximumSize(maximumSize).build().asMap();
+        return value -> {
+            Object existing = pool.putIfAbsent(value, value);
+            return existing == null ? value : existing;
+        };
+    }
+
+    /**
+     * @return a thread-safe pool that keeps the canonical instances as long as
+     *         they are referenced elsewhere, e.g. in cached responses
+     */
+    static InternPool weak() {
+        Interner<Object> interner = Interners.newWeakInterner();
+        return interner::intern;
+    }
+
+}
@@ -0,0 +1,115 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Operator;
+import at.ac.ait.ariadne.routeformat.Service;
+import at.ac.ait.ariadne.routeformat.location.Address;
+
+/**
+ * Opt-in Jackson module that returns canonical shared instances for equal
+ * values of {@link ModeOfTransport}, {@link Operator}, {@link Service} and
+ * {@link Address} during deserialization. In public transport responses the
+ * same line of the same operator typically appears in many segments of many
+ * alternative routes, with interning only one object graph is retained for
+ * all of them. Since nested values are interned first, e.g. the operator of
+ * different modes of transport is shared as well.
+ * <p>
+ * The canonical instances are kept in an {@link InternPool}, by default a
+ * bounded pool of {@value #DEFAULT_MAXIMUM_SIZE} instances. The pool can be
+ * shared between mappers and threads (e.g. for all responses of a cache) or
+ * created per response.
+ * <p>
+ * Note, that the model classes are mutable: interned instances must not be
+ * modified after parsing, since a change would affect all routes sharing the
+ * instance (and the pool itself).
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class InterningModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final Set<Class<?>> INTERNED_TYPES = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(ModeOfTransport.class, Operator.class, Service.class, Address.class)));
+
+    private final transient InternPool pool;
+
+    /**
+     * Creates a module with its own bounded pool
+     */
+    public InterningModule() {
+        this(InternPool.bounded(DEFAULT_MAXIMUM_SIZE));
+    }
+
+    public InterningModule(InternPool pool) {
+        super(InterningModule.class.getSimpleName(), Version.unknownVersion());
+        this.pool = Preconditions.checkNotNull(pool, "pool is mandatory");
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc,
+                    JsonDeserializer<?> deserializer) {
+                if (INTERNED_TYPES.contains(beanDesc.getBeanClass()))
+                    return new InterningDeserializer(deserializer, InterningModule.this.pool);
+                return deserializer;
+            }
+        });
+    }
+
+    public InternPool getPool() {
+        return pool;
+    }
+
+    private static class InterningDeserializer extends DelegatingDeserializer {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient InternPool pool;
+
+        InterningDeserializer(JsonDeserializer<?> delegatee, InternPool pool) {
+            super(delegatee);
+            this.pool = pool;
+        }
+
+        @Override
+        protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+            return new InterningDeserializer(newDelegatee, pool);
+        }
+
+        @Override
+        public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return intern(_delegatee.deserialize(p, ctxt));
+        }
+
+        @Override
+        public Object deserializeWithType(JsonParser p, DeserializationContext ctxt, TypeDeserializer typeDeserializer)
+                throws IOException {
+            return intern(_delegatee.deserializeWithType(p, ctxt, typeDeserializer));
+        }
+
+        private Object intern(Object value) {
+            return value == null ? null : pool.intern(value);
+        }
+
+    }
+
+}
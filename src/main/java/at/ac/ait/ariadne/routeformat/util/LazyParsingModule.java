@@ -0,0 +1,178 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+
+/**
+ * Opt-in Jackson module for lazy deserialization of the bulky parts of a
+ * {@link RouteSegment}: {@link RouteSegment#getGeometryGeoJson()},
+ * {@link RouteSegment#getGeometryGeoJsonEdges()} and
+ * {@link RouteSegment#getNavigationInstructions()}. These values are only
+ * captured as tokens ({@link RawJsonValue}) and parsed on the first call of
+ * their getter. Values that were never accessed are written again as they
+ * were read, i.e. without parsing them at all. This is useful for clients that
+ * mostly look at times, distances and modes of transport.
+ * <p>
+ * Each captured value is parsed at most once and safely published, so
+ * segments read with this module can be read by several threads at the same
+ * time like eagerly parsed segments (modifications still need external
+ * synchronization).
+ * <p>
+ * Note, that the captured values are parsed with the configuration of the
+ * {@link com.fasterxml.jackson.databind.ObjectMapper} that read them (and not
+ * with a possibly differently configured
+ * {@link com.fasterxml.jackson.databind.ObjectReader}).
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class LazyParsingModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String GEOMETRY_GEOJSON = "geometryGeoJson";
+    private static final String GEOMETRY_GEOJSON_EDGES = "geometryGeoJsonEdges";
+    private static final String NAVIGATION_INSTRUCTIONS = "navigationInstructions";
+    private static final List<String> LAZY_PROPERTIES = Arrays.asList(GEOMETRY_GEOJSON, GEOMETRY_GEOJSON_EDGES,
+            NAVIGATION_INSTRUCTIONS);
+
+    public LazyParsingModule() {
+        super(LazyParsingModule.class.getSimpleName(), Version.unknownVersion());
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                    BeanDeserializerBuilder builder) {
+                if (beanDesc.getBeanClass() != RouteSegment.class)
+                    return builder;
+                for (String name : LAZY_PROPERTIES) {
+                    SettableBeanProperty property = builder.findProperty(PropertyName.construct(name));
+                    if (property != null)
+                        builder.addOrReplaceProperty(new CapturingProperty(property), true);
+                }
+                return builder;
+            }
+        });
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                    List<BeanPropertyWriter> beanProperties) {
+                if (beanDesc.getBeanClass() != RouteSegment.class)
+                    return beanProperties;
+                for (int i = 0; i < beanProperties.size(); i++) {
+                    if (LAZY_PROPERTIES.contains(beanProperties.get(i).getName()))
+                        beanProperties.set(i, new RawValueWriter(beanProperties.get(i)));
+                }
+                return beanProperties;
+            }
+        });
+    }
+
+    /**
+     * @return the captured, not yet parsed value of the given property
+     */
+    static Optional<? extends RawJsonValue<?>> getRawValue(RouteSegment segment, String name) {
+        switch (name) {
+        case GEOMETRY_GEOJSON:
+            return segment.getRawGeometryGeoJson();
+        case GEOMETRY_GEOJSON_EDGES:
+            return segment.getRawGeometryGeoJsonEdges();
+        case NAVIGATION_INSTRUCTIONS:
+            return segment.getRawNavigationInstructions();
+        default:
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Captures the value instead of deserializing it, <code>null</code> values
+     * are handled by the original property.
+     */
+    private static class CapturingProperty extends SettableBeanProperty.Delegating {
+
+        private static final long serialVersionUID = 1L;
+
+        CapturingProperty(SettableBeanProperty delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected SettableBeanProperty withDelegate(SettableBeanProperty d) {
+            return new CapturingProperty(d);
+        }
+
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public void deserializeAndSet(JsonParser p, DeserializationContext ctxt, Object instance) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_NULL) {
+                delegate.deserializeAndSet(p, ctxt, instance);
+                return;
+            }
+            RouteSegment segment = (RouteSegment) instance;
+            RawJsonValue raw = RawJsonValue.capture(p, ctxt, getType());
+            switch (getName()) {
+            case GEOMETRY_GEOJSON:
+                segment.setRawGeometryGeoJson(raw);
+                break;
+            case GEOMETRY_GEOJSON_EDGES:
+                segment.setRawGeometryGeoJsonEdges(raw);
+                break;
+            default:
+                segment.setRawNavigationInstructions(raw);
+            }
+        }
+
+        @Override
+        public Object deserializeSetAndReturn(JsonParser p, DeserializationContext ctxt, Object instance)
+                throws IOException {
+            deserializeAndSet(p, ctxt, instance);
+            return instance;
+        }
+
+    }
+
+    /**
+     * Writes captured values as they are, all other values with the original
+     * writer
+     */
+    private static class RawValueWriter extends BeanPropertyWriter {
+
+        private static final long serialVersionUID = 1L;
+
+        RawValueWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            Optional<? extends RawJsonValue<?>> raw = getRawValue((RouteSegment) bean, getName());
+            if (raw.isPresent()) {
+                gen.writeFieldName(_name);
+                raw.get().serialize(gen);
+            } else {
+                super.serializeAsField(bean, gen, prov);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,379 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import at.ac.ait.ariadne.routeformat.IntermediateStop;
+import at.ac.ait.ariadne.routeformat.RequestModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.instruction.AreaInstruction;
+import at.ac.ait.ariadne.routeformat.instruction.Instruction;
+import at.ac.ait.ariadne.routeformat.instruction.Landmark;
+import at.ac.ait.ariadne.routeformat.instruction.ModeChangeInstruction;
+import at.ac.ait.ariadne.routeformat.instruction.RoadCrossingInstruction;
+import at.ac.ait.ariadne.routeformat.instruction.RoadInstruction;
+import at.ac.ait.ariadne.routeformat.instruction.RoundaboutInstruction;
+import at.ac.ait.ariadne.routeformat.location.Location;
+
+/**
+ * Opt-in Jackson module for a compact encoding of {@link RoutingResponse}s,
+ * where each distinct {@link Location} is written only once. The locations of
+ * a segment are typically repeated as locations of the neighbouring segments,
+ * the route and the request, and rich locations such as public transport stops
+ * are expensive to write and read.
+ * <p>
+ * With the module a response gets the additional property
+ * <code>locationTable</code> (before the request), an array of all distinct
+ * (i.e. not equal) locations of the request, the routes, the segments, the
+ * intermediate stops and the landmarks of navigation instructions. All these
+ * locations are then written as their index in the table, e.g.
+ * <code>"from":3</code>. When reading, references are resolved transparently,
+ * so that equal locations are also shared in memory. Locations outside of a
+ * response (e.g. when writing a single {@link Route}) are written as usual.
+ * <p>
+ * The module must be used for both writing and reading. Since the table must
+ * be read before any references, other tools must not reorder the properties
+ * of the response. The module is not compatible with the serializer for
+ * {@link RoutingResponse} of {@link RouteFormatModule} (then no table is
+ * written and all locations are written as usual).
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class LocationTableModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String LOCATION_TABLE = "locationTable";
+    private static final String REQUEST = "request";
+    /** per-call attribute for the table while writing or reading a response */
+    private static final Object TABLE_KEY = LocationTableModule.class;
+
+    public LocationTableModule() {
+        super(LocationTableModule.class.getSimpleName(), Version.unknownVersion());
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                    List<BeanPropertyWriter> beanProperties) {
+                if (beanDesc.getBeanClass() != RoutingResponse.class)
+                    return beanProperties;
+                for (int i = 0; i < beanProperties.size(); i++) {
+                    if (REQUEST.equals(beanProperties.get(i).getName())) {
+                        beanProperties.add(i, new LocationTableWriter(beanProperties.get(i)));
+                        break;
+                    }
+                }
+                return beanProperties;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                    JsonSerializer<?> serializer) {
+                if (Location.class.isAssignableFrom(beanDesc.getBeanClass()))
+                    return new LocationReferenceSerializer((JsonSerializer<Object>) serializer);
+                return serializer;
+            }
+        });
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                    BeanDeserializerBuilder builder) {
+                if (beanDesc.getBeanClass() != RoutingResponse.class)
+                    return builder;
+                SettableBeanProperty request = builder.findProperty(PropertyName.construct(REQUEST));
+                if (request != null)
+                    builder.addOrReplaceProperty(new LocationTableProperty(request.withSimpleName(LOCATION_TABLE)),
+                            true);
+                return builder;
+            }
+
+            @Override
+            public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc,
+                    JsonDeserializer<?> deserializer) {
+                if (Location.class.isAssignableFrom(beanDesc.getBeanClass()))
+                    return new LocationReferenceDeserializer(deserializer);
+                return deserializer;
+            }
+        });
+    }
+
+    /**
+     * @return all distinct locations of the response in the order of their
+     *         first occurrence
+     */
+    static List<Location<?>> collectLocations(RoutingResponse response) {
+        Set<Location<?>> locations = new LinkedHashSet<>();
+        response.getRequest().ifPresent(request -> collectLocations(request, locations));
+        for (Route route : response.getRoutes()) {
+            add(route.getFrom(), locations);
+            add(route.getTo(), locations);
+            for (RouteSegment segment : route.getSegments()) {
+                add(segment.getFrom(), locations);
+                add(segment.getTo(), locations);
+                for (IntermediateStop stop : segment.getIntermediateStops())
+                    add(stop.getStop(), locations);
+                // instructions captured by the LazyParsingModule are written as they are
+                if (!segment.getRawNavigationInstructions().isPresent()) {
+                    for (Instruction<?> instruction : segment.getNavigationInstructions())
+                        collectLandmarks(instruction, locations);
+                }
+            }
+        }
+        return new ArrayList<>(locations);
+    }
+
+    private static void collectLocations(RoutingRequest request, Collection<Location<?>> locations) {
+        add(request.getFrom(), locations);
+        request.getVia().forEach(l -> add(l, locations));
+        add(request.getTo(), locations);
+        for (RequestModeOfTransport<?> mot : request.getModesOfTransport())
+            mot.getLocations().forEach(l -> add(l, locations));
+    }
+
+    private static void collectLandmarks(Instruction<?> instruction, Collection<Location<?>> locations) {
+        if (instruction instanceof RoadInstruction) {
+            add(((RoadInstruction) instruction).getLandmark(), locations);
+            add(((RoadInstruction) instruction).getConfirmationLandmark(), locations);
+        } else if (instruction instanceof RoundaboutInstruction) {
+            add(((RoundaboutInstruction) instruction).getLandmark(), locations);
+            add(((RoundaboutInstruction) instruction).getConfirmationLandmark(), locations);
+        } else if (instruction instanceof RoadCrossingInstruction) {
+            add(((RoadCrossingInstruction) instruction).getLandmark(), locations);
+        } else if (instruction instanceof ModeChangeInstruction) {
+            add(((ModeChangeInstruction) instruction).getLandmark(), locations);
+        } else if (instruction instanceof AreaInstruction) {
+            add(((AreaInstruction) instruction).getExitLandmark(), locations);
+        }
+    }
+
+    private static void add(Optional<Landmark> landmark, Collection<Location<?>> locations) {
+        if (landmark.isPresent())
+            add(landmark.get().getLocation(), locations);
+    }
+
+    private static void add(Location<?> location, Collection<Location<?>> locations) {
+        if (location != null)
+            locations.add(location);
+    }
+
+    /**
+     * Writes the table and makes it available for the
+     * {@link LocationReferenceSerializer}
+     */
+    private static class LocationTableWriter extends BeanPropertyWriter {
+
+        private static final long serialVersionUID = 1L;
+
+        LocationTableWriter(BeanPropertyWriter base) {
+            super(base, PropertyName.construct(LOCATION_TABLE));
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            // the locations of the table itself (and of a previous response) must be written in full
+            prov.setAttribute(TABLE_KEY, null);
+            List<Location<?>> locations = collectLocations((RoutingResponse) bean);
+            if (locations.isEmpty())
+                return;
+            Map<Location<?>, Integer> table = new HashMap<>();
+            gen.writeFieldName(_name);
+            gen.writeStartArray();
+            for (Location<?> location : locations) {
+                table.put(location, table.size());
+                prov.defaultSerializeValue(location, gen);
+            }
+            gen.writeEndArray();
+            prov.setAttribute(TABLE_KEY, table);
+        }
+
+    }
+
+    /**
+     * Writes locations contained in the table of the current response as
+     * reference
+     */
+    private static class LocationReferenceSerializer extends StdSerializer<Object>
+            implements ResolvableSerializer, ContextualSerializer {
+
+        private static final long serialVersionUID = 1L;
+
+        private final JsonSerializer<Object> delegate;
+
+        LocationReferenceSerializer(JsonSerializer<Object> delegate) {
+            super(Object.class);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (!writeReference(value, gen, provider))
+                delegate.serialize(value, gen, provider);
+        }
+
+        @Override
+        public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider provider,
+                TypeSerializer typeSer) throws IOException {
+            if (!writeReference(value, gen, provider))
+                delegate.serializeWithType(value, gen, provider, typeSer);
+        }
+
+        private static boolean writeReference(Object value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            Object table = provider.getAttribute(TABLE_KEY);
+            if (table == null)
+                return false;
+            @SuppressWarnings("unchecked")
+            Integer reference = ((Map<?, Integer>) table).get(value);
+            if (reference == null)
+                return false;
+            gen.writeNumber(reference);
+            return true;
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, Object value) {
+            return delegate.isEmpty(provider, value);
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer)
+                ((ResolvableSerializer) delegate).resolve(provider);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property)
+                throws JsonMappingException {
+            if (!(delegate instanceof ContextualSerializer))
+                return this;
+            JsonSerializer<?> contextual = ((ContextualSerializer) delegate).createContextual(prov, property);
+            return contextual == delegate ? this
+                    : new LocationReferenceSerializer((JsonSerializer<Object>) contextual);
+        }
+
+    }
+
+    /**
+     * Reads the table and makes it available for the
+     * {@link LocationReferenceDeserializer}
+     */
+    private static class LocationTableProperty extends SettableBeanProperty.Delegating {
+
+        private static final long serialVersionUID = 1L;
+
+        LocationTableProperty(SettableBeanProperty delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected SettableBeanProperty withDelegate(SettableBeanProperty d) {
+            return new LocationTableProperty(d);
+        }
+
+        @Override
+        public void deserializeAndSet(JsonParser p, DeserializationContext ctxt, Object instance) throws IOException {
+            ctxt.setAttribute(TABLE_KEY, null);
+            if (p.currentToken() == JsonToken.VALUE_NULL)
+                return;
+            if (!p.isExpectedStartArrayToken())
+                throw new JsonParseException(p, "expected array start for " + LOCATION_TABLE);
+            JsonDeserializer<Object> deserializer = ctxt.findRootValueDeserializer(ctxt.constructType(Location.class));
+            List<Location<?>> table = new ArrayList<>();
+            while (p.nextToken() != JsonToken.END_ARRAY)
+                table.add((Location<?>) deserializer.deserialize(p, ctxt));
+            ctxt.setAttribute(TABLE_KEY, table);
+        }
+
+        @Override
+        public Object deserializeSetAndReturn(JsonParser p, DeserializationContext ctxt, Object instance)
+                throws IOException {
+            deserializeAndSet(p, ctxt, instance);
+            return instance;
+        }
+
+    }
+
+    /**
+     * Resolves references to the table of the current response
+     */
+    private static class LocationReferenceDeserializer extends DelegatingDeserializer {
+
+        private static final long serialVersionUID = 1L;
+
+        LocationReferenceDeserializer(JsonDeserializer<?> delegatee) {
+            super(delegatee);
+        }
+
+        @Override
+        protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+            return new LocationReferenceDeserializer(newDelegatee);
+        }
+
+        @Override
+        public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_NUMBER_INT)
+                return resolve(p, ctxt);
+            return _delegatee.deserialize(p, ctxt);
+        }
+
+        @Override
+        public Object deserializeWithType(JsonParser p, DeserializationContext ctxt, TypeDeserializer typeDeserializer)
+                throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_NUMBER_INT)
+                return resolve(p, ctxt);
+            return _delegatee.deserializeWithType(p, ctxt, typeDeserializer);
+        }
+
+        private static Object resolve(JsonParser p, DeserializationContext ctxt) throws IOException {
+            List<?> table = (List<?>) ctxt.getAttribute(TABLE_KEY);
+            if (table == null)
+                throw new JsonParseException(p, "location reference without preceding " + LOCATION_TABLE);
+            int reference = p.getIntValue();
+            if (reference < 0 || reference >= table.size())
+                throw new JsonParseException(p,
+                        "location reference " + reference + " not in " + LOCATION_TABLE + " of size " + table.size());
+            return table.get(reference);
+        }
+
+    }
+
+}
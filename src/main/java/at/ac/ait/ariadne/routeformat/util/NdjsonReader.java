@@ -0,0 +1,222 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+
+/**
+ * Streaming reader for newline-delimited JSON (one document per line, but any
+ * whitespace between documents is accepted). One {@link JsonParser} is used
+ * for the whole stream, it reads directly from the given {@link InputStream}
+ * with its own (recycled) buffer, so the stream should not be wrapped in a
+ * {@link java.io.BufferedInputStream}.
+ * <p>
+ * Readers created without an explicit {@link RouteFormatMapper} use
+ * {@link #LOCK_FREE_MAPPER}, which recycles parser buffers through a shared
+ * lock-free pool instead of Jackson's default {@link ThreadLocal} pool. This
+ * keeps buffer reuse effective when each stream is read by its own
+ * (short-lived or virtual) thread. Neither this reader nor the pool hold
+ * monitors while blocking on I/O, i.e. carrier threads of virtual threads are
+ * not pinned. A single reader must not be used by several threads at the same
+ * time.
+ * <p>
+ * With a key filter (see {@link #setKeyFilter(Predicate)}) documents are
+ * skipped without binding them if the filter rejects their key (e.g. the
+ * <code>requestId</code> of responses). The key does not have to be the first
+ * property, properties before it are buffered.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class NdjsonReader<T> implements Iterator<T>, Closeable {
+
+    /**
+     * Registry for JSON with buffer recycling that does not depend on
+     * {@link ThreadLocal}s, used by default by {@link NdjsonReader} and
+     * {@link NdjsonWriter}
+     */
+    public static final RouteFormatMapper LOCK_FREE_MAPPER = RouteFormatMapper
+            .create(JsonFactory.builder().recyclerPool(JsonRecyclerPools.sharedLockFreePool()).build());
+
+    private final JsonParser parser;
+    private final ObjectReader reader;
+    private final String keyProperty;
+    private Predicate<String> keyFilter;
+    private T next;
+    private long read, skipped;
+
+    /**
+     * @param keyProperty
+     *            the top-level property used for
+     *            {@link #setKeyFilter(Predicate)} or <code>null</code> if
+     *            filtering is not supported
+     */
+    public NdjsonReader(RouteFormatMapper mapper, Class<T> type, String keyProperty, InputStream in)
+            throws IOException {
+        this.parser = mapper.getFactory().createParser(in);
+        this.reader = mapper.getReader(type);
+        this.keyProperty = keyProperty;
+    }
+
+    /** reads {@link RoutingResponse}s with the key <code>requestId</code> */
+    public static NdjsonReader<RoutingResponse> forResponses(InputStream in) throws IOException {
+        return new NdjsonReader<>(LOCK_FREE_MAPPER, RoutingResponse.class, "requestId", in);
+    }
+
+    /** reads {@link RoutingRequest}s (without key) */
+    public static NdjsonReader<RoutingRequest> forRequests(InputStream in) throws IOException {
+        return new NdjsonReader<>(LOCK_FREE_MAPPER, RoutingRequest.class, null, in);
+    }
+
+    /** reads {@link Route}s with the key <code>id</code> */
+    public static NdjsonReader<Route> forRoutes(InputStream in) throws IOException {
+        return new NdjsonReader<>(LOCK_FREE_MAPPER, Route.class, "id", in);
+    }
+
+    /**
+     * Only documents whose key is accepted by the filter are bound and
+     * returned, all others are skipped. Documents without key (or with a key
+     * that is not a scalar) are passed to the filter as <code>null</code>.
+     *
+     * @param keyFilter
+     *            or <code>null</code> to return all documents
+     */
+    public NdjsonReader<T> setKeyFilter(Predicate<String> keyFilter) {
+        Preconditions.checkState(keyProperty != null, "documents of this reader have no key");
+        this.keyFilter = keyFilter;
+        return this;
+    }
+
+    /** @return the number of documents returned so far */
+    public long getRead() {
+        return read;
+    }
+
+    /** @return the number of documents skipped by the key filter so far */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Reads the next (accepted) document, this is the checked alternative to
+     * {@link #hasNext()} and {@link #next()}.
+     *
+     * @return the next document or <code>null</code> at the end of the stream
+     */
+    public T read() throws IOException {
+        T value = next != null ? next : readNext();
+        next = null;
+        if (value != null)
+            read++;
+        return value;
+    }
+
+    /**
+     * @throws UncheckedIOException
+     *             if the stream can not be read or contains invalid JSON
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        T value = next;
+        next = null;
+        read++;
+        return value;
+    }
+
+    /** closes the parser and the underlying stream */
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private T readNext() throws IOException {
+        while (true) {
+            JsonToken token = parser.nextToken();
+            if (token == null)
+                return null;
+            if (token != JsonToken.START_OBJECT)
+                throw new JsonParseException(parser, "expected a JSON object per line but found " + token);
+            if (keyFilter == null)
+                return reader.readValue(parser);
+
+            TokenBuffer prefix = new TokenBuffer(parser);
+            prefix.writeStartObject();
+            String key = null;
+            boolean keyFound = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if (name.equals(keyProperty)) {
+                    key = parser.currentToken().isScalarValue() ? parser.getValueAsString() : null;
+                    keyFound = true;
+                    if (keyFilter.test(key)) {
+                        prefix.writeFieldName(name);
+                        prefix.copyCurrentStructure(parser);
+                        return bind(prefix, true);
+                    }
+                    skipRemainingProperties();
+                    break;
+                }
+                prefix.writeFieldName(name);
+                prefix.copyCurrentStructure(parser);
+            }
+            if (!keyFound && keyFilter.test(null))
+                return bind(prefix, false);
+            skipped++;
+        }
+    }
+
+    private void skipRemainingProperties() throws IOException {
+        parser.skipChildren();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * @param continued
+     *            <code>true</code> if the rest of the document is still in the
+     *            parser, <code>false</code> if the prefix is the whole document
+     */
+    private T bind(TokenBuffer prefix, boolean continued) throws IOException {
+        if (!continued) {
+            prefix.writeEndObject();
+            return reader.readValue(prefix.asParser());
+        }
+        JsonParser sequence = JsonParserSequence.createFlattened(false, prefix.asParser(), parser);
+        return reader.readValue(sequence);
+    }
+
+}
@@ -0,0 +1,76 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+
+/**
+ * Streaming writer for newline-delimited JSON, the counterpart of
+ * {@link NdjsonReader}. One {@link JsonGenerator} is used for the whole
+ * stream, it writes directly to the given {@link OutputStream} through its own
+ * (recycled) buffer and only flushes on {@link #flush()} and
+ * {@link #close()}. Every document is followed by a newline.
+ * <p>
+ * Writers created without an explicit {@link RouteFormatMapper} use
+ * {@link NdjsonReader#LOCK_FREE_MAPPER}. A single writer must not be used by
+ * several threads at the same time.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class NdjsonWriter<T> implements Closeable, Flushable {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+    private long written;
+
+    public NdjsonWriter(RouteFormatMapper mapper, Class<T> type, OutputStream out) throws IOException {
+        this.generator = mapper.getFactory().createGenerator(out);
+        this.generator.setRootValueSeparator(null);
+        this.writer = mapper.getWriter(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public static NdjsonWriter<RoutingResponse> forResponses(OutputStream out) throws IOException {
+        return new NdjsonWriter<>(NdjsonReader.LOCK_FREE_MAPPER, RoutingResponse.class, out);
+    }
+
+    public static NdjsonWriter<RoutingRequest> forRequests(OutputStream out) throws IOException {
+        return new NdjsonWriter<>(NdjsonReader.LOCK_FREE_MAPPER, RoutingRequest.class, out);
+    }
+
+    public static NdjsonWriter<Route> forRoutes(OutputStream out) throws IOException {
+        return new NdjsonWriter<>(NdjsonReader.LOCK_FREE_MAPPER, Route.class, out);
+    }
+
+    public NdjsonWriter<T> write(T value) throws IOException {
+        writer.writeValue(generator, value);
+        generator.writeRaw('\n');
+        written++;
+        return this;
+    }
+
+    /** @return the number of documents written so far */
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    /** flushes and closes the generator and the underlying stream */
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+}
@@ -0,0 +1,70 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * A JSON value captured as tokens during deserialization, which is only
+ * parsed into its object representation when it is actually needed (see
+ * {@link LazyParsingModule}). Until then it can be written again as is.
+ * <p>
+ * Instances are immutable, {@link #parse()} creates a new object on every
+ * invocation.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class RawJsonValue<T> {
+
+    private final TokenBuffer buffer;
+    private final JavaType type;
+
+    private RawJsonValue(TokenBuffer buffer, JavaType type) {
+        this.buffer = buffer;
+        this.type = type;
+    }
+
+    /**
+     * Captures the value the parser currently points to (and advances the
+     * parser to its last token)
+     *
+     * @param type
+     *            the type the value will be parsed into
+     */
+    public static <T> RawJsonValue<T> capture(JsonParser p, DeserializationContext ctxt, JavaType type)
+            throws IOException {
+        return new RawJsonValue<>(ctxt.bufferAsCopyOfValue(p), type);
+    }
+
+    /**
+     * Parses the captured value with the {@link ObjectCodec} (i.e. the
+     * configuration) of the original parser
+     *
+     * @throws UncheckedIOException
+     *             if the value can not be parsed
+     */
+    public T parse() {
+        try (JsonParser p = buffer.asParserOnFirstToken()) {
+            ObjectCodec codec = p.getCodec();
+            if (codec == null)
+                throw new IllegalStateException("no codec available to parse " + type);
+            return codec.readValue(p, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not parse captured JSON into " + type, e);
+        }
+    }
+
+    /**
+     * Writes the captured tokens unchanged
+     */
+    public void serialize(JsonGenerator gen) throws IOException {
+        buffer.serialize(gen);
+    }
+
+}
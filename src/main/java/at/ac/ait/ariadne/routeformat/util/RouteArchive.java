@@ -0,0 +1,403 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+
+/**
+ * Read-only view of an append-only archive of {@link RoutingResponse}s with
+ * random access by {@link RoutingResponse#getRequestId()} and
+ * {@link Route#getId()}.
+ * <p>
+ * An archive consists of two files:
+ * <ul>
+ * <li>the data file, which contains one JSON response per line (i.e. it can
+ * also be read with {@link NdjsonReader})</li>
+ * <li>the sidecar index (the name of the data file with the suffix
+ * <code>.idx</code>), which contains the offset and length of each response
+ * in the data file and the offset and length of each route with an id within
+ * its response</li>
+ * </ul>
+ * Archives are written with {@link Writer}, responses are only ever appended.
+ * If a request id or route id occurs several times the latest entry wins.
+ * <p>
+ * The data file is memory-mapped with {@link FileChannel#map(MapMode, long, long)}
+ * when the archive is opened, so fetching a response or route neither scans
+ * nor copies the file: the JSON of only this response or route is decoded
+ * directly from the mapped memory. An opened archive is a snapshot, responses
+ * appended afterwards are only visible after opening the archive again.
+ * Instances are thread-safe.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class RouteArchive implements Closeable {
+
+    public static final String INDEX_SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x41524958; // ARIX
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    /** limit of {@link DataOutputStream#writeUTF(String)} */
+    private static final int MAX_KEY_LENGTH = 65535;
+    private static final byte RESPONSE_ENTRY = 0, ROUTE_ENTRY = 1;
+    /** size of the mapped regions, a single mapping is limited to 2 GB */
+    private static final long REGION_SIZE = 1L << 30;
+    private static final byte[] NEWLINE = { '\n' };
+
+    private final FileChannel channel;
+    private final long size, regionSize;
+    private final MappedByteBuffer[] regions;
+    private final RouteFormatMapper mapper;
+    private final Map<String, Slice> responses = new HashMap<>();
+    private final Map<String, Slice> routes = new HashMap<>();
+
+    RouteArchive(Path data, RouteFormatMapper mapper, long regionSize) throws IOException {
+        this.mapper = mapper;
+        this.regionSize = regionSize;
+        this.channel = FileChannel.open(data, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            this.regions = new MappedByteBuffer[(int) ((size + regionSize - 1) / regionSize)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = i * regionSize;
+                regions[i] = channel.map(MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+            }
+            readIndex(getIndexPath(data));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing archive for reading
+     *
+     * @param data
+     *            the data file, the index is expected next to it
+     */
+    public static RouteArchive open(Path data) throws IOException {
+        return new RouteArchive(data, RouteFormatMapper.getDefault(), REGION_SIZE);
+    }
+
+    public static RouteArchive open(Path data, RouteFormatMapper mapper) throws IOException {
+        return new RouteArchive(data, mapper, REGION_SIZE);
+    }
+
+    /**
+     * Opens an archive for appending, missing files are created.
+     *
+     * @param data
+     *            the data file, the index is written next to it
+     */
+    public static Writer append(Path data) throws IOException {
+        return new Writer(data, RouteFormatMapper.getDefault());
+    }
+
+    public static Writer append(Path data, RouteFormatMapper mapper) throws IOException {
+        return new Writer(data, mapper);
+    }
+
+    public static Path getIndexPath(Path data) {
+        return data.resolveSibling(data.getFileName() + INDEX_SUFFIX);
+    }
+
+    /** @return the request ids of all archived responses */
+    public Set<String> getRequestIds() {
+        return Collections.unmodifiableSet(responses.keySet());
+    }
+
+    /** @return the ids of all archived routes (routes without id are not indexed) */
+    public Set<String> getRouteIds() {
+        return Collections.unmodifiableSet(routes.keySet());
+    }
+
+    public Optional<RoutingResponse> getResponse(String requestId) throws IOException {
+        Optional<ByteBuffer> json = getResponseJson(requestId);
+        if (!json.isPresent())
+            return Optional.empty();
+        return Optional.of(decode(json.get(), RoutingResponse.class));
+    }
+
+    public Optional<Route> getRoute(String routeId) throws IOException {
+        Optional<ByteBuffer> json = getRouteJson(routeId);
+        if (!json.isPresent())
+            return Optional.empty();
+        return Optional.of(decode(json.get(), Route.class));
+    }
+
+    /**
+     * @return a read-only buffer with the UTF-8 encoded JSON of the response,
+     *         backed by the mapped file
+     */
+    public Optional<ByteBuffer> getResponseJson(String requestId) throws IOException {
+        Slice slice = responses.get(requestId);
+        return slice == null ? Optional.empty() : Optional.of(slice(slice));
+    }
+
+    /**
+     * @return a read-only buffer with the UTF-8 encoded JSON of the route,
+     *         backed by the mapped file
+     */
+    public Optional<ByteBuffer> getRouteJson(String routeId) throws IOException {
+        Slice slice = routes.get(routeId);
+        return slice == null ? Optional.empty() : Optional.of(slice(slice));
+    }
+
+    /**
+     * Closes the file channel. The mapped memory is released by the garbage
+     * collector once no buffer returned by this archive is referenced anymore.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private <T> T decode(ByteBuffer json, Class<T> type) throws IOException {
+        try (InputStream in = new ByteBufferBackedInputStream(json)) {
+            return mapper.getReader(type).readValue(in);
+        }
+    }
+
+    private ByteBuffer slice(Slice slice) throws IOException {
+        int region = (int) (slice.offset / regionSize);
+        int start = (int) (slice.offset % regionSize);
+        if (start + (long) slice.length > regions[region].capacity())
+            return channel.map(MapMode.READ_ONLY, slice.offset, slice.length);
+        ByteBuffer buffer = regions[region].asReadOnlyBuffer();
+        ((Buffer) buffer).position(start);
+        ((Buffer) buffer).limit(start + slice.length);
+        return buffer.slice();
+    }
+
+    private void readIndex(Path index) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            checkHeader(in.readInt(), in.readInt());
+            while (true) {
+                byte type;
+                Slice slice;
+                String key;
+                try {
+                    type = in.readByte();
+                    slice = new Slice(in.readLong(), in.readInt());
+                    key = in.readUTF();
+                } catch (EOFException e) {
+                    // end of index or partially written last entry
+                    return;
+                }
+                // responses appended after the data file was mapped
+                if (slice.offset + slice.length > size)
+                    continue;
+                if (type == RESPONSE_ENTRY)
+                    responses.put(key, slice);
+                else if (type == ROUTE_ENTRY)
+                    routes.put(key, slice);
+                else
+                    throw new IOException("corrupt archive index " + index + ": unknown entry type " + type);
+            }
+        }
+    }
+
+    private static void checkHeader(int magic, int version) throws IOException {
+        if (magic != MAGIC)
+            throw new IOException("not a route archive index");
+        if (version != VERSION)
+            throw new IOException("unsupported route archive version " + version);
+    }
+
+    private static class Slice {
+        private final long offset;
+        private final int length;
+
+        private Slice(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Appends responses to an archive. Every response is written to the data
+     * file immediately, the index is buffered and written on {@link #flush()}
+     * and {@link #close()}. Responses whose index entries were not written are
+     * not visible to {@link RouteArchive} but stay in the data file. When an
+     * archive is opened for appending a partially written last index entry
+     * (or header) is removed first. Writers
+     * are not thread-safe and there must only be one writer per archive at a
+     * time.
+     *
+     * @author AIT Austrian Institute of Technology GmbH
+     */
+    public static class Writer implements Closeable, Flushable {
+
+        private final FileChannel data;
+        private final DataOutputStream index;
+        private final RouteFormatMapper mapper;
+        private long position;
+        private long appended;
+
+        private Writer(Path dataPath, RouteFormatMapper mapper) throws IOException {
+            this.mapper = mapper;
+            Path indexPath = getIndexPath(dataPath);
+            long indexSize = Files.exists(indexPath) ? Files.size(indexPath) : 0;
+            // a partially written header is treated like a missing index
+            boolean newIndex = indexSize < HEADER_SIZE;
+            long complete = newIndex ? 0 : completeIndexSize(indexPath);
+            if (complete < indexSize) {
+                try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+                    channel.truncate(complete);
+                }
+            }
+            this.data = FileChannel.open(dataPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            this.position = data.size();
+            this.index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+            if (newIndex) {
+                index.writeInt(MAGIC);
+                index.writeInt(VERSION);
+            }
+        }
+
+        /**
+         * @return the size of the index up to and including the last complete
+         *         entry, so that entries are not appended after a partially
+         *         written one
+         */
+        private static long completeIndexSize(Path indexPath) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+                checkHeader(in.readInt(), in.readInt());
+                long size = HEADER_SIZE;
+                while (true) {
+                    try {
+                        in.readByte();
+                        in.readLong();
+                        in.readInt();
+                        int keyLength = in.readUnsignedShort();
+                        in.readFully(new byte[keyLength]);
+                        size += 1 + 8 + 4 + 2 + keyLength;
+                    } catch (EOFException e) {
+                        return size;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @throws IllegalArgumentException
+         *             if the response has no request id or if the request id
+         *             or a route id is too long for the index (more than
+         *             65535 bytes in modified UTF-8), in this case nothing is
+         *             written
+         */
+        public Writer append(RoutingResponse response) throws IOException {
+            Preconditions.checkArgument(response.getRequestId() != null, "requestId is mandatory but missing");
+            checkKey(response.getRequestId());
+            for (Route route : response.getRoutes())
+                route.getId().ifPresent(Writer::checkKey);
+            byte[] json = mapper.getWriter(RoutingResponse.class).writeValueAsBytes(response);
+            ByteBuffer[] buffers = { ByteBuffer.wrap(json), ByteBuffer.wrap(NEWLINE) };
+            while (buffers[1].hasRemaining())
+                data.write(buffers);
+
+            writeEntry(RESPONSE_ENTRY, position, json.length, response.getRequestId());
+            int route = 0;
+            try (JsonParser parser = mapper.getFactory().createParser(json)) {
+                parser.nextToken();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (!name.equals("routes") || value != JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        long start = parser.currentTokenLocation().getByteOffset();
+                        parser.skipChildren();
+                        long end = parser.currentLocation().getByteOffset();
+                        Optional<String> id = response.getRoutes().get(route++).getId();
+                        if (id.isPresent())
+                            writeEntry(ROUTE_ENTRY, position + start, (int) (end - start), id.get());
+                    }
+                }
+            }
+            position += json.length + 1;
+            appended++;
+            return this;
+        }
+
+        /** @return the number of responses appended by this writer */
+        public long getAppended() {
+            return appended;
+        }
+
+        /**
+         * Checks the length of a key in advance, so that
+         * {@link DataOutputStream#writeUTF(String)} never fails after a part of
+         * an entry was written
+         */
+        private static void checkKey(String key) {
+            long length = 0;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                length += c >= 0x0001 && c <= 0x007F ? 1 : c > 0x07FF ? 3 : 2;
+            }
+            Preconditions.checkArgument(length <= MAX_KEY_LENGTH, "id is too long for the archive index: %s bytes",
+                    length);
+        }
+
+        private void writeEntry(byte type, long offset, int length, String key) throws IOException {
+            index.writeByte(type);
+            index.writeLong(offset);
+            index.writeInt(length);
+            index.writeUTF(key);
+        }
+
+        /** forces the data file to the storage device and writes the index */
+        @Override
+        public void flush() throws IOException {
+            data.force(false);
+            index.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                try {
+                    index.close();
+                } finally {
+                    data.close();
+                }
+            }
+        }
+
+    }
+
+}
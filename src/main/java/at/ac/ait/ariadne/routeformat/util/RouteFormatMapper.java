@@ -0,0 +1,278 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.features.RoutingFeatures;
+
+/**
+ * Registry of pre-configured, thread-safe {@link ObjectReader}s and
+ * {@link ObjectWriter}s for the route format. Creating an {@link ObjectMapper}
+ * (and scanning the classpath for modules) per call is expensive and discards
+ * Jackson's serializer caches, so all readers and writers of one
+ * {@link RouteFormatMapper} share a single {@link ObjectMapper}.
+ * <p>
+ * Readers and writers for {@link RoutingRequest}, {@link RoutingResponse},
+ * {@link Route} and {@link RoutingFeatures} are created up front, others on
+ * first use. Writers are available in a compact and a pretty (indented)
+ * variant. {@link #writeValue(Object, ByteBufferOutput)} and
+ * {@link #writeValue(Object, WritableByteChannel)} write directly to NIO
+ * buffers and channels.
+ * <p>
+ * Use {@link #getDefault()} for the standard configuration or
+ * {@link #create(Module...)} for additional modules, e.g. the
+ * {@link RouteFormatModule}.
+ * <p>
+ * {@link #getBinary()} and {@link #createBinary(Module...)} provide the same
+ * for the binary Smile encoding (see <a
+ * href="https://github.com/FasterXML/smile-format-specification">Smile format
+ * specification</a>), which is a lossless encoding of the JSON data model:
+ * decoding a binary route and writing it as JSON gives the same JSON as the
+ * original. Property names and short string values (e.g. modes of transport,
+ * time zones) are written only once per document and referenced afterwards.
+ * Pretty writers of binary registries write the same output as compact
+ * writers. {@link #transcode(JsonParser, JsonGenerator)} converts between the
+ * encodings without the object model.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class RouteFormatMapper {
+
+    private static final RouteFormatMapper DEFAULT = create();
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter compactWriter, prettyWriter;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> compactWriters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> prettyWriters = new ConcurrentHashMap<>();
+
+    private RouteFormatMapper(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.compactWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.prettyWriter = mapper.writer().with(SerializationFeature.INDENT_OUTPUT);
+        for (Class<?> type : new Class<?>[] { RoutingRequest.class, RoutingResponse.class, Route.class,
+                RoutingFeatures.class }) {
+            getReader(type);
+            getWriter(type);
+            getPrettyWriter(type);
+        }
+    }
+
+    /**
+     * @return the shared instance with the standard configuration, i.e. all
+     *         Jackson modules found on the classpath
+     */
+    public static RouteFormatMapper getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the shared instance for the binary Smile encoding with the
+     *         standard configuration
+     */
+    public static RouteFormatMapper getBinary() {
+        return BinaryHolder.BINARY;
+    }
+
+    /**
+     * Creates the binary instance on first use, so that users of JSON only do
+     * not pay for a second module scan and Smile mapper
+     */
+    private static class BinaryHolder {
+        private static final RouteFormatMapper BINARY = createBinary();
+    }
+
+    /**
+     * Creates a new registry with its own {@link ObjectMapper}. Instances
+     * should be created once and reused.
+     *
+     * @param additionalModules
+     *            registered in addition to the modules found on the classpath
+     */
+    public static RouteFormatMapper create(Module... additionalModules) {
+        return create(new ObjectMapper(), additionalModules);
+    }
+
+    /**
+     * Creates a new registry for the binary Smile encoding with its own
+     * {@link ObjectMapper}. Instances should be created once and reused.
+     *
+     * @param additionalModules
+     *            registered in addition to the modules found on the classpath
+     */
+    public static RouteFormatMapper createBinary(Module... additionalModules) {
+        return create(new ObjectMapper(createSmileFactory()), additionalModules);
+    }
+
+    /**
+     * Creates a new registry for a custom factory (e.g. with a different
+     * buffer recycler pool) with its own {@link ObjectMapper}. Instances should
+     * be created once and reused.
+     *
+     * @param additionalModules
+     *            registered in addition to the modules found on the classpath
+     */
+    public static RouteFormatMapper create(JsonFactory factory, Module... additionalModules) {
+        return create(new ObjectMapper(factory), additionalModules);
+    }
+
+    private static RouteFormatMapper create(ObjectMapper mapper, Module... additionalModules) {
+        mapper.findAndRegisterModules();
+        for (Module module : additionalModules)
+            mapper.registerModule(module);
+        return new RouteFormatMapper(mapper);
+    }
+
+    /**
+     * @return a new {@link SmileFactory} that shares both property names and
+     *         string values
+     */
+    public static SmileFactory createSmileFactory() {
+        return SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build();
+    }
+
+    /**
+     * @return a new {@link ObjectMapper} with the standard configuration, e.g.
+     *         for schema generation or further customization
+     */
+    public static ObjectMapper createObjectMapper() {
+        return new ObjectMapper().findAndRegisterModules();
+    }
+
+    /**
+     * Copies the value the parser points to (or the next value if the parser
+     * has no current token) token by token to the generator, e.g. from JSON to
+     * Smile or vice versa. In contrast to
+     * {@link JsonGenerator#copyCurrentStructure(JsonParser)} floating point
+     * numbers are copied exactly, i.e. a coordinate such as
+     * <code>48.26680</code> keeps its trailing zero.
+     */
+    public static void transcode(JsonParser p, JsonGenerator gen) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == null)
+            token = p.nextToken();
+        if (token == null)
+            return;
+        int depth = 0;
+        do {
+            gen.copyCurrentEventExact(p);
+            if (token.isStructStart())
+                depth++;
+            else if (token.isStructEnd())
+                depth--;
+            if (depth == 0 && token != JsonToken.FIELD_NAME)
+                return;
+            token = p.nextToken();
+        } while (token != null);
+    }
+
+    /**
+     * @return the factory of the underlying {@link ObjectMapper}, e.g. to
+     *         create parsers and generators for streaming
+     */
+    public JsonFactory getFactory() {
+        return mapper.getFactory();
+    }
+
+    /**
+     * @return a reader for the given type
+     */
+    public ObjectReader getReader(Class<?> type) {
+        return readers.computeIfAbsent(type, t -> mapper.readerFor(t));
+    }
+
+    /**
+     * @return a compact writer for values of any type
+     */
+    public ObjectWriter getWriter() {
+        return compactWriter;
+    }
+
+    /**
+     * @return a compact writer for the given type
+     */
+    public ObjectWriter getWriter(Class<?> type) {
+        return compactWriters.computeIfAbsent(type, t -> compactWriter.forType(t));
+    }
+
+    /**
+     * @return a pretty (indented) writer for values of any type
+     */
+    public ObjectWriter getPrettyWriter() {
+        return prettyWriter;
+    }
+
+    /**
+     * @return a pretty (indented) writer for the given type
+     */
+    public ObjectWriter getPrettyWriter(Class<?> type) {
+        return prettyWriters.computeIfAbsent(type, t -> prettyWriter.forType(t));
+    }
+
+    /**
+     * Writes the value with the compact writer for its type directly into the
+     * buffers of the output, i.e. without an intermediate {@link String} or
+     * <code>byte[]</code> of the whole document.
+     *
+     * @return the output
+     */
+    public ByteBufferOutput writeValue(Object value, ByteBufferOutput out) throws IOException {
+        getWriter(value.getClass()).writeValue(out, value);
+        return out;
+    }
+
+    /**
+     * Writes the value with the compact writer for its type to a blocking
+     * channel. The output is passed on in chunks of the generator's (recycled)
+     * buffer, the whole document is never held in memory. The channel is not
+     * closed.
+     */
+    public void writeValue(Object value, WritableByteChannel channel) throws IOException {
+        getWriter(value.getClass()).writeValue(new ChannelOutputStream(channel), value);
+    }
+
+    /**
+     * Writes byte arrays to a channel without copying them and without the
+     * locking of {@link java.nio.channels.Channels#newOutputStream}
+     */
+    private static class ChannelOutputStream extends OutputStream {
+        private final WritableByteChannel channel;
+
+        private ChannelOutputStream(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+}
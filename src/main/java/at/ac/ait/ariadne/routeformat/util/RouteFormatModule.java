@@ -0,0 +1,230 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeatureCollection;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeatureCollectionSerializer;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeatureSerializer;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONGeometrySerializer;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONMultiPolygon;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
+import at.ac.ait.ariadne.routeformat.instruction.Instruction;
+
+/**
+ * Opt-in Jackson module with hand-written serializers for the classes that
+ * dominate the serialization cost of routing responses: {@link RoutingResponse}
+ * , {@link Route}, {@link RouteSegment} and the GeoJSON classes. They write
+ * straight to the {@link JsonGenerator} instead of going through bean
+ * introspection, {@link Optional} unwrapping and inclusion checks per
+ * property. All other classes (locations, modes of transport, instructions,..)
+ * are still serialized by the default serializers.
+ * <p>
+ * The output is identical to the default serialization (property order,
+ * inclusion of absent values, type information). Note, that the module only
+ * supports serialization (deserialization is not affected) and must not be
+ * registered for JSON schema generation. Subclasses of the supported classes
+ * are serialized without their additional properties.
+ * <p>
+ * The module is not registered by {@link com.fasterxml.jackson.databind.ObjectMapper#findAndRegisterModules()}
+ * , use {@link com.fasterxml.jackson.databind.ObjectMapper#registerModule(com.fasterxml.jackson.databind.Module)}
+ * explicitly.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class RouteFormatModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public RouteFormatModule() {
+        super(RouteFormatModule.class.getSimpleName(), Version.unknownVersion());
+        GeoJSONGeometrySerializer geometrySerializer = new GeoJSONGeometrySerializer();
+        addSerializer(GeoJSONPoint.class, geometrySerializer);
+        addSerializer(GeoJSONLineString.class, geometrySerializer);
+        addSerializer(GeoJSONPolygon.class, geometrySerializer);
+        addSerializer(GeoJSONMultiPolygon.class, geometrySerializer);
+        addSerializer((Class) GeoJSONFeature.class, new GeoJSONFeatureSerializer());
+        addSerializer((Class) GeoJSONFeatureCollection.class, new GeoJSONFeatureCollectionSerializer());
+        addSerializer(RouteSegment.class, new RouteSegmentSerializer());
+        addSerializer(Route.class, new RouteSerializer());
+        addSerializer(RoutingResponse.class, new RoutingResponseSerializer());
+    }
+
+    public static class RoutingResponseSerializer extends JsonSerializer<RoutingResponse> {
+
+        private final RouteSerializer routeSerializer = new RouteSerializer();
+
+        @Override
+        public void serialize(RoutingResponse value, JsonGenerator gen, SerializerProvider serializers)
+                throws IOException, JsonProcessingException {
+            gen.writeStartObject(value);
+            writeString("routeFormatVersion", value.getRouteFormatVersion(), gen);
+            writeString("requestId", value.getRequestId(), gen);
+            writeString("processedTime", value.getProcessedTime(), gen);
+            writeObject("status", value.getStatus(), gen, serializers);
+            writeString("debugMessage", value.getDebugMessage().orElse(null), gen);
+            writeString("coordinateReferenceSystem", value.getCoordinateReferenceSystem(), gen);
+            writeObject("request", value.getRequest().orElse(null), gen, serializers);
+            List<Route> routes = value.getRoutes();
+            if (routes != null) {
+                gen.writeFieldName("routes");
+                gen.writeStartArray();
+                for (Route route : routes)
+                    writeValue(route, routeSerializer, gen, serializers);
+                gen.writeEndArray();
+            }
+            writeObject("additionalInfo", value.getAdditionalInfo(), gen, serializers);
+            gen.writeEndObject();
+        }
+
+    }
+
+    public static class RouteSerializer extends JsonSerializer<Route> {
+
+        private final RouteSegmentSerializer segmentSerializer = new RouteSegmentSerializer();
+        private final GeoJSONFeatureSerializer featureSerializer = new GeoJSONFeatureSerializer();
+
+        @Override
+        public void serialize(Route value, JsonGenerator gen, SerializerProvider serializers)
+                throws IOException, JsonProcessingException {
+            gen.writeStartObject(value);
+            writeObject("from", value.getFrom(), gen, serializers);
+            writeObject("to", value.getTo(), gen, serializers);
+            gen.writeNumberField("distanceMeters", value.getDistanceMeters());
+            gen.writeNumberField("durationSeconds", value.getDurationSeconds());
+            List<RouteSegment> segments = value.getSegments();
+            if (segments != null) {
+                gen.writeFieldName("segments");
+                gen.writeStartArray();
+                for (RouteSegment segment : segments)
+                    writeValue(segment, segmentSerializer, gen, serializers);
+                gen.writeEndArray();
+            }
+            writeString("id", value.getId().orElse(null), gen);
+            writeString("startTime", value.getStartTime(), gen);
+            writeString("endTime", value.getEndTime(), gen);
+            writeString("optimizedFor", value.getOptimizedFor().orElse(null), gen);
+            writeField("boundingBox", value.getBoundingBox().orElse(null), featureSerializer, gen, serializers);
+            writeString("simplifiedGeometryEncodedPolyLine", value.getSimplifiedGeometryEncodedPolyLine().orElse(null),
+                    gen);
+            writeField("simplifiedGeometryGeoJson", value.getSimplifiedGeometryGeoJson().orElse(null),
+                    featureSerializer, gen, serializers);
+            writeObject("additionalInfo", value.getAdditionalInfo(), gen, serializers);
+            gen.writeEndObject();
+        }
+
+    }
+
+    public static class RouteSegmentSerializer extends JsonSerializer<RouteSegment> {
+
+        private final GeoJSONFeatureSerializer featureSerializer = new GeoJSONFeatureSerializer();
+        private final GeoJSONFeatureCollectionSerializer featureCollectionSerializer =
+                new GeoJSONFeatureCollectionSerializer();
+
+        @Override
+        public void serialize(RouteSegment value, JsonGenerator gen, SerializerProvider serializers)
+                throws IOException, JsonProcessingException {
+            gen.writeStartObject(value);
+            gen.writeNumberField("nr", value.getNr());
+            writeObject("from", value.getFrom(), gen, serializers);
+            writeObject("to", value.getTo(), gen, serializers);
+            gen.writeNumberField("distanceMeters", value.getDistanceMeters());
+            gen.writeNumberField("durationSeconds", value.getDurationSeconds());
+            writeObject("modeOfTransport", value.getModeOfTransport(), gen, serializers);
+            if (value.getBoardingSeconds().isPresent())
+                gen.writeNumberField("boardingSeconds", value.getBoardingSeconds().get());
+            if (value.getAlightingSeconds().isPresent())
+                gen.writeNumberField("alightingSeconds", value.getAlightingSeconds().get());
+            writeString("startTime", value.getStartTime(), gen);
+            writeString("endTime", value.getEndTime(), gen);
+            writeObject("intermediateStops", value.getIntermediateStops(), gen, serializers);
+            writeField("boundingBox", value.getBoundingBox().orElse(null), featureSerializer, gen, serializers);
+            writeString("geometryEncodedPolyLine", value.getGeometryEncodedPolyLine().orElse(null), gen);
+            // values captured by the LazyParsingModule are written without parsing them
+            if (!writeRaw("geometryGeoJson", value.getRawGeometryGeoJson(), gen))
+                writeField("geometryGeoJson", value.getGeometryGeoJson().orElse(null), featureSerializer, gen,
+                        serializers);
+            if (!writeRaw("geometryGeoJsonEdges", value.getRawGeometryGeoJsonEdges(), gen))
+                writeField("geometryGeoJsonEdges", value.getGeometryGeoJsonEdges().orElse(null),
+                        featureCollectionSerializer, gen, serializers);
+            if (!writeRaw("navigationInstructions", value.getRawNavigationInstructions(), gen))
+                writeInstructions(value.getNavigationInstructions(), gen, serializers);
+            writeObject("accessibility", value.getAccessibility(), gen, serializers);
+            writeObject("additionalInfo", value.getAdditionalInfo(), gen, serializers);
+            gen.writeEndObject();
+        }
+
+        private static void writeInstructions(List<Instruction<?>> instructions, JsonGenerator gen,
+                SerializerProvider serializers) throws IOException {
+            if (instructions == null)
+                return;
+            // instructions are polymorphic, i.e. each one needs its type id
+            gen.writeFieldName("navigationInstructions");
+            gen.writeStartArray();
+            for (Instruction<?> instruction : instructions) {
+                if (instruction == null)
+                    gen.writeNull();
+                else
+                    serializers.findTypedValueSerializer(instruction.getClass(), true, null).serialize(instruction,
+                            gen, serializers);
+            }
+            gen.writeEndArray();
+        }
+
+    }
+
+    // -- helpers for properties with Include.NON_ABSENT
+
+    private static void writeString(String fieldName, String value, JsonGenerator gen) throws IOException {
+        if (value != null)
+            gen.writeStringField(fieldName, value);
+    }
+
+    /** writes the value with the default serializer for its runtime type */
+    private static void writeObject(String fieldName, Object value, JsonGenerator gen,
+            SerializerProvider serializers) throws IOException {
+        if (value != null)
+            serializers.defaultSerializeField(fieldName, value, gen);
+    }
+
+    private static <T> void writeField(String fieldName, T value, JsonSerializer<? super T> serializer,
+            JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(fieldName);
+            serializer.serialize(value, gen, serializers);
+        }
+    }
+
+    private static boolean writeRaw(String fieldName, Optional<? extends RawJsonValue<?>> raw, JsonGenerator gen)
+            throws IOException {
+        if (!raw.isPresent())
+            return false;
+        gen.writeFieldName(fieldName);
+        raw.get().serialize(gen);
+        return true;
+    }
+
+    private static <T> void writeValue(T value, JsonSerializer<? super T> serializer, JsonGenerator gen,
+            SerializerProvider serializers) throws IOException {
+        if (value == null)
+            gen.writeNull();
+        else
+            serializer.serialize(value, gen, serializers);
+    }
+
+}
@@ -275,14 +275,13 @@ public class RouteSegmentMerger {
 
         // adapt geometry & length
         merged.setTo(b.getTo());
-        GeoJSONFeature<GeoJSONLineString> newlineString = GeoJSONFeature.createLineStringFeature(new ArrayList<>());
+        List<GeoJSONLineString> lineStrings = new ArrayList<>();
         List<GeoJSONFeature<GeoJSONLineString>> newGeometryGeoJsonEdges = new ArrayList<>();
         for (RouteSegment routeSegment : new RouteSegment[] { a, b }) {
-            routeSegment.getGeometryGeoJson().ifPresent(
-                    g -> newlineString.getGeometry().getCoordinates().addAll(g.getGeometry().getCoordinates()));
+            routeSegment.getGeometryGeoJson().ifPresent(g -> lineStrings.add(g.getGeometry()));
             routeSegment.getGeometryGeoJsonEdges().ifPresent(g -> newGeometryGeoJsonEdges.addAll(g.getFeatures()));
         }
-        merged.setGeometryGeoJson(newlineString);
+        merged.setGeometryGeoJson(GeoJSONFeature.createLineStringFeature(GeoJSONLineString.concat(lineStrings)));
         if (!newGeometryGeoJsonEdges.isEmpty()) {
             merged.setGeometryGeoJsonEdges(GeoJSONFeatureCollection.create(newGeometryGeoJsonEdges));
         }
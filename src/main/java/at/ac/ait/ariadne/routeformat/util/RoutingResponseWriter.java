@@ -0,0 +1,213 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.base.Preconditions;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+
+/**
+ * Writes a {@link RoutingResponse} incrementally to an {@link OutputStream},
+ * so that the first routes can be sent while later ones are still being
+ * calculated and a complete response never has to be kept in memory:
+ *
+ * <pre>
+ * try (RoutingResponseWriter writer = new RoutingResponseWriter(out)) {
+ *     writer.writeHeader(response); // without routes
+ *     writer.writeRoute(route); // a complete route
+ *     writer.startRoute(otherRoute); // without segments
+ *     writer.writeSegment(segment);
+ *     writer.endRoute();
+ * } // finishes the document
+ * </pre>
+ *
+ * The output is the same as for writing the complete response at once.
+ * Properties that are written before the routes (segments) are taken from the
+ * response (route) when calling {@link #writeHeader(RoutingResponse)} (
+ * {@link #startRoute(Route)}), the properties after the routes (segments) when
+ * closing the response (route). So e.g. the end time or the bounding box of a
+ * route can still be set after its segments were written, but the distance and
+ * duration (which are written before the segments) must be known beforehand.
+ * <p>
+ * By default the output is flushed after each route / segment (see
+ * {@link SerializationFeature#FLUSH_AFTER_WRITE_VALUE}). Instances are not
+ * thread-safe.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public class RoutingResponseWriter implements Closeable {
+
+    private static final String ROUTES = "routes";
+    private static final String SEGMENTS = "segments";
+
+    private enum State {
+        START, ROUTES, SEGMENTS, CLOSED
+    }
+
+    private final ObjectWriter responseWriter, routeWriter, segmentWriter;
+    private final JsonGenerator gen;
+    private State state = State.START;
+    private RoutingResponse response;
+    private Route route;
+
+    /**
+     * Creates a writer for compact JSON with the default configuration of
+     * {@link RouteFormatMapper}
+     */
+    public RoutingResponseWriter(OutputStream out) throws IOException {
+        this(out, RouteFormatMapper.getDefault().getWriter());
+    }
+
+    /**
+     * @param writer
+     *            a writer with the desired configuration, e.g. from
+     *            {@link RouteFormatMapper#getPrettyWriter()}
+     */
+    public RoutingResponseWriter(OutputStream out, ObjectWriter writer) throws IOException {
+        this.responseWriter = writer.forType(RoutingResponse.class);
+        this.routeWriter = writer.forType(Route.class);
+        this.segmentWriter = writer.forType(RouteSegment.class);
+        this.gen = writer.createGenerator(out);
+    }
+
+    /**
+     * Writes all properties of the response up to its routes, the remaining
+     * properties are written on {@link #close()}.
+     *
+     * @param response
+     *            a response without routes
+     */
+    public RoutingResponseWriter writeHeader(RoutingResponse response) throws IOException {
+        Preconditions.checkState(state == State.START, "header was already written");
+        Preconditions.checkArgument(response.getRoutes().isEmpty(), "routes must be written separately");
+        this.response = response;
+        gen.writeStartObject();
+        copyFields(serialize(responseWriter, response), ROUTES, true);
+        gen.writeFieldName(ROUTES);
+        gen.writeStartArray();
+        gen.flush();
+        state = State.ROUTES;
+        return this;
+    }
+
+    /**
+     * Writes a complete route
+     */
+    public RoutingResponseWriter writeRoute(Route route) throws IOException {
+        Preconditions.checkState(state == State.ROUTES,
+                "routes can only be written after the header and between routes");
+        routeWriter.writeValue(gen, route);
+        return this;
+    }
+
+    /**
+     * Writes all properties of the route up to its segments, the remaining
+     * properties are written on {@link #endRoute()}.
+     *
+     * @param route
+     *            a route without segments
+     */
+    public RoutingResponseWriter startRoute(Route route) throws IOException {
+        Preconditions.checkState(state == State.ROUTES,
+                "routes can only be written after the header and between routes");
+        Preconditions.checkArgument(route.getSegments().isEmpty(), "segments must be written separately");
+        this.route = route;
+        gen.writeStartObject();
+        copyFields(serialize(routeWriter, route), SEGMENTS, true);
+        gen.writeFieldName(SEGMENTS);
+        gen.writeStartArray();
+        gen.flush();
+        state = State.SEGMENTS;
+        return this;
+    }
+
+    /**
+     * Writes a segment of the route started with {@link #startRoute(Route)}
+     */
+    public RoutingResponseWriter writeSegment(RouteSegment segment) throws IOException {
+        Preconditions.checkState(state == State.SEGMENTS, "segments can only be written after starting a route");
+        segmentWriter.writeValue(gen, segment);
+        return this;
+    }
+
+    /**
+     * Finishes the route started with {@link #startRoute(Route)}. Properties
+     * after the segments are taken from the current state of the route.
+     */
+    public RoutingResponseWriter endRoute() throws IOException {
+        Preconditions.checkState(state == State.SEGMENTS, "no route was started");
+        gen.writeEndArray();
+        copyFields(serialize(routeWriter, route), SEGMENTS, false);
+        gen.writeEndObject();
+        gen.flush();
+        route = null;
+        state = State.ROUTES;
+        return this;
+    }
+
+    /**
+     * Finishes the response (and a route that is still open) and closes the
+     * underlying stream. Properties after the routes are taken from the current
+     * state of the response.
+     */
+    @Override
+    public void close() throws IOException {
+        if (state == State.CLOSED)
+            return;
+        if (state == State.SEGMENTS)
+            endRoute();
+        if (state == State.ROUTES) {
+            gen.writeEndArray();
+            copyFields(serialize(responseWriter, response), ROUTES, false);
+            gen.writeEndObject();
+        }
+        state = State.CLOSED;
+        gen.close();
+    }
+
+    private TokenBuffer serialize(ObjectWriter writer, Object value) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(gen.getCodec(), false);
+        writer.writeValue(buffer, value);
+        return buffer;
+    }
+
+    /**
+     * Copies the fields of the serialized object either before or after the
+     * given field (which itself is never copied).
+     */
+    private void copyFields(TokenBuffer buffer, String splitField, boolean before) throws IOException {
+        try (JsonParser p = buffer.asParser()) {
+            p.nextToken(); // START_OBJECT
+            boolean copy = before;
+            for (JsonToken t = p.nextToken(); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                if (splitField.equals(p.currentName())) {
+                    if (before)
+                        return;
+                    p.nextToken();
+                    p.skipChildren();
+                    copy = true;
+                    continue;
+                }
+                if (copy) {
+                    gen.copyCurrentEvent(p);
+                    p.nextToken();
+                    gen.copyCurrentStructure(p);
+                } else {
+                    p.nextToken();
+                    p.skipChildren();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,333 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * A deeply immutable, compact and thread-safe snapshot of a route format
+ * object (typically a {@link at.ac.ait.ariadne.routeformat.RoutingResponse}
+ * or {@link at.ac.ait.ariadne.routeformat.Route}), e.g. for a cache that is
+ * shared between request threads. Snapshots can be written as JSON and read
+ * through an untyped view by any number of threads without copying or
+ * locking.
+ * <p>
+ * The model classes are mutable beans by design, so a snapshot stores the
+ * binary encoding of the object (see {@link RouteFormatMapper#getBinary()}),
+ * which is typically about a third of the compact JSON: there are no
+ * {@link java.util.Optional} wrappers and repeated property names and strings
+ * (e.g. modes of transport or street names) are shared. The hash code is
+ * cached.
+ * <p>
+ * Snapshots are read without creating model objects through an immutable
+ * view of the JSON data model ({@link #getRoot()}, {@link #get(Object...)}
+ * and the typed variants), which is decoded once on first access: objects
+ * are {@link ImmutableMap}s, arrays are immutable lists, numbers keep their
+ * exact representation (e.g. {@link java.math.BigDecimal} coordinates), and
+ * equal strings as well as equal objects and arrays without nested objects or
+ * arrays (e.g. coordinates or modes of transport) are shared within the
+ * snapshot. JSON <code>null</code> properties are omitted from objects.
+ * <p>
+ * {@link #writeJson(OutputStream)} streams the snapshot as JSON without
+ * creating objects again. The output is the same as serializing the original
+ * object with {@link RouteFormatMapper#getDefault()} (including the exact
+ * representation of coordinates).
+ * <p>
+ * A snapshot is not a model object: code working with the model API (e.g.
+ * getters, {@link at.ac.ait.ariadne.routeformat.Routes} or ranking of routes)
+ * needs {@link #thaw()}, which decodes a complete new mutable copy on every
+ * call and therefore costs about as much as a deep copy of the object. So
+ * snapshots replace deep copies for passing shared responses through (as
+ * JSON, in the binary encoding or via the view), but not for model API
+ * access. Callers that need model objects should thaw once and keep the
+ * copy for as long as they use it.
+ *
+ * @author AIT Austrian Institute of Technology GmbH
+ */
+public final class Snapshot<T> {
+
+    private final Class<T> type;
+    private final byte[] encoded;
+    /** cached, zero if not calculated yet (as in {@link String#hashCode()}) */
+    private int hash;
+    /** decoded on first access, see {@link #getRoot()} */
+    private volatile Map<String, Object> root;
+
+    private Snapshot(Class<T> type, byte[] encoded) {
+        this.type = type;
+        this.encoded = encoded;
+    }
+
+    /**
+     * Creates a snapshot of the current state of the value. Later changes of
+     * the value do not affect the snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Snapshot<T> of(T value) {
+        Preconditions.checkNotNull(value, "value is mandatory");
+        return of(value, (Class<T>) value.getClass());
+    }
+
+    /**
+     * @param type
+     *            the type used for writing and reading the value, e.g. a
+     *            super type
+     */
+    public static <T> Snapshot<T> of(T value, Class<T> type) {
+        Preconditions.checkNotNull(value, "value is mandatory");
+        try {
+            return new Snapshot<>(type, RouteFormatMapper.getBinary().getWriter(type).writeValueAsBytes(value));
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not encode " + type.getSimpleName(), e);
+        }
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return the size of the encoded snapshot in bytes
+     */
+    public int size() {
+        return encoded.length;
+    }
+
+    /**
+     * @return the immutable view of the snapshot, values are
+     *         {@link ImmutableMap}s (JSON objects), immutable {@link List}s
+     *         (arrays), {@link String}s, {@link Number}s or {@link Boolean}s
+     */
+    public Map<String, Object> getRoot() {
+        Map<String, Object> result = root;
+        if (result == null) {
+            // decoding twice in a race is harmless, the result is immutable
+            result = decodeView();
+            root = result;
+        }
+        return result;
+    }
+
+    /**
+     * @param path
+     *            property names (for objects) and indices (for arrays), e.g.
+     *            <code>get("routes", 0, "segments", 2, "distanceMeters")</code>
+     * @return the value at the path or empty if the path does not exist
+     */
+    public Optional<Object> get(Object... path) {
+        Object value = getRoot();
+        for (Object element : path) {
+            if (value instanceof Map && element instanceof String) {
+                value = ((Map<?, ?>) value).get(element);
+            } else if (value instanceof List && element instanceof Integer) {
+                List<?> list = (List<?>) value;
+                int index = (Integer) element;
+                value = index >= 0 && index < list.size() ? list.get(index) : null;
+            } else {
+                return Optional.empty();
+            }
+        }
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * @return the string at the path (see {@link #get(Object...)}) or empty if
+     *         it does not exist or is not a string
+     */
+    public Optional<String> getString(Object... path) {
+        return get(path).filter(String.class::isInstance).map(String.class::cast);
+    }
+
+    /**
+     * @return the number at the path (see {@link #get(Object...)}) or empty if
+     *         it does not exist or is not a number
+     */
+    public Optional<Number> getNumber(Object... path) {
+        return get(path).filter(Number.class::isInstance).map(Number.class::cast);
+    }
+
+    /**
+     * @return the array at the path (see {@link #get(Object...)}) or an empty
+     *         list if it does not exist or is not an array
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> getList(Object... path) {
+        return get(path).filter(List.class::isInstance).map(v -> (List<Object>) v).orElse(ImmutableList.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> decodeView() {
+        try (JsonParser p = RouteFormatMapper.getBinary().getFactory().createParser(encoded)) {
+            p.nextToken();
+            Object value = decode(p, new HashMap<>());
+            Preconditions.checkState(value instanceof Map, "snapshot of %s is not a JSON object", type);
+            return (Map<String, Object>) value;
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not decode " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * @param shared
+     *            canonical instances of strings and leaf values within the
+     *            snapshot
+     */
+    private static Object decode(JsonParser p, Map<Object, Object> shared) throws IOException {
+        switch (p.currentToken()) {
+        case START_OBJECT: {
+            ImmutableMap.Builder<String, Object> builder = ImmutableMap.builder();
+            boolean leaf = true;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+                Object value = decode(p, shared);
+                leaf &= !(value instanceof Map || value instanceof List);
+                if (value != null)
+                    builder.put(name, value);
+            }
+            ImmutableMap<String, Object> map = builder.build();
+            return leaf ? share(map, shared) : map;
+        }
+        case START_ARRAY: {
+            List<Object> values = new ArrayList<>();
+            boolean leaf = true, containsNull = false;
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                Object value = decode(p, shared);
+                leaf &= !(value instanceof Map || value instanceof List);
+                containsNull |= value == null;
+                values.add(value);
+            }
+            List<Object> list = containsNull ? Collections.unmodifiableList(Arrays.asList(values.toArray()))
+                    : ImmutableList.copyOf(values);
+            return leaf ? share(list, shared) : list;
+        }
+        case VALUE_STRING:
+            return share(p.getText(), shared);
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            return p.getNumberValue();
+        case VALUE_TRUE:
+            return Boolean.TRUE;
+        case VALUE_FALSE:
+            return Boolean.FALSE;
+        case VALUE_EMBEDDED_OBJECT:
+            return p.getEmbeddedObject();
+        default:
+            return null;
+        }
+    }
+
+    private static Object share(Object value, Map<Object, Object> shared) {
+        Object existing = shared.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    /**
+     * @return a new mutable object with the state of the snapshot, which is
+     *         decoded completely on each call (prefer {@link #get(Object...)}
+     *         or {@link #writeJson(OutputStream)} where possible)
+     */
+    public T thaw() {
+        try {
+            return RouteFormatMapper.getBinary().getReader(type).readValue(encoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not decode " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Writes the snapshot as compact JSON, the stream is not closed
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator gen = RouteFormatMapper.getDefault().getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            writeJson(gen);
+        }
+    }
+
+    /**
+     * Writes the snapshot as JSON value to the generator, e.g. as part of a
+     * larger document or with a pretty printer
+     */
+    public void writeJson(JsonGenerator gen) throws IOException {
+        try (JsonParser p = RouteFormatMapper.getBinary().getFactory().createParser(encoded)) {
+            RouteFormatMapper.transcode(p, gen);
+        }
+    }
+
+    /**
+     * @return the snapshot as compact JSON
+     */
+    public String toJson() {
+        StringWriter writer = new StringWriter(encoded.length * 4);
+        try (JsonGenerator gen = RouteFormatMapper.getDefault().getFactory().createGenerator(writer)) {
+            writeJson(gen);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not write " + type.getSimpleName(), e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the snapshot in the binary encoding of
+     * {@link RouteFormatMapper#getBinary()} without any conversion, the stream
+     * is not closed
+     */
+    public void writeBinary(OutputStream out) throws IOException {
+        out.write(encoded);
+    }
+
+    /**
+     * @return a copy of the snapshot in the binary encoding of
+     *         {@link RouteFormatMapper#getBinary()}
+     */
+    public byte[] toBinary() {
+        return encoded.clone();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = 31 * type.hashCode() + Arrays.hashCode(encoded);
+            hash = result;
+        }
+        return result;
+    }
+
+    /**
+     * Snapshots are equal if their types and encoded states are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        Snapshot<?> other = (Snapshot<?>) obj;
+        return type.equals(other.type) && hashCode() == other.hashCode() && Arrays.equals(encoded, other.encoded);
+    }
+
+    @Override
+    public String toString() {
+        return "Snapshot [type=" + type.getSimpleName() + ", size=" + encoded.length + "]";
+    }
+
+}
@@ -1,25 +1,21 @@
 package at.ac.ait.ariadne.routeformat.util;
 
-import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.base.Preconditions;
 
 import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
 import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Route;
 import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.geojson.Envelope;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
@@ -33,19 +29,30 @@ public class Utils {
     public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
 
     /**
+     * Timestamps in the format of {@link #FORMATTER} are parsed without
+     * {@link DateTimeFormatter} (see {@link EpochTime#parse(CharSequence)}),
+     * other ISO-8601 timestamps with {@link ZonedDateTime#parse(CharSequence)}
+     *
      * @return a ZonedDateTime with seconds accuracy
      */
     public static ZonedDateTime parseDateTime(String dateTimeString, String variableName) {
+        return parseEpochTime(dateTimeString, variableName).toZonedDateTime();
+    }
+    
+    /**
+     * @return an {@link EpochTime} with seconds accuracy
+     */
+    public static EpochTime parseEpochTime(String dateTimeString, String variableName) {
         if (dateTimeString == null)
             throw new IllegalArgumentException(variableName + " must not be null");
 
         try {
-            return ZonedDateTime.parse(dateTimeString).truncatedTo(ChronoUnit.SECONDS);
+            return EpochTime.parse(dateTimeString);
         } catch (DateTimeParseException e) {
             throw new IllegalArgumentException(variableName + " could not be parsed: " + e.getMessage());
         }
     }
-    
+
     public static String getDateTimeString(ZonedDateTime time) {
         return FORMATTER.format(time);
     }
@@ -74,6 +81,18 @@ public class Utils {
         return true;
     }
 
+    /**
+     * @return <code>true</code> if 'between' is really between (or equal) to
+     *         start and end
+     */
+    public static boolean isBetween(EpochTime start, Optional<EpochTime> between, EpochTime end) {
+        if (between.isPresent()) {
+            if (start.isAfter(between.get()) || end.isBefore(between.get()))
+                return false;
+        }
+        return true;
+    }
+
     /**
      * @param modesOfTransport
      *            a comma-separated list of MOTs
@@ -99,40 +118,48 @@ public class Utils {
     }
 
     public static String getJsonString(Object object) throws JsonProcessingException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.findAndRegisterModules();
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        return mapper.writeValueAsString(object);
+        return RouteFormatMapper.getDefault().getPrettyWriter().writeValueAsString(object);
     }
 
+    /**
+     * @return the bounding box of the geometries ({@link RouteSegment#getGeometryGeoJson()} and
+     *         {@link RouteSegment#getGeometryGeoJsonEdges()}) of all segments, which is combined from the
+     *         segment envelopes (see {@link RouteSegment#getEnvelope()})
+     */
     public static Optional<GeoJSONFeature<GeoJSONPolygon>> getBoundingBoxFromGeometryGeoJson(
             List<RouteSegment> segments) {
-        BigDecimal minX = null, maxX = null, minY = null, maxY = null;
+        return getEnvelope(segments).map(Envelope::toBoundingBox);
+    }
+
+    /**
+     * @return the envelope of the geometries of all segments
+     */
+    public static Optional<Envelope> getEnvelope(List<RouteSegment> segments) {
+        Envelope envelope = null;
         for (RouteSegment segment : segments) {
-            if (segment.getGeometryGeoJson().isPresent()) {
-                for (GeoJSONCoordinate xy : segment.getGeometryGeoJson().get().getGeometry().getCoordinates()) {
-                    if (minX == null || minX.compareTo(xy.getX()) > 0)
-                        minX = xy.getX();
-                    if (maxX == null || maxX.compareTo(xy.getX()) < 0)
-                        maxX = xy.getX();
-                    if (minY == null || minY.compareTo(xy.getY()) > 0)
-                        minY = xy.getY();
-                    if (maxY == null || maxY.compareTo(xy.getY()) < 0)
-                        maxY = xy.getY();
-                }
-            }
+            Optional<Envelope> segmentEnvelope = segment.getEnvelope();
+            if (segmentEnvelope.isPresent())
+                envelope = envelope == null ? segmentEnvelope.get() : envelope.union(segmentEnvelope.get());
         }
+        return Optional.ofNullable(envelope);
+    }
 
-        if (minX == null || maxX == null || minY == null || maxY == null)
-            return Optional.empty();
-
-        List<GeoJSONCoordinate> outerRing = new ArrayList<>();
-        outerRing.add(GeoJSONCoordinate.create(minX, minY));
-        outerRing.add(GeoJSONCoordinate.create(minX, maxY));
-        outerRing.add(GeoJSONCoordinate.create(maxX, maxY));
-        outerRing.add(GeoJSONCoordinate.create(maxX, minY));
-        outerRing.add(GeoJSONCoordinate.create(minX, minY));
-        return Optional.of(GeoJSONFeature.createPolygonFeatureFromRings(outerRing, Collections.emptyList()));
+    /**
+     * Sets the bounding box of the route and all its segments from their
+     * geometries. Bounding boxes that are already set are not overwritten.
+     */
+    public static void fillBoundingBoxes(Route route) {
+        Envelope envelope = null;
+        for (RouteSegment segment : route.getSegments()) {
+            Optional<Envelope> segmentEnvelope = segment.getEnvelope();
+            if (!segmentEnvelope.isPresent())
+                continue;
+            if (!segment.getBoundingBox().isPresent())
+                segment.setBoundingBox(segmentEnvelope.get().toBoundingBox());
+            envelope = envelope == null ? segmentEnvelope.get() : envelope.union(segmentEnvelope.get());
+        }
+        if (envelope != null && !route.getBoundingBox().isPresent())
+            route.setBoundingBox(envelope.toBoundingBox());
     }
 
     /**
@@ -0,0 +1,144 @@
+package at.ac.ait.ariadne.routeformat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Constants.DetailedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.example.SyntheticCorpusWriter;
+import at.ac.ait.ariadne.routeformat.example.SyntheticRouteGenerator;
+
+public class RouteTableTest {
+
+    private static final int RESPONSES = 50;
+
+    private static List<Route> createRoutes() {
+        return new SyntheticRouteGenerator(7).setAlternatives(3).createResponses(0, RESPONSES)
+                .flatMap(r -> r.getRoutes().stream()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void sameAggregatesAsRoutesTest() {
+        List<Route> routes = createRoutes();
+        RouteTable table = new RouteTable();
+        routes.forEach(table::add);
+        Assert.assertEquals(routes.size(), table.getRouteCount());
+        Assert.assertEquals(routes.stream().mapToInt(r -> r.getSegments().size()).sum(), table.getSegmentCount());
+
+        long[] distances = table.sumDistanceMetersByGeneralizedType();
+        long[] durations = table.sumDurationSecondsByGeneralizedType(table.allRoutes());
+        for (GeneralizedModeOfTransportType type : GeneralizedModeOfTransportType.values()) {
+            Assert.assertEquals(routes.stream().mapToLong(r -> Routes.getTotalDistanceMetersForMot(r, type)).sum(),
+                    distances[type.ordinal()]);
+            Assert.assertEquals(routes.stream().mapToLong(r -> Routes.getTotalDurationSecondsForMot(r, type)).sum(),
+                    durations[type.ordinal()]);
+        }
+        long[] detailedDistances = table.sumDistanceMetersByDetailedType(table.allRoutes());
+        for (DetailedModeOfTransportType type : DetailedModeOfTransportType.values())
+            Assert.assertEquals(routes.stream().mapToLong(r -> Routes.getTotalDistanceMetersForMot(r, type)).sum(),
+                    detailedDistances[type.ordinal()]);
+
+        int[] changes = table.countChanges();
+        BitSet intermodal = table.filterIntermodalRoutes();
+        BitSet publicTransport = table.filterRoutesFeaturing(GeneralizedModeOfTransportType.PUBLIC_TRANSPORT);
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            Assert.assertEquals(Routes.countChanges(route), changes[i]);
+            Assert.assertEquals(Routes.isIntermodal(route), intermodal.get(i));
+            Assert.assertEquals(Routes.featuresMot(route, GeneralizedModeOfTransportType.PUBLIC_TRANSPORT),
+                    publicTransport.get(i));
+            Assert.assertEquals(route.getStartTimeAsEpochTime().getEpochSecond(), table.getRouteStartEpochSecond(i));
+            Assert.assertEquals(route.getSegments().size(), table.getLastSegment(i) - table.getFirstSegment(i));
+        }
+
+        BitSet longRoutes = table.filterRoutes(r -> table.getRouteDistanceMeters(r) > 5000);
+        Assert.assertEquals(routes.stream().filter(r -> r.getDistanceMeters() > 5000).count(),
+                longRoutes.cardinality());
+        Assert.assertEquals(
+                routes.stream().filter(r -> r.getDistanceMeters() > 5000).mapToLong(Route::getDistanceMeters).sum(),
+                table.sumRouteDistanceMeters(longRoutes));
+    }
+
+    @Test
+    public void readJsonTest() throws IOException {
+        SyntheticRouteGenerator generator = new SyntheticRouteGenerator(7).setAlternatives(3);
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        new SyntheticCorpusWriter(generator).write(ndjson, RESPONSES);
+        RouteTable parsed = new RouteTable().readJson(new ByteArrayInputStream(ndjson.toByteArray()));
+
+        RouteTable added = new RouteTable();
+        createRoutes().forEach(added::add);
+        Assert.assertEquals(added.getRouteCount(), parsed.getRouteCount());
+        Assert.assertEquals(added.getSegmentCount(), parsed.getSegmentCount());
+        for (int i = 0; i < added.getSegmentCount(); i++) {
+            Assert.assertEquals(added.getStartEpochSecond(i), parsed.getStartEpochSecond(i));
+            Assert.assertEquals(added.getEndEpochSecond(i), parsed.getEndEpochSecond(i));
+            Assert.assertEquals(added.getDistanceMeters(i), parsed.getDistanceMeters(i));
+            Assert.assertEquals(added.getBoardingSeconds(i), parsed.getBoardingSeconds(i));
+            Assert.assertEquals(added.getGeneralizedType(i), parsed.getGeneralizedType(i));
+            Assert.assertEquals(added.getDetailedType(i), parsed.getDetailedType(i));
+        }
+        for (int i = 0; i < added.getRouteCount(); i++) {
+            Assert.assertEquals(added.getFirstSegment(i), parsed.getFirstSegment(i));
+            Assert.assertEquals(added.getRouteDurationSeconds(i), parsed.getRouteDurationSeconds(i));
+            Assert.assertEquals(added.getRouteEndEpochSecond(i), parsed.getRouteEndEpochSecond(i));
+        }
+    }
+
+    @Test
+    public void failedResponseIsRolledBackTest() throws IOException {
+        SyntheticRouteGenerator generator = new SyntheticRouteGenerator(7).setAlternatives(3);
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        new SyntheticCorpusWriter(generator).write(ndjson, 2);
+        String[] lines = ndjson.toString("UTF-8").split("\n");
+        // the last route of the response fails after some segments were read
+        int last = lines[0].lastIndexOf("\"generalizedType\"");
+        String broken = lines[0].substring(0, last)
+                + lines[0].substring(last).replaceFirst("\"generalizedType\"\\s*:\\s*\"[A-Z_]+\"",
+                        "\"generalizedType\":\"TELEPORTATION\"");
+
+        RouteTable expected = new RouteTable().readJson(new ByteArrayInputStream(lines[1].getBytes("UTF-8")));
+        RouteTable table = new RouteTable();
+        try {
+            table.readJson(new ByteArrayInputStream(broken.getBytes("UTF-8")));
+            Assert.fail("unknown generalizedType must not be accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        Assert.assertEquals(0, table.getRouteCount());
+        Assert.assertEquals(0, table.getSegmentCount());
+
+        table.readJson(new ByteArrayInputStream(lines[1].getBytes("UTF-8")));
+        Assert.assertEquals(expected.getRouteCount(), table.getRouteCount());
+        Assert.assertEquals(expected.getSegmentCount(), table.getSegmentCount());
+        for (int i = 0; i < expected.getRouteCount(); i++) {
+            Assert.assertEquals(expected.getFirstSegment(i), table.getFirstSegment(i));
+            Assert.assertEquals(expected.getLastSegment(i), table.getLastSegment(i));
+        }
+        Assert.assertArrayEquals(expected.countChanges(), table.countChanges());
+    }
+
+    @Test
+    public void intermodalExampleTest() throws IOException {
+        Route route = new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0);
+        List<Route> routes = new ArrayList<>();
+        routes.add(route);
+        routes.add(Route.createFromSegments(route.getSegments().subList(0, 1)));
+        RouteTable table = new RouteTable();
+        routes.forEach(table::add);
+        Assert.assertEquals(Routes.countChanges(route), table.countChanges()[0]);
+        Assert.assertEquals(2, table.filterRoutesFeaturing(route.getSegments().get(0).getModeOfTransport()
+                .getGeneralizedType()).cardinality());
+        Assert.assertEquals(1, table.filterIntermodalRoutes().cardinality());
+    }
+
+}
@@ -2,8 +2,12 @@ package at.ac.ait.ariadne.routeformat;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Optional;
 
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -118,4 +122,101 @@ public class RoutesTest {
         Assert.assertFalse("more mots not OK as well", Routes.featuresExactlyTheseDetailedMots(intermodalRoute, types));
     }
 
+    @Test
+    public void testSummaryCaching() {
+        Route route = Route.createFromSegments(intermodalRoute.getSegments());
+        RouteSummary summary = route.getSummary();
+        Assert.assertSame(summary, route.getSummary());
+        Assert.assertEquals(intermodalRoute.getSegments().size(), summary.getSegmentCount());
+        Assert.assertEquals(route.getDistanceMeters(), Arrays.stream(GeneralizedModeOfTransportType.values())
+                .mapToInt(summary::getDistanceMeters).sum());
+        Assert.assertTrue(Routes.featuresDetailedMotsOtherThan(route, Arrays.asList(DetailedModeOfTransportType.FOOT)));
+        Assert.assertFalse(Routes.featuresGeneralizedMotsOtherThan(route,
+                Arrays.asList(GeneralizedModeOfTransportType.values())));
+
+        int changes = Routes.countChanges(route);
+        route.getSegments().add(intermodalRouteExample.getCarSharingSegment());
+        Assert.assertNotSame(summary, route.getSummary());
+        Assert.assertEquals(changes + 1, Routes.countChanges(route));
+
+        route.getSegments().set(0, intermodalRouteExample.getCarSharingSegment());
+        Assert.assertEquals(changes + 2, Routes.countChanges(route));
+
+        route.setSegments(Arrays.asList(intermodalRouteExample.getFootSegment()));
+        Assert.assertFalse(Routes.isIntermodal(route));
+        Assert.assertEquals(-1, Routes.countChanges(route));
+        Assert.assertEquals(0, Routes.getWaitingSecondsForPublicTransport(route));
+    }
+
+    @Test
+    public void testSummaryCachingWithListOperations() {
+        Route route = Route.createFromSegments(intermodalRoute.getSegments());
+        RouteSegment carSharing = intermodalRouteExample.getCarSharingSegment();
+        GeneralizedModeOfTransportType car = carSharing.getModeOfTransport().getGeneralizedType();
+        int carDistance = Routes.getTotalDistanceMetersForMot(route, car);
+
+        route.getSegments().subList(0, 1).set(0, carSharing);
+        Assert.assertEquals(RouteSummary.of(route.getSegments()).getDistanceMeters(car),
+                Routes.getTotalDistanceMetersForMot(route, car));
+        Assert.assertNotEquals(carDistance, Routes.getTotalDistanceMetersForMot(route, car));
+
+        ListIterator<RouteSegment> iterator = route.getSegments().listIterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.set(intermodalRouteExample.getFootSegment());
+        }
+        Assert.assertFalse(Routes.isIntermodal(route));
+
+        List<RouteSegment> many = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            many.add(i % 2 == 0 ? carSharing : intermodalRouteExample.getFootSegment());
+        route.setSegments(many);
+        int changes = Routes.countChanges(route);
+        Collections.reverse(route.getSegments());
+        Assert.assertEquals(intermodalRouteExample.getFootSegment(), route.getSegments().get(0));
+        Assert.assertEquals(changes, Routes.countChanges(route));
+        route.getSegments().subList(0, 10).clear();
+        Assert.assertEquals(10, route.getSummary().getSegmentCount());
+    }
+
+    @Test
+    public void testSummaryCachingWithSegmentModifications() throws IOException {
+        Route route = new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0);
+        Route shared = Route.createFromSegments(route.getSegments().subList(0, 3));
+        GeneralizedModeOfTransportType foot = GeneralizedModeOfTransportType.FOOT;
+        RouteSegment first = Routes.getFirstSegmentWithMot(route, foot).get();
+        int changes = Routes.countChanges(route);
+        int sharedChanges = Routes.countChanges(shared);
+
+        first.setModeOfTransport(ModeOfTransport.STANDARD_CAR);
+        Assert.assertNotSame(first, Routes.getFirstSegmentWithMot(route, foot).orElse(null));
+        Assert.assertEquals(changes + 1, Routes.countChanges(route));
+        Assert.assertEquals(sharedChanges + 1, Routes.countChanges(shared));
+        Assert.assertEquals(Arrays.asList(first),
+                Routes.getSegmentsWithMot(route, DetailedModeOfTransportType.CAR).subList(0, 1));
+
+        int distance = Routes.getTotalDistanceMetersForMot(route, GeneralizedModeOfTransportType.CAR);
+        first.setDistanceMeters(first.getDistanceMeters() + 100);
+        Assert.assertEquals(distance + 100,
+                Routes.getTotalDistanceMetersForMot(route, GeneralizedModeOfTransportType.CAR));
+
+        // removed segments do not affect the route anymore
+        route.getSegments().remove(first);
+        RouteSummary summary = route.getSummary(), sharedSummary = shared.getSummary();
+        first.setModeOfTransport(ModeOfTransport.STANDARD_FOOT);
+        Assert.assertSame(summary, route.getSummary());
+        Assert.assertNotSame(sharedSummary, shared.getSummary());
+        Assert.assertEquals(sharedChanges, Routes.countChanges(shared));
+
+        // modifying the mode of transport object itself is detected when looking up the segment
+        RouteSegment bicycle = Routes.getFirstSegmentWithMot(route, GeneralizedModeOfTransportType.BICYCLE).get();
+        bicycle.setModeOfTransport(ModeOfTransport.createMinimal(DetailedModeOfTransportType.BICYCLE));
+        Assert.assertSame(bicycle, Routes.getFirstSegmentWithMot(route, GeneralizedModeOfTransportType.BICYCLE).get());
+        bicycle.getModeOfTransport().setDetailedType(DetailedModeOfTransportType.CAR)
+                .setGeneralizedType(GeneralizedModeOfTransportType.CAR);
+        Optional<RouteSegment> found = Routes.getFirstSegmentWithMot(route, GeneralizedModeOfTransportType.BICYCLE);
+        Assert.assertTrue(!found.isPresent() || found.get().getModeOfTransport()
+                .getGeneralizedType() == GeneralizedModeOfTransportType.BICYCLE);
+    }
+
 }
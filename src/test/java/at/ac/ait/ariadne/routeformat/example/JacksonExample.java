@@ -9,6 +9,7 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
 import com.fasterxml.jackson.module.jsonSchema.factories.SchemaFactoryWrapper;
@@ -19,6 +20,7 @@ import at.ac.ait.ariadne.routeformat.Operator;
 import at.ac.ait.ariadne.routeformat.RoutingResponse;
 import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
 import at.ac.ait.ariadne.routeformat.instruction.Instruction;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatMapper;
 import scala.Option;
 
 /**
@@ -42,11 +44,12 @@ public class JacksonExample {
     public static final String exampleFile = "src/main/resources/ariadne-json-route-format_example.json";
     public static final String exampleUnknownAttributesFile = "src/main/resources/operator-with-unknown-fields.json";
 
+    private final RouteFormatMapper routeFormatMapper = RouteFormatMapper.getDefault();
+    /** only required for schema generation */
     private ObjectMapper mapper;
 
     public JacksonExample() {
-        mapper = new ObjectMapper();
-        mapper.findAndRegisterModules();
+        mapper = RouteFormatMapper.createObjectMapper();
         mapper.enable(SerializationFeature.INDENT_OUTPUT);
     }
 
@@ -62,14 +65,15 @@ public class JacksonExample {
     public void writeExampleJson() throws JsonGenerationException, JsonMappingException, IOException {
         RoutingResponse root = new IntermodalRouteExample().getRoutingResponse();
 
-        System.out.println(mapper.writeValueAsString(root));
+        ObjectWriter writer = routeFormatMapper.getPrettyWriter(RoutingResponse.class);
+        System.out.println(writer.writeValueAsString(root));
         System.out.println("##########");
-        mapper.writeValue(new File(exampleFile), root);
+        writer.writeValue(new File(exampleFile), root);
     }
 
     public void readExampleJson() throws JsonParseException, JsonMappingException, IOException {
         // variant 1 - data binding
-        RoutingResponse root = mapper.readValue(new File(exampleFile), RoutingResponse.class);
+        RoutingResponse root = routeFormatMapper.getReader(RoutingResponse.class).readValue(new File(exampleFile));
         Status status = root.getStatus();
         GeoJSONCoordinate secondGeometryPointOfRoute = root.getRoutes().get(0).getSegments().get(0).getGeometryGeoJson()
                 .get().getGeometry().getCoordinates().get(1);
@@ -79,7 +83,7 @@ public class JacksonExample {
         System.out.println("##########");
 
         // variant 2 - tree model
-        JsonNode rootNode = mapper.readValue(new File(exampleFile), JsonNode.class);
+        JsonNode rootNode = routeFormatMapper.getReader(JsonNode.class).readValue(new File(exampleFile));
         System.out.println(rootNode.get("status").asText());
         System.out.println(rootNode.get("routes").get(0).get("segments").get(0).get("geometryGeoJson").get("geometry")
                 .get("coordinates").get(1));
@@ -88,11 +92,9 @@ public class JacksonExample {
     }
 
     public void readFileWithUnkownAttributes() throws JsonParseException, JsonMappingException, IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.findAndRegisterModules();
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        Operator operator = mapper.readValue(new File(exampleUnknownAttributesFile), Operator.class);
+        Operator operator = routeFormatMapper.getReader(Operator.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(new File(exampleUnknownAttributesFile));
         System.out.println(operator);
         System.out.println("##########");
     }
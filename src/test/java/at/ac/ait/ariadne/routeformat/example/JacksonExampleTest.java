@@ -2,10 +2,16 @@ package at.ac.ait.ariadne.routeformat.example;
 
 import java.io.IOException;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
 
 public class JacksonExampleTest {
 
@@ -18,4 +24,27 @@ public class JacksonExampleTest {
         JacksonExample.main(new String[0]);
     }
 
+    /**
+     * Parsing the generated .json must result in exactly the same geometries
+     * (including the scale of all coordinates)
+     */
+    @Test
+    public void testGeometryRoundTrip() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        RoutingResponse original = new IntermodalRouteExample().getRoutingResponse();
+        RoutingResponse parsed = mapper.readValue(mapper.writeValueAsString(original), RoutingResponse.class);
+        for (int i = 0; i < original.getRoutes().size(); i++) {
+            Route originalRoute = original.getRoutes().get(i), parsedRoute = parsed.getRoutes().get(i);
+            Assert.assertEquals(originalRoute.getBoundingBox(), parsedRoute.getBoundingBox());
+            for (int j = 0; j < originalRoute.getSegments().size(); j++) {
+                RouteSegment originalSegment = originalRoute.getSegments().get(j);
+                RouteSegment parsedSegment = parsedRoute.getSegments().get(j);
+                Assert.assertEquals(originalSegment.getGeometryGeoJson(), parsedSegment.getGeometryGeoJson());
+                Assert.assertEquals(originalSegment.getGeometryGeoJsonEdges(),
+                        parsedSegment.getGeometryGeoJsonEdges());
+                Assert.assertEquals(originalSegment.getFrom().getCoordinate(), parsedSegment.getFrom().getCoordinate());
+            }
+        }
+    }
+
 }
@@ -0,0 +1,51 @@
+package at.ac.ait.ariadne.routeformat.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.SyntheticCorpusWriter.Format;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatMapper;
+
+public class SyntheticCorpusWriterTest {
+
+    private final SyntheticRouteGenerator generator = new SyntheticRouteGenerator(7).setAlternatives(2)
+            .setPointsPerSegment(10);
+
+    @Test
+    public void ndjsonTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SyntheticCorpusWriter(generator).setFirstIndex(100).write(out, 4);
+        String corpus = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertTrue(corpus.endsWith("\n"));
+        String[] lines = corpus.split("\n");
+        Assert.assertEquals(4, lines.length);
+        for (int i = 0; i < lines.length; i++)
+            Assert.assertEquals(RouteFormatMapper.getDefault().getWriter().writeValueAsString(
+                    generator.createResponse(100 + i)), lines[i]);
+    }
+
+    @Test
+    public void binaryTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SyntheticCorpusWriter(generator).setFormat(Format.BINARY).write(out, 3);
+        RouteFormatMapper json = RouteFormatMapper.getDefault();
+        int count = 0;
+        try (MappingIterator<RoutingResponse> responses = RouteFormatMapper.getBinary()
+                .getReader(RoutingResponse.class).readValues(new ByteArrayInputStream(out.toByteArray()))) {
+            while (responses.hasNext()) {
+                Assert.assertEquals(json.getWriter().writeValueAsString(generator.createResponse(count++)),
+                        json.getWriter().writeValueAsString(responses.next()));
+            }
+        }
+        Assert.assertEquals(3, count);
+    }
+
+}
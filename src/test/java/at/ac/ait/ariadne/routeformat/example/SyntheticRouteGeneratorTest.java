@@ -0,0 +1,45 @@
+package at.ac.ait.ariadne.routeformat.example;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.util.RouteFormatMapper;
+
+public class SyntheticRouteGeneratorTest {
+
+    @Test
+    public void deterministicTest() throws JsonProcessingException {
+        RouteFormatMapper mapper = RouteFormatMapper.getDefault();
+        String first = mapper.getWriter().writeValueAsString(new SyntheticRouteGenerator(42).createResponse(7));
+        String second = mapper.getWriter().writeValueAsString(new SyntheticRouteGenerator(42).createResponse(7));
+        String otherIndex = mapper.getWriter().writeValueAsString(new SyntheticRouteGenerator(42).createResponse(8));
+        String otherSeed = mapper.getWriter().writeValueAsString(new SyntheticRouteGenerator(43).createResponse(7));
+        Assert.assertEquals(first, second);
+        Assert.assertNotEquals(first, otherIndex);
+        Assert.assertNotEquals(first, otherSeed);
+    }
+
+    @Test
+    public void configurationTest() {
+        SyntheticRouteGenerator generator = new SyntheticRouteGenerator(1).setAlternatives(2).setSegmentsPerRoute(7)
+                .setPointsPerSegment(20).setInstructionsPerSegment(3).setIntermediateStopsPerSegment(4)
+                .setAdditionalInfoEntries(5);
+        for (long index = 0; index < 20; index++) {
+            RoutingResponse response = generator.createResponse(index);
+            response.validate();
+            Assert.assertEquals(2, response.getRoutes().size());
+            for (Route route : response.getRoutes()) {
+                route.validate(true);
+                Assert.assertEquals(7, route.getSegments().size());
+                Assert.assertEquals(5, route.getAdditionalInfo().size());
+                route.getSegments().forEach(s -> Assert.assertEquals(20,
+                        s.getGeometryGeoJson().get().getGeometry().getCoordinates().size()));
+            }
+        }
+    }
+
+}
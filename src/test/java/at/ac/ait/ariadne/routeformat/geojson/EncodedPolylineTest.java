@@ -0,0 +1,71 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.TestUtil;
+
+public class EncodedPolylineTest {
+
+    /** example of the format specification */
+    private static final GeoJSONLineString REFERENCE = GeoJSONLineString.create(Arrays.asList(
+            GeoJSONCoordinate.create("-120.2", "38.5"), GeoJSONCoordinate.create("-120.95", "40.7"),
+            GeoJSONCoordinate.create("-126.453", "43.252")));
+    private static final String REFERENCE_ENCODED = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+    @Test
+    public void referenceTest() throws Exception {
+        Assert.assertEquals(REFERENCE_ENCODED, EncodedPolyline.encode(REFERENCE));
+        GeoJSONLineString decoded = EncodedPolyline.decode(REFERENCE_ENCODED);
+        Assert.assertEquals(REFERENCE, decoded);
+        Assert.assertEquals("{\"type\":\"LineString\",\"coordinates\":[[-120.2,38.5],[-120.95,40.7],[-126.453,43.252]]}",
+                TestUtil.MAPPER.writeValueAsString(decoded));
+    }
+
+    @Test
+    public void precisionTest() {
+        GeoJSONLineString lineString = GeoJSONLineString.create(Arrays.asList(
+                GeoJSONCoordinate.create("16.3746573", "48.2093722"), GeoJSONCoordinate.create("16.369045", "48.2267"),
+                GeoJSONCoordinate.create("16.3695", "48.2243")));
+        GeoJSONLineString expected5 = GeoJSONLineString.create(Arrays.asList(
+                GeoJSONCoordinate.create("16.37466", "48.20937"), GeoJSONCoordinate.create("16.36905", "48.2267"),
+                GeoJSONCoordinate.create("16.3695", "48.2243")));
+        Assert.assertEquals(expected5, EncodedPolyline.decode(EncodedPolyline.encode(lineString)));
+        GeoJSONLineString expected6 = GeoJSONLineString.create(Arrays.asList(
+                GeoJSONCoordinate.create("16.374657", "48.209372"), GeoJSONCoordinate.create("16.369045", "48.2267"),
+                GeoJSONCoordinate.create("16.3695", "48.2243")));
+        String encoded6 = EncodedPolyline.encode(lineString, EncodedPolyline.PRECISION_6);
+        Assert.assertEquals(expected6, EncodedPolyline.decode(encoded6, EncodedPolyline.PRECISION_6));
+        Assert.assertEquals("", EncodedPolyline.encode(new GeoJSONLineString()));
+        Assert.assertTrue(EncodedPolyline.decode("").isEmpty());
+    }
+
+    @Test
+    public void roundingTest() {
+        // exactly half way, 16.369045 * 1e5 as double is slightly below
+        GeoJSONLineString lineString = GeoJSONLineString.create(Arrays.asList(
+                GeoJSONCoordinate.create("16.369045", "-48.000005"), GeoJSONCoordinate.create("1.6369045E+1", "0")));
+        GeoJSONLineString decoded = EncodedPolyline.decode(EncodedPolyline.encode(lineString));
+        Assert.assertEquals(16.36905, decoded.getXAsDouble(0), 0);
+        Assert.assertEquals(-48.00001, decoded.getYAsDouble(0), 0);
+        Assert.assertEquals(16.36905, decoded.getXAsDouble(1), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedPolylineTest() {
+        EncodedPolyline.decode(REFERENCE_ENCODED.substring(0, REFERENCE_ENCODED.length() - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCharacterTest() {
+        EncodedPolyline.decode("_p~iF ps|U");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPrecisionTest() {
+        EncodedPolyline.encode(REFERENCE, 11);
+    }
+
+}
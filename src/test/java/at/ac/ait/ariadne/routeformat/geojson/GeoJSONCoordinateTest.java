@@ -0,0 +1,117 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import at.ac.ait.ariadne.routeformat.TestUtil;
+
+public class GeoJSONCoordinateTest {
+
+    @Test
+    public void keepsDecimalRepresentationTest() throws IOException {
+        String json = "[16.40,48.2562000,-1E+3]";
+        GeoJSONCoordinate coordinate = TestUtil.MAPPER.readValue(json, GeoJSONCoordinate.class);
+        Assert.assertEquals(new BigDecimal("16.40"), coordinate.getX());
+        Assert.assertEquals(new BigDecimal("48.2562000"), coordinate.getY());
+        Assert.assertEquals(new BigDecimal("-1E+3"), coordinate.getZ().get());
+        Assert.assertEquals(json, TestUtil.MAPPER.writeValueAsString(coordinate));
+    }
+
+    @Test
+    public void parseNumbersTest() throws IOException {
+        String[] numbers = { "0", "-0.0", "16.4007000", "1.5e2", "1.5E-2", "-2E+3", "123456789012345678",
+                "1234567890123456789012345678901234567890", "0.1234567890123456789012345", "1e-500" };
+        for (String number : numbers) {
+            GeoJSONCoordinate coordinate = TestUtil.MAPPER.readValue("[" + number + ",1]", GeoJSONCoordinate.class);
+            Assert.assertEquals(number, new BigDecimal(number), coordinate.getX());
+        }
+    }
+
+    @Test
+    public void parseBufferedTest() throws IOException {
+        // the type property comes last, i.e. the coordinates are buffered
+        String json = "{\"coordinates\":[[1.10,2.0],[3,4,5.00]],\"type\":\"LineString\"}";
+        GeoJSONGeometryObject parsed = TestUtil.MAPPER.readValue(json, GeoJSONGeometryObject.class);
+        Assert.assertEquals(GeoJSONLineString.create(Arrays.asList(GeoJSONCoordinate.create("1.10", "2.0"),
+                GeoJSONCoordinate.create("3", "4", "5.00"))), parsed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyOrdinatesTest() throws Throwable {
+        try {
+            TestUtil.MAPPER.readValue("{\"type\":\"LineString\",\"coordinates\":[[1,2,3,4]]}",
+                    GeoJSONLineString.class);
+        } catch (IOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test
+    public void formatNumbersTest() throws IOException {
+        FixedPointWriter writer = new FixedPointWriter(new JsonFactory().createGenerator(new StringWriter()));
+        long[] unscaledValues = { 0, 1, -1, 9, 10, 123, -1234567, 162563000, Long.MAX_VALUE, Long.MIN_VALUE + 1 };
+        for (long unscaled : unscaledValues) {
+            for (int scale = GeoJSONCoordinate.MIN_FIXED_POINT_SCALE;
+                    scale <= GeoJSONCoordinate.MAX_FIXED_POINT_SCALE; scale++) {
+                String expected = BigDecimal.valueOf(unscaled, scale).toString();
+                Assert.assertEquals(expected, new String(writer.getBuffer(), 0, writer.format(unscaled, scale)));
+            }
+        }
+    }
+
+    @Test
+    public void overflowTest() throws JsonProcessingException {
+        BigDecimal huge = new BigDecimal("123456789012345678901234567890.123456789");
+        GeoJSONCoordinate coordinate = GeoJSONCoordinate.create(huge, BigDecimal.ONE);
+        Assert.assertEquals(huge, coordinate.getX());
+        Assert.assertEquals("[" + huge + ",1]", TestUtil.MAPPER.writeValueAsString(coordinate));
+
+        coordinate.setX(BigDecimal.TEN);
+        Assert.assertEquals(GeoJSONCoordinate.create(BigDecimal.TEN, BigDecimal.ONE), coordinate);
+        Assert.assertEquals(GeoJSONCoordinate.create(BigDecimal.TEN, BigDecimal.ONE).hashCode(), coordinate.hashCode());
+    }
+
+    @Test
+    public void createFromDoubleMatchesFormatTest() {
+        Random random = new Random(42);
+        double[] specialValues = { 0, -0.0, 1e-9, -1e-9, 0.00000005, -0.00000005, 16.12345675, 180, -180, 1e12 };
+        for (double value : specialValues)
+            assertSameAsFormat(value);
+        for (int i = 0; i < 100_000; i++)
+            assertSameAsFormat((random.nextDouble() - 0.5) * 360);
+    }
+
+    private static void assertSameAsFormat(double value) {
+        BigDecimal expected = new BigDecimal(String.format(Locale.US, "%.7f", value));
+        GeoJSONCoordinate coordinate = GeoJSONCoordinate.create(value, value, value);
+        Assert.assertEquals(expected, coordinate.getX());
+        Assert.assertEquals(expected, coordinate.getZ().get());
+        Assert.assertEquals(expected.doubleValue(), coordinate.getXAsDouble(), 0);
+    }
+
+    @Test
+    public void missingValuesTest() {
+        GeoJSONCoordinate coordinate = new GeoJSONCoordinate();
+        Assert.assertNull(coordinate.getX());
+        Assert.assertFalse(coordinate.getZ().isPresent());
+        coordinate.setX(BigDecimal.ONE).setY(BigDecimal.ONE);
+        coordinate.validate();
+        coordinate.setY(null);
+        try {
+            coordinate.validate();
+            Assert.fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 package at.ac.ait.ariadne.routeformat.geojson;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -53,6 +55,54 @@ public class GeoJSONLineStringTest {
         Assert.assertEquals(2.1, subLineString.getCoordinates().get(0).getX().doubleValue(), 0.001);
     }
 
+    @Test
+    public void packedCoordinatesTest() {
+        Assert.assertEquals(4, lineString.size());
+        Assert.assertEquals(1.111, lineString.getXAsDouble(0), 0);
+        Assert.assertEquals(4.2, lineString.getYAsDouble(3), 0);
+
+        List<GeoJSONCoordinate> copy = new ArrayList<>(lineString.getCoordinates());
+        Assert.assertEquals(copy, lineString.getCoordinates());
+        Assert.assertEquals(lineString.getCoordinates(), copy);
+        Assert.assertEquals(copy.hashCode(), lineString.getCoordinates().hashCode());
+        Assert.assertEquals(copy.subList(1, 3).hashCode(), lineString.subLineString(1, 3).getCoordinates().hashCode());
+        Assert.assertEquals(GeoJSONLineString.create(copy.subList(0, 2)), lineString.subLineString(0, 2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyCoordinatesTest() {
+        lineString.getCoordinates().add(GeoJSONCoordinate.create("1", "2"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyCoordinateTest() {
+        lineString.getCoordinates().get(0).setX(BigDecimal.ONE);
+    }
+
+    @Test
+    public void modifiedCopyTest() {
+        List<GeoJSONCoordinate> coordinates = new ArrayList<>();
+        for (GeoJSONCoordinate coordinate : lineString.getCoordinates())
+            coordinates.add(coordinate.copy());
+        Assert.assertFalse(coordinates.get(0).isReadOnly());
+        Assert.assertEquals(lineString.getCoordinates().get(0), coordinates.get(0));
+        coordinates.get(0).setX(BigDecimal.ONE);
+        GeoJSONLineString modified = GeoJSONLineString.create(coordinates);
+        Assert.assertEquals(1, modified.getXAsDouble(0), 0);
+        Assert.assertEquals(1.111, lineString.getXAsDouble(0), 0);
+    }
+
+    @Test
+    public void concatTest() throws JsonProcessingException {
+        GeoJSONLineString concatenated = GeoJSONLineString
+                .concat(Arrays.asList(lineString.subLineString(0, 2), lineString.subLineString(2, 4)));
+        Assert.assertEquals(lineString, concatenated);
+        Assert.assertEquals(expectedJson, TestUtil.MAPPER.writeValueAsString(concatenated));
+
+        concatenated = GeoJSONLineString.concat(Arrays.asList(lineString.subLineString(0, 2), new GeoJSONLineString()));
+        Assert.assertEquals(lineString.subLineString(0, 2), concatenated);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void onlyOneCoordinaateLineStringTest() {
         GeoJSONLineString subLineString = lineString.subLineString(0, 1);
@@ -1,6 +1,7 @@
 package at.ac.ait.ariadne.routeformat.geojson;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -82,4 +83,18 @@ public class GeoJSONPolygonTest {
                 polygon.toWKT());
     }
 
+    @Test
+    public void mutableRingsTest() throws IOException {
+        GeoJSONPolygon parsedPolygon = TestUtil.MAPPER.readValue(expectedJson, GeoJSONPolygon.class);
+        parsedPolygon.getCoordinates().get(0).get(1).setX(new BigDecimal("2.5"));
+        parsedPolygon.getCoordinates().get(0).add(GeoJSONCoordinate.create("1.1", "1.2"));
+        Assert.assertEquals("Polygon ((1.1 1.2, 2.5 2.2, 3.1 3.2, 1.1 1.2, 1.1 1.2))", parsedPolygon.toWKT());
+
+        // rings taken from a line string (with read-only coordinates) are copied
+        GeoJSONLineString lineString = GeoJSONLineString.create(polygon.getCoordinates().get(0));
+        GeoJSONPolygon fromLineString = GeoJSONPolygon.create(Arrays.asList(lineString.getCoordinates()));
+        fromLineString.getCoordinates().get(0).get(0).setY(new BigDecimal("1.5"));
+        Assert.assertEquals("1.2", lineString.getCoordinates().get(0).getY().toPlainString());
+    }
+
 }
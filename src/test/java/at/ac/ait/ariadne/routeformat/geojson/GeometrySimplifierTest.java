@@ -0,0 +1,110 @@
+package at.ac.ait.ariadne.routeformat.geojson;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.geojson.GeometrySimplifier.Algorithm;
+
+public class GeometrySimplifierTest {
+
+    /** roughly 1 meter in latitude */
+    private static final double METER = 1 / 111195.0;
+
+    private static GeoJSONLineString createRandomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        List<GeoJSONCoordinate> coordinates = new ArrayList<>(size);
+        double x = 16.37, y = 48.21;
+        for (int i = 0; i < size; i++) {
+            coordinates.add(GeoJSONCoordinate.create(BigDecimal.valueOf(x).setScale(7, RoundingMode.HALF_UP),
+                    BigDecimal.valueOf(y).setScale(7, RoundingMode.HALF_UP)));
+            x += (random.nextDouble() - 0.3) * 20 * METER;
+            y += (random.nextDouble() - 0.4) * 20 * METER;
+        }
+        return GeoJSONLineString.create(coordinates);
+    }
+
+    @Test
+    public void straightLineTest() {
+        GeoJSONLineString line = GeoJSONLineString.create(Arrays.asList(GeoJSONCoordinate.create("16.37", "48.21"),
+                GeoJSONCoordinate.create("16.371", "48.2100001"), GeoJSONCoordinate.create("16.372", "48.21", "5.5"),
+                GeoJSONCoordinate.create("16.373", "48.2103")));
+        for (Algorithm algorithm : Algorithm.values()) {
+            GeoJSONLineString simplified = new GeometrySimplifier().setAlgorithm(algorithm).simplify(line);
+            Assert.assertEquals(algorithm.toString(), GeoJSONLineString.create(Arrays.asList(line.getCoordinates()
+                    .get(0), line.getCoordinates().get(2), line.getCoordinates().get(3))), simplified);
+        }
+        GeoJSONLineString unchanged = new GeometrySimplifier().setToleranceMeters(0).simplify(line);
+        Assert.assertEquals(line, unchanged);
+    }
+
+    @Test
+    public void douglasPeuckerToleranceTest() {
+        GeoJSONLineString walk = createRandomWalk(2000, 42);
+        double tolerance = 15;
+        GeoJSONLineString simplified = new GeometrySimplifier().setToleranceMeters(tolerance).simplify(walk);
+        Assert.assertTrue(simplified.size() < walk.size() / 4);
+        Assert.assertEquals(walk.getCoordinates().get(0), simplified.getCoordinates().get(0));
+        Assert.assertEquals(walk.getCoordinates().get(walk.size() - 1),
+                simplified.getCoordinates().get(simplified.size() - 1));
+
+        // every removed coordinate is within the tolerance of its simplified section
+        int section = 0;
+        for (int i = 0; i < walk.size(); i++) {
+            if (walk.getCoordinates().get(i).equals(simplified.getCoordinates().get(section + 1))
+                    && section + 2 < simplified.size()) {
+                section++;
+                continue;
+            }
+            double distance = distanceMeters(walk, i, simplified, section);
+            Assert.assertTrue("distance " + distance + " at " + i, distance <= tolerance * 1.01);
+        }
+    }
+
+    @Test
+    public void maxPointsTest() {
+        GeoJSONLineString walk = createRandomWalk(1000, 7);
+        for (Algorithm algorithm : Algorithm.values()) {
+            GeometrySimplifier simplifier = new GeometrySimplifier().setAlgorithm(algorithm).setToleranceMeters(0)
+                    .setMaxPoints(50);
+            GeoJSONLineString simplified = simplifier.simplify(walk);
+            Assert.assertEquals(algorithm.toString(), 50, simplified.size());
+            Assert.assertEquals(2, simplifier.setMaxPoints(2).simplify(walk).size());
+            Assert.assertTrue(simplifier.setMaxPoints(2000).simplify(walk).size() == walk.size());
+        }
+        GeoJSONLineString visvalingam = new GeometrySimplifier().setAlgorithm(Algorithm.VISVALINGAM_WHYATT)
+                .setToleranceMeters(15).simplify(walk);
+        Assert.assertTrue(visvalingam.size() < walk.size() / 4);
+    }
+
+    @Test
+    public void concatenatedSegmentsTest() {
+        GeoJSONLineString walk = createRandomWalk(500, 3);
+        GeometrySimplifier simplifier = new GeometrySimplifier();
+        Assert.assertEquals(simplifier.simplify(walk),
+                simplifier.simplify(Arrays.asList(walk.subLineString(0, 200), walk.subLineString(200, 500))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMaxPointsTest() {
+        new GeometrySimplifier().setMaxPoints(1);
+    }
+
+    private static double distanceMeters(GeoJSONLineString walk, int index, GeoJSONLineString simplified,
+            int section) {
+        double xFactor = Math.cos(Math.toRadians(48.21));
+        double px = walk.getXAsDouble(index) * xFactor, py = walk.getYAsDouble(index);
+        double ax = simplified.getXAsDouble(section) * xFactor, ay = simplified.getYAsDouble(section);
+        double bx = simplified.getXAsDouble(section + 1) * xFactor, by = simplified.getYAsDouble(section + 1);
+        double dx = bx - ax, dy = by - ay, length = dx * dx + dy * dy;
+        double t = length == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / length));
+        return Math.hypot(px - ax - t * dx, py - ay - t * dy) / METER;
+    }
+
+}
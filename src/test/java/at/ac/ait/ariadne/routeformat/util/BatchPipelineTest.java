@@ -0,0 +1,78 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.SyntheticCorpusWriter;
+import at.ac.ait.ariadne.routeformat.example.SyntheticRouteGenerator;
+import at.ac.ait.ariadne.routeformat.util.BatchPipeline.Result;
+import at.ac.ait.ariadne.routeformat.util.BatchPipeline.Stage;
+
+public class BatchPipelineTest {
+
+    private static final int RESPONSES = 40;
+
+    private static byte[] createCorpus() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SyntheticCorpusWriter(new SyntheticRouteGenerator(3)).write(out, RESPONSES);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void orderPreservedTest() throws IOException {
+        byte[] corpus = createCorpus();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Result result = BatchPipeline.forResponses().setParallelism(4).setMaxDocumentsInFlight(3)
+                .runNdjson(new ByteArrayInputStream(corpus), out);
+
+        Assert.assertEquals(RESPONSES, result.getWritten());
+        Assert.assertTrue(result.getFailures().isEmpty());
+        Assert.assertEquals(RESPONSES, result.getCount(Stage.VALIDATE));
+        Assert.assertTrue(result.getTime(Stage.PARSE, TimeUnit.NANOSECONDS) > 0);
+        // the synthetic corpus is written in the same way as the pipeline output
+        Assert.assertArrayEquals(corpus, out.toByteArray());
+    }
+
+    @Test
+    public void failuresAndTransformTest() throws IOException {
+        List<byte[]> documents = new ArrayList<>();
+        for (String line : new String(createCorpus(), StandardCharsets.UTF_8).split("\n"))
+            documents.add(line.getBytes(StandardCharsets.UTF_8));
+        documents.set(5, "{\"requestId\":".getBytes(StandardCharsets.UTF_8));
+        documents.set(7, "{\"requestId\":\"invalid\"}".getBytes(StandardCharsets.UTF_8));
+
+        List<Long> indices = new ArrayList<>();
+        Iterator<byte[]> source = documents.iterator();
+        Result result = BatchPipeline.forResponses().setParallelism(3).setPreserveOrder(false)
+                .setTransform(r -> r.getRequestId().endsWith("1") ? null : r.setDebugMessage("transformed"))
+                .run(source, (index, document) -> {
+                    indices.add(index);
+                    RoutingResponse response = RouteFormatMapper.getDefault().getReader(RoutingResponse.class)
+                            .readValue(document);
+                    Assert.assertEquals("transformed", response.getDebugMessage().get());
+                });
+
+        Assert.assertEquals(2, result.getFailures().size());
+        Assert.assertEquals(5, result.getFailures().get(0).getIndex());
+        Assert.assertEquals(Stage.PARSE, result.getFailures().get(0).getStage());
+        Assert.assertEquals(7, result.getFailures().get(1).getIndex());
+        Assert.assertEquals(Stage.VALIDATE, result.getFailures().get(1).getStage());
+        Assert.assertEquals(4, result.getDropped());
+        Assert.assertEquals(RESPONSES - 6, result.getWritten());
+        Assert.assertEquals(RESPONSES - 6, indices.size());
+        for (Long skipped : Arrays.asList(1L, 5L, 7L, 11L))
+            Assert.assertFalse(indices.contains(skipped));
+    }
+
+}
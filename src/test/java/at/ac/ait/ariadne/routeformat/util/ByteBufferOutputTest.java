@@ -0,0 +1,93 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.SyntheticRouteGenerator;
+
+public class ByteBufferOutputTest {
+
+    private static final RoutingResponse RESPONSE = new SyntheticRouteGenerator(13).setAlternatives(3)
+            .createResponse(0);
+
+    private static byte[] expected(Object value) throws IOException {
+        return RouteFormatMapper.getDefault().getWriter(value.getClass()).writeValueAsBytes(value);
+    }
+
+    private static byte[] concat(ByteBuffer[] buffers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (ByteBuffer buffer : buffers) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void pooledChunksTest() throws IOException {
+        ByteBufferPool pool = new ByteBufferPool(1024, 100, true);
+        byte[] expected = expected(RESPONSE);
+        ByteBufferOutput out = RouteFormatMapper.getDefault().writeValue(RESPONSE, new ByteBufferOutput(pool));
+        Assert.assertEquals(expected.length, out.size());
+        ByteBuffer[] buffers = out.getBuffers();
+        Assert.assertEquals((expected.length + 1023) / 1024, buffers.length);
+        Assert.assertTrue(buffers[0].isDirect());
+        Assert.assertArrayEquals(expected, concat(buffers));
+
+        out.release();
+        Assert.assertEquals(buffers.length, pool.getPooled());
+        out = RouteFormatMapper.getDefault().writeValue(RESPONSE, new ByteBufferOutput(pool));
+        Assert.assertEquals(0, pool.getPooled());
+        Assert.assertArrayEquals(expected, concat(out.getBuffers()));
+    }
+
+    @Test
+    public void suppliedBufferTest() throws IOException {
+        Route route = RESPONSE.getRoutes().get(0);
+        byte[] expected = expected(route);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length + 10);
+        buffer.put((byte) '#');
+        ByteBufferOutput out = RouteFormatMapper.getDefault().writeValue(route, new ByteBufferOutput(buffer, null));
+        Assert.assertEquals(expected.length + 1, buffer.position());
+        Assert.assertEquals(1, out.getBuffers().length);
+        Assert.assertArrayEquals(expected, concat(out.getBuffers()));
+
+        // overflowing into pooled chunks
+        ByteBufferPool pool = new ByteBufferPool(512, 0, false);
+        buffer = ByteBuffer.allocateDirect(100);
+        out = RouteFormatMapper.getDefault().writeValue(route, new ByteBufferOutput(buffer, pool));
+        Assert.assertFalse(buffer.hasRemaining());
+        Assert.assertArrayEquals(expected, concat(out.getBuffers()));
+        out.release();
+        Assert.assertEquals(0, pool.getPooled());
+    }
+
+    @Test(expected = IOException.class)
+    public void overflowTest() throws IOException {
+        RouteFormatMapper.getDefault().writeValue(RESPONSE, new ByteBufferOutput(ByteBuffer.allocate(100), null));
+    }
+
+    @Test
+    public void channelTest() throws IOException {
+        byte[] expected = expected(RESPONSE);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        RouteFormatMapper.getDefault().writeValue(RESPONSE, Channels.newChannel(streamed));
+        Assert.assertArrayEquals(expected, streamed.toByteArray());
+
+        ByteBufferOutput out = RouteFormatMapper.getDefault().writeValue(RESPONSE,
+                new ByteBufferOutput(ByteBufferPool.getDirect()));
+        ByteArrayOutputStream gathered = new ByteArrayOutputStream();
+        Assert.assertEquals(expected.length, out.writeTo(Channels.newChannel(gathered)));
+        Assert.assertArrayEquals(expected, gathered.toByteArray());
+        out.release();
+    }
+
+}
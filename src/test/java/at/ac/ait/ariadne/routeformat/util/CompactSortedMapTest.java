@@ -0,0 +1,79 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactSortedMapTest {
+
+    @Test
+    public void sameBehaviourAsTreeMapTest() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            Map<String, Object> expected = new TreeMap<>();
+            Map<String, Object> actual = new CompactSortedMap<>();
+            for (int i = 0; i < 40; i++) {
+                String key = "k" + random.nextInt(15);
+                switch (random.nextInt(4)) {
+                case 0:
+                    Assert.assertEquals(expected.remove(key), actual.remove(key));
+                    break;
+                case 1:
+                    Assert.assertEquals(expected.get(key), actual.get(key));
+                    Assert.assertEquals(expected.containsKey(key), actual.containsKey(key));
+                    break;
+                default:
+                    Assert.assertEquals(expected.put(key, i), actual.put(key, i));
+                }
+                Assert.assertEquals(expected.size(), actual.size());
+            }
+            Assert.assertEquals(expected, actual);
+            Assert.assertEquals(actual, expected);
+            Assert.assertEquals(expected.hashCode(), actual.hashCode());
+            Assert.assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void iteratorTest() {
+        Map<String, Object> map = new CompactSortedMap<>();
+        map.put("c", 3);
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("d", null);
+        Assert.assertEquals("{a=1, b=2, c=3, d=null}", map.toString());
+
+        Iterator<Entry<String, Object>> iterator = map.entrySet().iterator();
+        iterator.next().setValue(10);
+        iterator.next();
+        iterator.remove();
+        Assert.assertEquals("{a=10, c=3, d=null}", map.toString());
+
+        map.keySet().remove("c");
+        map.values().remove(null);
+        Assert.assertEquals("{a=10}", map.toString());
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void switchToTreeTest() {
+        Map<String, Object> map = new CompactSortedMap<>();
+        for (int i = CompactSortedMap.MAX_ARRAY_SIZE + 5; i > 0; i--)
+            map.put("key" + (char) ('a' + i), i);
+        Assert.assertEquals(CompactSortedMap.MAX_ARRAY_SIZE + 5, map.size());
+        Assert.assertEquals(new TreeMap<>(map).toString(), map.toString());
+        Assert.assertEquals("keyb", map.keySet().iterator().next());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullKeyTest() {
+        new CompactSortedMap<String, Object>().put(null, 1);
+    }
+
+}
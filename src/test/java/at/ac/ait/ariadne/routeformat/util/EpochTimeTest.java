@@ -0,0 +1,96 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EpochTimeTest {
+
+    @Test
+    public void sameOutputAsFormatterTest() {
+        Random random = new Random(42);
+        ZoneId[] zones = { ZoneOffset.UTC, ZoneOffset.ofHours(-5), ZoneOffset.ofHoursMinutes(5, 45),
+                ZoneId.of("Europe/Vienna"), ZoneId.of("America/St_Johns") };
+        for (int i = 0; i < 10000; i++) {
+            // 1950 to 2100 (without historic offsets with seconds)
+            long epochSecond = -631152000L + Math.floorMod(random.nextLong(), 4733596800L);
+            ZonedDateTime expected = ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond),
+                    zones[random.nextInt(zones.length)]);
+            EpochTime time = EpochTime.of(expected);
+            Assert.assertEquals(Utils.FORMATTER.format(expected), time.toString());
+            Assert.assertEquals(expected.withZoneSameInstant(ZoneOffset.ofTotalSeconds(time.getOffsetSeconds())),
+                    EpochTime.parse(time.toString()).toZonedDateTime());
+        }
+    }
+
+    @Test
+    public void parseTest() {
+        EpochTime time = EpochTime.parse("2016-01-01T15:00:00+01:00");
+        Assert.assertEquals(ZonedDateTime.parse("2016-01-01T15:00:00+01:00").toEpochSecond(), time.getEpochSecond());
+        Assert.assertEquals(3600, time.getOffsetSeconds());
+        Assert.assertEquals(EpochTime.parse("2016-01-01T14:00:00Z").getEpochSecond(), time.getEpochSecond());
+        Assert.assertEquals("2016-02-29T23:59:59-03:30", EpochTime.parse("2016-02-29T23:59:59-03:30").toString());
+        Assert.assertEquals("2016-01-01T14:00:00Z", EpochTime.parse("2016-01-01T14:00:00+00:00").toString());
+
+        // other ISO-8601 timestamps are truncated and keep their zone
+        EpochTime zoned = EpochTime.parse("2016-07-01T15:00:00.999+02:00[Europe/Vienna]");
+        Assert.assertEquals(ZoneId.of("Europe/Vienna"), zoned.getZone());
+        Assert.assertEquals("2016-07-01T15:00:00+02:00", zoned.toString());
+        Assert.assertEquals("2016-07-01T15:00:00+02:00", EpochTime.parse("2016-07-01T15:00+02:00").toString());
+    }
+
+    @Test
+    public void parseInvalidTest() {
+        for (String text : new String[] { "2016-02-30T15:00:00+01:00", "2016-01-01T24:00:00+01:00",
+                "2016-01-01T15:00:00+1:00", "2016-01-01 15:00:00+01:00", "2016-01-01T15:00:00" }) {
+            try {
+                EpochTime.parse(text);
+                Assert.fail("expected exception for " + text);
+            } catch (DateTimeParseException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void arithmeticTest() {
+        ZoneId vienna = ZoneId.of("Europe/Vienna");
+        ZonedDateTime beforeDst = ZonedDateTime.of(2016, 3, 27, 1, 30, 0, 0, vienna);
+        EpochTime time = EpochTime.of(beforeDst.plusNanos(5));
+        Assert.assertEquals(beforeDst, time.toZonedDateTime());
+
+        EpochTime later = time.plusSeconds(3600);
+        Assert.assertEquals(beforeDst.plusHours(1), later.toZonedDateTime());
+        Assert.assertEquals("2016-03-27T03:30:00+02:00", later.toString());
+        Assert.assertEquals(3600, time.secondsUntil(later));
+        Assert.assertTrue(time.isBefore(later));
+        Assert.assertTrue(later.isAfter(time));
+        Assert.assertTrue(time.compareTo(later) < 0);
+
+        Assert.assertEquals(time, EpochTime.of(time.getEpochSecond(), vienna));
+        Assert.assertEquals(time.hashCode(), EpochTime.of(time.getEpochSecond(), vienna).hashCode());
+        Assert.assertNotEquals(time, EpochTime.of(time.getEpochSecond(), ZoneOffset.ofHours(1)));
+        Assert.assertEquals(0, time.compareTo(EpochTime.of(time.getEpochSecond(), ZoneOffset.ofHours(1))));
+    }
+
+    @Test
+    public void formatIntoBufferTest() {
+        char[] buffer = new char[3 + EpochTime.MAX_LENGTH];
+        EpochTime time = EpochTime.of(ZonedDateTime.of(1999, 12, 31, 23, 59, 59, 0, ZoneOffset.ofHours(-10)));
+        int length = time.format(buffer, 3);
+        Assert.assertEquals("1999-12-31T23:59:59-10:00", new String(buffer, 3, length));
+
+        // outside of the fixed format
+        EpochTime farFuture = EpochTime
+                .of(ZonedDateTime.of(10000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS));
+        Assert.assertEquals(Utils.FORMATTER.format(farFuture.toZonedDateTime()), farFuture.toString());
+    }
+
+}
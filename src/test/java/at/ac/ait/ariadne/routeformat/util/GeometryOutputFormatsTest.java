@@ -0,0 +1,54 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Constants.OutputFormat;
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.geojson.EncodedPolyline;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.GeometrySimplifier;
+
+public class GeometryOutputFormatsTest {
+
+    @Test
+    public void fillRequestedFormatsTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        GeometryOutputFormats.fill(response);
+        Route route = response.getRoutes().get(0);
+        Assert.assertFalse(route.getSegments().get(0).getGeometryEncodedPolyLine().isPresent());
+        Assert.assertFalse(route.getSimplifiedGeometryEncodedPolyLine().isPresent());
+
+        response.getRequest().get()
+                .setOutputFormats(
+                        Arrays.asList(OutputFormat.ENCODED_POLYLINE, OutputFormat.SIMPLIFIED_ENCODED_POLYLINE,
+                                OutputFormat.SIMPLIFIED_GEOJSON));
+        GeometryOutputFormats.fill(response);
+        for (RouteSegment segment : route.getSegments()) {
+            GeoJSONLineString geometry = segment.getGeometryGeoJson().get().getGeometry();
+            Assert.assertEquals(EncodedPolyline.encode(geometry), segment.getGeometryEncodedPolyLine().get());
+        }
+        GeoJSONLineString simplified = EncodedPolyline.decode(route.getSimplifiedGeometryEncodedPolyLine().get());
+        Assert.assertEquals(EncodedPolyline.encode(route.getSimplifiedGeometryGeoJson().get().getGeometry()),
+                route.getSimplifiedGeometryEncodedPolyLine().get());
+        GeoJSONLineString first = route.getSegments().get(0).getGeometryGeoJson().get().getGeometry();
+        Assert.assertEquals(first.getXAsDouble(0), simplified.getXAsDouble(0), 1e-5);
+        Assert.assertEquals(first.getYAsDouble(0), simplified.getYAsDouble(0), 1e-5);
+    }
+
+    @Test
+    public void existingValuesAreKeptTest() throws IOException {
+        Route route = new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0);
+        route.setSimplifiedGeometryEncodedPolyLine("_p~iF~ps|U");
+        GeometryOutputFormats.fill(route, Arrays.asList(OutputFormat.SIMPLIFIED_ENCODED_POLYLINE),
+                EncodedPolyline.PRECISION_6, new GeometrySimplifier());
+        Assert.assertEquals("_p~iF~ps|U", route.getSimplifiedGeometryEncodedPolyLine().get());
+    }
+
+}
@@ -0,0 +1,79 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Constants.GeneralizedModeOfTransportType;
+import at.ac.ait.ariadne.routeformat.ModeOfTransport;
+import at.ac.ait.ariadne.routeformat.Operator;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class InterningModuleTest {
+
+    private static List<ModeOfTransport> getStandardFoot(RoutingResponse response) {
+        return getModesOfTransport(response, GeneralizedModeOfTransportType.FOOT).stream()
+                .filter(ModeOfTransport.STANDARD_FOOT::equals).collect(Collectors.toList());
+    }
+
+    private static List<ModeOfTransport> getModesOfTransport(RoutingResponse response,
+            GeneralizedModeOfTransportType type) {
+        return response.getRoutes().stream().flatMap(r -> r.getSegments().stream())
+                .map(RouteSegment::getModeOfTransport).filter(m -> m.getGeneralizedType() == type)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void sharedInstancesTest() throws IOException {
+        String json = RouteFormatMapper.getDefault().getWriter()
+                .writeValueAsString(new IntermodalRouteExample().getRoutingResponse());
+        RouteFormatMapper mapper = RouteFormatMapper.create(new InterningModule());
+        RoutingResponse response = mapper.getReader(RoutingResponse.class).readValue(json);
+        Assert.assertEquals(json, mapper.getWriter().writeValueAsString(response));
+
+        List<ModeOfTransport> foot = getStandardFoot(response);
+        Assert.assertTrue(foot.size() > 1);
+        for (ModeOfTransport mot : foot)
+            Assert.assertSame(foot.get(0), mot);
+
+        List<Operator> operators = getModesOfTransport(response, GeneralizedModeOfTransportType.PUBLIC_TRANSPORT)
+                .stream().map(ModeOfTransport::getOperator).filter(Optional::isPresent).map(Optional::get)
+                .collect(Collectors.toList());
+        Assert.assertTrue(operators.size() > 1);
+        for (Operator operator : operators)
+            Assert.assertSame(operators.get(0), operator);
+
+        List<ModeOfTransport> notInterned = getStandardFoot(
+                RouteFormatMapper.getDefault().getReader(RoutingResponse.class).readValue(json));
+        Assert.assertNotSame(notInterned.get(0), notInterned.get(1));
+    }
+
+    @Test
+    public void sharedPoolTest() throws IOException {
+        String json = RouteFormatMapper.getDefault().getWriter()
+                .writeValueAsString(new IntermodalRouteExample().getRoutingResponse());
+        InternPool pool = InternPool.weak();
+        RoutingResponse first = RouteFormatMapper.create(new InterningModule(pool)).getReader(RoutingResponse.class)
+                .readValue(json);
+        RoutingResponse second = RouteFormatMapper.create(new InterningModule(pool)).getReader(RoutingResponse.class)
+                .readValue(json);
+        Assert.assertSame(getStandardFoot(first).get(0), getStandardFoot(second).get(0));
+    }
+
+    @Test
+    public void boundedPoolTest() {
+        InternPool pool = InternPool.bounded(1);
+        String a = new String("a"), otherA = new String("a");
+        Assert.assertSame(a, pool.intern(a));
+        Assert.assertSame(a, pool.intern(otherA));
+        pool.intern("b");
+        Assert.assertSame("evicted", otherA, pool.intern(otherA));
+    }
+
+}
@@ -0,0 +1,97 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+
+public class LazyParsingModuleTest {
+
+    private static final RouteFormatMapper EAGER = RouteFormatMapper.getDefault();
+    private static final RouteFormatMapper LAZY = RouteFormatMapper.create(new LazyParsingModule());
+
+    private static String getExampleJson() throws IOException {
+        return EAGER.getPrettyWriter().writeValueAsString(new IntermodalRouteExample().getRoutingResponse());
+    }
+
+    @Test
+    public void untouchedValuesAreWrittenVerbatimTest() throws IOException {
+        String json = getExampleJson();
+        RoutingResponse response = LAZY.getReader(RoutingResponse.class).readValue(json);
+        RouteSegment segment = response.getRoutes().get(0).getSegments().get(0);
+        Assert.assertTrue(segment.getRawGeometryGeoJson().isPresent());
+        Assert.assertTrue(segment.getRawGeometryGeoJsonEdges().isPresent());
+        Assert.assertTrue(segment.getRawNavigationInstructions().isPresent());
+
+        Assert.assertEquals(json, LAZY.getPrettyWriter().writeValueAsString(response));
+        Assert.assertEquals(json, RouteFormatMapper.create(new RouteFormatModule()).getPrettyWriter()
+                .writeValueAsString(response));
+        Assert.assertTrue("serialization must not parse", segment.getRawGeometryGeoJson().isPresent());
+        Assert.assertEquals(json, EAGER.getPrettyWriter().writeValueAsString(response));
+    }
+
+    @Test
+    public void parsedOnAccessTest() throws IOException {
+        String json = getExampleJson();
+        RoutingResponse eager = EAGER.getReader(RoutingResponse.class).readValue(json);
+        RoutingResponse lazy = LAZY.getReader(RoutingResponse.class).readValue(json);
+        RouteSegment eagerSegment = eager.getRoutes().get(0).getSegments().get(1);
+        RouteSegment lazySegment = lazy.getRoutes().get(0).getSegments().get(1);
+
+        Assert.assertEquals(eagerSegment.getGeometryGeoJson(), lazySegment.getGeometryGeoJson());
+        Assert.assertFalse(lazySegment.getRawGeometryGeoJson().isPresent());
+        Assert.assertEquals(eagerSegment.getNavigationInstructions(), lazySegment.getNavigationInstructions());
+        Assert.assertEquals(eager, lazy);
+    }
+
+    @Test
+    public void concurrentAccessTest() throws Exception {
+        RoutingResponse response = LAZY.getReader(RoutingResponse.class).readValue(getExampleJson());
+        RouteSegment segment = response.getRoutes().get(0).getSegments().get(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<GeoJSONFeature<GeoJSONLineString>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return segment.getGeometryGeoJson().get();
+                }));
+            }
+            start.countDown();
+            GeoJSONFeature<GeoJSONLineString> first = futures.get(0).get();
+            for (Future<GeoJSONFeature<GeoJSONLineString>> future : futures)
+                Assert.assertSame("parsed exactly once", first, future.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void modifiedValuesAreWrittenTest() throws IOException {
+        RoutingResponse response = LAZY.getReader(RoutingResponse.class).readValue(getExampleJson());
+        RouteSegment segment = response.getRoutes().get(0).getSegments().get(0);
+        GeoJSONFeature<GeoJSONLineString> geometry = segment.getGeometryGeoJson().get();
+        geometry.getProperties().put("modified", true);
+        RouteSegment parsed = EAGER.getReader(RouteSegment.class)
+                .readValue(LAZY.getWriter().writeValueAsString(segment));
+        Assert.assertEquals(true, parsed.getGeometryGeoJson().get().getProperties().get("modified"));
+
+        RouteSegment copy = RouteSegment.createShallowCopy(response.getRoutes().get(0).getSegments().get(1));
+        Assert.assertTrue(copy.getRawGeometryGeoJson().isPresent());
+        Assert.assertEquals(response.getRoutes().get(0).getSegments().get(1), copy);
+    }
+
+}
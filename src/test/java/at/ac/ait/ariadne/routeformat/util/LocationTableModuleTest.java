@@ -0,0 +1,59 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class LocationTableModuleTest {
+
+    private static final RouteFormatMapper DEFAULT = RouteFormatMapper.getDefault();
+    private static final RouteFormatMapper TABLE = RouteFormatMapper.create(new LocationTableModule());
+
+    @Test
+    public void roundTripTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        String expected = DEFAULT.getWriter().writeValueAsString(response);
+        String compact = TABLE.getWriter().writeValueAsString(response);
+        Assert.assertTrue(compact.length() < expected.length());
+
+        JsonNode tree = DEFAULT.getReader(JsonNode.class).readValue(compact);
+        Assert.assertTrue(tree.get(LocationTableModule.LOCATION_TABLE).isArray());
+        JsonNode firstSegment = tree.get("routes").get(0).get("segments").get(0);
+        Assert.assertTrue(firstSegment.get("from").isInt());
+        Assert.assertEquals(tree.get("routes").get(0).get("from"), firstSegment.get("from"));
+
+        RoutingResponse parsed = TABLE.getReader(RoutingResponse.class).readValue(compact);
+        Assert.assertEquals(expected, DEFAULT.getWriter().writeValueAsString(parsed));
+        Assert.assertEquals(compact, TABLE.getWriter().writeValueAsString(parsed));
+
+        Route route = parsed.getRoutes().get(0);
+        Assert.assertSame(route.getFrom(), route.getSegments().get(0).getFrom());
+        Assert.assertSame(route.getSegments().get(0).getTo(), route.getSegments().get(1).getFrom());
+    }
+
+    @Test
+    public void locationsOutsideOfResponsesTest() throws IOException {
+        Route route = new IntermodalRouteExample().getRoutingResponse().getRoutes().get(0);
+        String json = DEFAULT.getWriter().writeValueAsString(route);
+        Assert.assertEquals(json, TABLE.getWriter().writeValueAsString(route));
+        Assert.assertEquals(json, TABLE.getWriter().writeValueAsString(TABLE.getReader(Route.class).readValue(json)));
+    }
+
+    @Test(expected = JsonProcessingException.class)
+    public void referenceWithoutTableTest() throws IOException {
+        String compact = TABLE.getWriter().writeValueAsString(new IntermodalRouteExample().getRoutingResponse());
+        ObjectNode tree = DEFAULT.getReader(ObjectNode.class).readValue(compact);
+        tree.remove(LocationTableModule.LOCATION_TABLE);
+        TABLE.getReader(RoutingResponse.class).readValue(tree.toString());
+    }
+
+}
@@ -0,0 +1,118 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.SyntheticCorpusWriter;
+import at.ac.ait.ariadne.routeformat.example.SyntheticRouteGenerator;
+
+public class NdjsonReaderTest {
+
+    private static final int RESPONSES = 30;
+
+    private static byte[] createCorpus() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SyntheticCorpusWriter(new SyntheticRouteGenerator(5)).write(out, RESPONSES);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void roundTripTest() throws IOException {
+        byte[] corpus = createCorpus();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (NdjsonReader<RoutingResponse> reader = NdjsonReader.forResponses(new ByteArrayInputStream(corpus));
+                NdjsonWriter<RoutingResponse> writer = NdjsonWriter.forResponses(out)) {
+            while (reader.hasNext())
+                writer.write(reader.next());
+            Assert.assertEquals(RESPONSES, reader.getRead());
+            Assert.assertEquals(RESPONSES, writer.getWritten());
+        }
+        Assert.assertArrayEquals(corpus, out.toByteArray());
+    }
+
+    @Test
+    public void keyFilterTest() throws IOException {
+        try (NdjsonReader<RoutingResponse> reader = NdjsonReader.forResponses(new ByteArrayInputStream(
+                createCorpus())).setKeyFilter(id -> id.endsWith("7"))) {
+            List<String> ids = new ArrayList<>();
+            RoutingResponse response;
+            while ((response = reader.read()) != null)
+                ids.add(response.getRequestId());
+            Assert.assertEquals(3, ids.size());
+            Assert.assertTrue(ids.stream().allMatch(id -> id.endsWith("7")));
+            Assert.assertEquals(RESPONSES - 3, reader.getSkipped());
+        }
+    }
+
+    @Test
+    public void keyAfterOtherPropertiesTest() throws IOException {
+        Route route = new SyntheticRouteGenerator(5).createResponse(0).getRoutes().get(0).setId(null);
+        String json = RouteFormatMapper.getDefault().getWriter(Route.class).writeValueAsString(route);
+        String idFirst = "{\"id\":\"first\"," + json.substring(1);
+        String idLast = json.substring(0, json.length() - 1) + ",\"id\":\"last\"}";
+        String noId = json;
+        String ndjson = idFirst + "\n" + idLast + "\n" + noId + "\n" + idLast + "\n";
+
+        try (NdjsonReader<Route> reader = NdjsonReader.forRoutes(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))).setKeyFilter(
+                        id -> id == null || id.equals("last"))) {
+            Route last = reader.next();
+            Assert.assertEquals("last", last.getId().get());
+            Assert.assertEquals(route.getSegments().size(), last.getSegments().size());
+            Assert.assertEquals(route.getEndTime(), last.getEndTime());
+            Assert.assertFalse(reader.next().getId().isPresent());
+            Assert.assertEquals("last", reader.next().getId().get());
+            Assert.assertFalse(reader.hasNext());
+            Assert.assertEquals(1, reader.getSkipped());
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void invalidDocumentTest() throws IOException {
+        try (NdjsonReader<RoutingResponse> reader = NdjsonReader.forResponses(
+                new ByteArrayInputStream("[1,2]\n".getBytes(StandardCharsets.UTF_8)))) {
+            reader.hasNext();
+        }
+    }
+
+    @Test
+    public void concurrentReadersTest() throws InterruptedException, ExecutionException, IOException {
+        byte[] corpus = createCorpus();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> {
+                    try (NdjsonReader<RoutingResponse> reader = NdjsonReader
+                            .forResponses(new ByteArrayInputStream(corpus))) {
+                        List<RoutingResponse> responses = new ArrayList<>();
+                        reader.forEachRemaining(responses::add);
+                        return responses.stream().map(RoutingResponse::getRequestId).collect(Collectors.toList());
+                    }
+                }));
+            }
+            List<String> expected = new SyntheticRouteGenerator(5).createResponses(0, RESPONSES)
+                    .map(RoutingResponse::getRequestId).collect(Collectors.toList());
+            for (Future<List<String>> future : futures)
+                Assert.assertEquals(expected, future.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
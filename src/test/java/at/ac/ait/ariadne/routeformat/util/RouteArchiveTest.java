@@ -0,0 +1,184 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.SyntheticRouteGenerator;
+
+public class RouteArchiveTest {
+
+    private static final int RESPONSES = 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<RoutingResponse> createResponses() {
+        List<RoutingResponse> responses = new SyntheticRouteGenerator(11).setAlternatives(2)
+                .createResponses(0, RESPONSES).collect(Collectors.toList());
+        for (RoutingResponse response : responses)
+            for (Route route : response.getRoutes())
+                route.setId(response.getRequestId() + "/" + route.getId().get());
+        return responses;
+    }
+
+    private static String toJson(Object value) throws IOException {
+        return RouteFormatMapper.getDefault().getWriter(value.getClass()).writeValueAsString(value);
+    }
+
+    private static String toString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Path writeArchive(List<RoutingResponse> responses) throws IOException {
+        Path data = folder.getRoot().toPath().resolve("responses.ndjson");
+        // two sessions to check appending to an existing archive
+        try (RouteArchive.Writer writer = RouteArchive.append(data)) {
+            for (RoutingResponse response : responses.subList(0, RESPONSES / 2))
+                writer.append(response);
+        }
+        try (RouteArchive.Writer writer = RouteArchive.append(data)) {
+            for (RoutingResponse response : responses.subList(RESPONSES / 2, RESPONSES))
+                writer.append(response);
+            Assert.assertEquals(RESPONSES - RESPONSES / 2, writer.getAppended());
+        }
+        return data;
+    }
+
+    @Test
+    public void randomAccessTest() throws IOException {
+        List<RoutingResponse> responses = createResponses();
+        Path data = writeArchive(responses);
+        Assert.assertEquals(RESPONSES, Files.readAllLines(data).size());
+
+        try (RouteArchive archive = RouteArchive.open(data)) {
+            Assert.assertEquals(RESPONSES, archive.getRequestIds().size());
+            Assert.assertEquals(RESPONSES * 2, archive.getRouteIds().size());
+            for (RoutingResponse response : responses) {
+                Assert.assertEquals(toJson(response), toJson(archive.getResponse(response.getRequestId()).get()));
+                Assert.assertEquals(toJson(response), toString(archive.getResponseJson(response.getRequestId())
+                        .get()));
+                for (Route route : response.getRoutes())
+                    Assert.assertEquals(toJson(route), toJson(archive.getRoute(route.getId().get()).get()));
+            }
+            Assert.assertFalse(archive.getResponse("missing").isPresent());
+            Assert.assertFalse(archive.getRoute("missing").isPresent());
+        }
+    }
+
+    @Test
+    public void smallRegionsTest() throws IOException {
+        List<RoutingResponse> responses = createResponses();
+        Path data = writeArchive(responses);
+        // most responses span several regions and must be mapped separately
+        try (RouteArchive archive = new RouteArchive(data, RouteFormatMapper.getDefault(), 4096)) {
+            for (RoutingResponse response : responses) {
+                Assert.assertEquals(toJson(response), toJson(archive.getResponse(response.getRequestId()).get()));
+                for (Route route : response.getRoutes())
+                    Assert.assertEquals(toJson(route), toJson(archive.getRoute(route.getId().get()).get()));
+            }
+        }
+    }
+
+    @Test
+    public void incompleteIndexTest() throws IOException {
+        List<RoutingResponse> responses = createResponses();
+        Path data = writeArchive(responses);
+        Path index = RouteArchive.getIndexPath(data);
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (RouteArchive archive = RouteArchive.open(data)) {
+            RoutingResponse last = responses.get(RESPONSES - 1);
+            Assert.assertEquals(RESPONSES, archive.getRequestIds().size());
+            Assert.assertTrue(archive.getRouteIds().contains(last.getRoutes().get(0).getId().get()));
+            Assert.assertFalse(archive.getRouteIds().contains(last.getRoutes().get(1).getId().get()));
+        }
+    }
+
+    @Test
+    public void appendAfterIncompleteIndexTest() throws IOException {
+        List<RoutingResponse> responses = createResponses();
+        Path data = folder.getRoot().toPath().resolve("responses.ndjson");
+        Path index = RouteArchive.getIndexPath(data);
+        try (RouteArchive.Writer writer = RouteArchive.append(data)) {
+            writer.append(responses.get(0));
+        }
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (RouteArchive.Writer writer = RouteArchive.append(data)) {
+            writer.append(responses.get(1));
+        }
+        try (RouteArchive archive = RouteArchive.open(data)) {
+            Assert.assertEquals(2, archive.getRequestIds().size());
+            for (Route route : responses.get(1).getRoutes())
+                Assert.assertEquals(toJson(route), toJson(archive.getRoute(route.getId().get()).get()));
+            Assert.assertFalse(archive.getRouteIds().contains(responses.get(0).getRoutes().get(1).getId().get()));
+        }
+    }
+
+    @Test
+    public void incompleteHeaderTest() throws IOException {
+        List<RoutingResponse> responses = createResponses();
+        Path data = folder.newFile("data.ndjson").toPath();
+        // header of a new index was only partially written
+        Files.write(RouteArchive.getIndexPath(data), new byte[] { 0x41, 0x52, 0x49 });
+        try (RouteArchive.Writer writer = RouteArchive.append(data)) {
+            writer.append(responses.get(0));
+        }
+        try (RouteArchive archive = RouteArchive.open(data)) {
+            Assert.assertEquals(toJson(responses.get(0)),
+                    toJson(archive.getResponse(responses.get(0).getRequestId()).get()));
+        }
+    }
+
+    @Test
+    public void tooLongIdTest() throws IOException {
+        List<RoutingResponse> responses = createResponses();
+        Path data = folder.getRoot().toPath().resolve("responses.ndjson");
+        char[] id = new char[40000];
+        Arrays.fill(id, '\u00e4');
+        responses.get(1).getRoutes().get(1).setId(new String(id));
+        try (RouteArchive.Writer writer = RouteArchive.append(data)) {
+            writer.append(responses.get(0));
+            try {
+                writer.append(responses.get(1));
+                Assert.fail("too long route id must not be accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            writer.append(responses.get(2));
+        }
+        try (RouteArchive archive = RouteArchive.open(data)) {
+            Assert.assertEquals(2, archive.getRequestIds().size());
+            Assert.assertFalse(archive.getResponse(responses.get(1).getRequestId()).isPresent());
+            for (Route route : responses.get(2).getRoutes())
+                Assert.assertEquals(toJson(route), toJson(archive.getRoute(route.getId().get()).get()));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void notAnIndexTest() throws IOException {
+        Path data = folder.newFile("data.ndjson").toPath();
+        Files.write(RouteArchive.getIndexPath(data), "{}\n".getBytes(StandardCharsets.UTF_8));
+        RouteArchive.open(data);
+    }
+
+}
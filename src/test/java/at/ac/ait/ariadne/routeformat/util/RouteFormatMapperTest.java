@@ -0,0 +1,100 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RoutingRequest;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class RouteFormatMapperTest {
+
+    @Test
+    public void cachedReadersAndWritersTest() {
+        RouteFormatMapper mapper = RouteFormatMapper.getDefault();
+        Assert.assertSame(mapper, RouteFormatMapper.getDefault());
+        Assert.assertSame(mapper.getReader(Route.class), mapper.getReader(Route.class));
+        Assert.assertSame(mapper.getWriter(Route.class), mapper.getWriter(Route.class));
+        Assert.assertSame(mapper.getPrettyWriter(Route.class), mapper.getPrettyWriter(Route.class));
+        Assert.assertNotSame(mapper.getWriter(Route.class), mapper.getPrettyWriter(Route.class));
+    }
+
+    @Test
+    public void sameOutputAsObjectMapperTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        RouteFormatMapper mapper = RouteFormatMapper.getDefault();
+        Assert.assertEquals(objectMapper.writeValueAsString(response),
+                mapper.getWriter(RoutingResponse.class).writeValueAsString(response));
+        String pretty = objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(response);
+        Assert.assertEquals(pretty, mapper.getPrettyWriter(RoutingResponse.class).writeValueAsString(response));
+        Assert.assertEquals(pretty, Utils.getJsonString(response));
+    }
+
+    @Test
+    public void roundTripTest() throws IOException {
+        Route route = Route.createFromSegments(Arrays.asList(TestUtil.createTestRouteSegment(TestUtil.START_TIME,
+                TestUtil.END_TIME)));
+        RouteFormatMapper mapper = RouteFormatMapper.create(new RouteFormatModule());
+        String json = mapper.getWriter(Route.class).writeValueAsString(route);
+        Route parsed = mapper.getReader(Route.class).readValue(json);
+        Assert.assertEquals(json, mapper.getWriter(Route.class).writeValueAsString(parsed));
+    }
+
+    @Test
+    public void binaryRoundTripTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        RouteFormatMapper json = RouteFormatMapper.getDefault();
+        RouteFormatMapper binary = RouteFormatMapper.getBinary();
+        String expected = json.getPrettyWriter().writeValueAsString(response);
+
+        byte[] encoded = binary.getWriter(RoutingResponse.class).writeValueAsBytes(response);
+        Assert.assertTrue(encoded.length < expected.length() / 2);
+        RoutingResponse decoded = binary.getReader(RoutingResponse.class).readValue(encoded);
+        Assert.assertEquals(expected, json.getPrettyWriter().writeValueAsString(decoded));
+        Assert.assertArrayEquals(encoded, binary.getPrettyWriter(RoutingResponse.class).writeValueAsBytes(decoded));
+
+        // JSON -> binary -> JSON without the object model
+        ByteArrayOutputStream transcoded = new ByteArrayOutputStream();
+        try (JsonParser p = json.getFactory().createParser(expected);
+                JsonGenerator gen = binary.getFactory().createGenerator(transcoded)) {
+            RouteFormatMapper.transcode(p, gen);
+        }
+        StringWriter backToJson = new StringWriter();
+        try (JsonParser p = binary.getFactory().createParser(transcoded.toByteArray());
+                JsonGenerator gen = json.getFactory().createGenerator(backToJson).useDefaultPrettyPrinter()) {
+            RouteFormatMapper.transcode(p, gen);
+        }
+        Assert.assertEquals(expected, backToJson.toString());
+
+        RoutingRequest request = response.getRequest().get();
+        byte[] encodedRequest = binary.getWriter(RoutingRequest.class).writeValueAsBytes(request);
+        Assert.assertEquals(json.getWriter().writeValueAsString(request), json.getWriter()
+                .writeValueAsString(binary.getReader(RoutingRequest.class).readValue(encodedRequest)));
+    }
+
+    @Test
+    public void binaryWithModulesTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        byte[] expected = RouteFormatMapper.getBinary().getWriter().writeValueAsBytes(response);
+        RouteFormatMapper binary = RouteFormatMapper.createBinary(new RouteFormatModule(), new LazyParsingModule());
+        Assert.assertArrayEquals(expected, binary.getWriter().writeValueAsBytes(response));
+        RoutingResponse lazy = binary.getReader(RoutingResponse.class).readValue(expected);
+        Assert.assertArrayEquals(expected, binary.getWriter().writeValueAsBytes(lazy));
+        Assert.assertEquals(response.getRoutes().get(0).getSegments().get(1).getGeometryGeoJson(),
+                lazy.getRoutes().get(0).getSegments().get(1).getGeometryGeoJson());
+    }
+
+}
@@ -0,0 +1,89 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeatureCollection;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONMultiPolygon;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPoint;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONPolygon;
+
+public class RouteFormatModuleTest {
+
+    private static final ObjectMapper DEFAULT = new ObjectMapper().findAndRegisterModules();
+    private static final ObjectMapper MODULE = new ObjectMapper().findAndRegisterModules()
+            .registerModule(new RouteFormatModule());
+
+    @Test
+    public void exampleOutputIdenticalTest() throws IOException {
+        assertSameOutput(new IntermodalRouteExample().getRoutingResponse());
+    }
+
+    @Test
+    public void optionalPropertiesOutputIdenticalTest() throws IOException {
+        RouteSegment segment = TestUtil.createTestRouteSegment(TestUtil.START_TIME, TestUtil.END_TIME)
+                .setBoardingSeconds(5).setAlightingSeconds(10).setGeometryEncodedPolyLine("abc")
+                .setBoundingBox(GeoJSONFeature.createPolygonFeatureFromRings(Arrays.asList(
+                        GeoJSONCoordinate.create("1", "1"), GeoJSONCoordinate.create("1", "2", "3.0"),
+                        GeoJSONCoordinate.create("2", "2"), GeoJSONCoordinate.create("1", "1")),
+                        Collections.emptyList()))
+                .setGeometryGeoJsonEdges(GeoJSONFeatureCollection.create(Arrays.asList(TestUtil.GEOMETRY_GEOJSON,
+                        new GeoJSONFeature<GeoJSONLineString>().setGeometry(new GeoJSONLineString()))));
+        Route route = Route.createFromSegments(Arrays.asList(segment)).setId("id").setOptimizedFor("speed")
+                .setSimplifiedGeometryEncodedPolyLine("xyz").setSimplifiedGeometryGeoJson(TestUtil.GEOMETRY_GEOJSON)
+                .setAdditionalInfo(Collections.singletonMap("key", "value"));
+        RoutingResponse response = new RoutingResponse().setRouteFormatVersion("1").setRequestId("r")
+                .setProcessedTimeNow().setDebugMessage("debug").setDefaultCoordinateReferenceSystem()
+                .setRoutes(Arrays.asList(route));
+        assertSameOutput(response);
+    }
+
+    @Test
+    public void geometriesOutputIdenticalTest() throws IOException {
+        GeoJSONPolygon polygon = GeoJSONPolygon.create(Arrays.asList(Arrays.asList(GeoJSONCoordinate.create("0", "0"),
+                GeoJSONCoordinate.create("0", "1E+3"), GeoJSONCoordinate.create("1.000", "0.00000001"),
+                GeoJSONCoordinate.create("0", "0"))));
+        assertSameOutput(new GeoJSONPoint());
+        assertSameOutput(GeoJSONFeature.createPointFeature(GeoJSONCoordinate.create("-16.4", "-0.000001")));
+        assertSameOutput(new GeoJSONFeature<GeoJSONPoint>());
+        assertSameOutput(polygon);
+        assertSameOutput(GeoJSONFeature.createPolygonFeature(polygon));
+        assertSameOutput(GeoJSONMultiPolygon.create(Arrays.asList(polygon.getCoordinates(), polygon.getCoordinates())));
+        assertSameOutput(GeoJSONLineString.create(Arrays.asList(
+                GeoJSONCoordinate.create("123456789012345678901234567890", "1"), GeoJSONCoordinate.create("2", "3"))));
+        assertSameOutput(new GeoJSONFeatureCollection<GeoJSONPolygon>());
+    }
+
+    @Test
+    public void plainBigDecimalOutputIdenticalTest() throws IOException {
+        GeoJSONFeature<GeoJSONLineString> feature = GeoJSONFeature.createLineStringFeature(
+                Arrays.asList(GeoJSONCoordinate.create("1E+3", "1E-9"), GeoJSONCoordinate.create("2.5", "0E-7")));
+        ObjectMapper plainDefault = DEFAULT.copy().enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        ObjectMapper plainModule = MODULE.copy().enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        Assert.assertEquals(plainDefault.writeValueAsString(feature), plainModule.writeValueAsString(feature));
+        Assert.assertEquals(DEFAULT.writeValueAsString(feature), MODULE.writeValueAsString(feature));
+    }
+
+    private static void assertSameOutput(Object value) throws IOException {
+        Assert.assertEquals(DEFAULT.writeValueAsString(value), MODULE.writeValueAsString(value));
+        Assert.assertEquals(DEFAULT.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(value),
+                MODULE.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(value));
+    }
+
+}
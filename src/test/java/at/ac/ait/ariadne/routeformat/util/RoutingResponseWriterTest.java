@@ -0,0 +1,79 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class RoutingResponseWriterTest {
+
+    @Test
+    public void sameOutputAsCompleteResponseTest() throws IOException {
+        RouteFormatMapper mapper = RouteFormatMapper.getDefault();
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        assertSameOutput(response, mapper.getWriter());
+        assertSameOutput(response, mapper.getPrettyWriter());
+        assertSameOutput(response, RouteFormatMapper.create(new RouteFormatModule()).getPrettyWriter());
+    }
+
+    private static void assertSameOutput(RoutingResponse response, ObjectWriter writer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Route> routes = response.getRoutes();
+        try (RoutingResponseWriter responseWriter = new RoutingResponseWriter(out, writer)) {
+            response.setRoutes(new ArrayList<>());
+            responseWriter.writeHeader(response);
+            for (int i = 0; i < routes.size(); i++) {
+                Route route = routes.get(i);
+                if (i % 2 == 1) {
+                    responseWriter.writeRoute(route);
+                    continue;
+                }
+                List<RouteSegment> segments = route.getSegments();
+                route.setSegments(new ArrayList<>());
+                responseWriter.startRoute(route);
+                for (RouteSegment segment : segments)
+                    responseWriter.writeSegment(segment);
+                responseWriter.endRoute();
+                route.setSegments(segments);
+            }
+        } finally {
+            response.setRoutes(routes);
+        }
+        Assert.assertEquals(writer.writeValueAsString(response), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void closeFinishesDocumentTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse().setRoutes(new ArrayList<>());
+        Route route = Route.createFromLocation(response.getRequest().get().getFrom(),
+                response.getProcessedTimeAsZonedDateTime());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RoutingResponseWriter responseWriter = new RoutingResponseWriter(out)) {
+            responseWriter.writeHeader(response).startRoute(route);
+        }
+        String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        RoutingResponse parsed = RouteFormatMapper.getDefault().getReader(RoutingResponse.class).readValue(json);
+        Assert.assertEquals(1, parsed.getRoutes().size());
+        Assert.assertEquals(response.getRequestId(), parsed.getRequestId());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void segmentWithoutRouteTest() throws IOException {
+        try (RoutingResponseWriter responseWriter = new RoutingResponseWriter(new ByteArrayOutputStream())) {
+            responseWriter.writeHeader(new IntermodalRouteExample().getRoutingResponse().setRoutes(new ArrayList<>()));
+            responseWriter.writeSegment(new IntermodalRouteExample().getFootSegment());
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package at.ac.ait.ariadne.routeformat.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.RoutingResponse;
+import at.ac.ait.ariadne.routeformat.example.IntermodalRouteExample;
+
+public class SnapshotTest {
+
+    @Test
+    public void sameJsonTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        String expected = RouteFormatMapper.getDefault().getWriter().writeValueAsString(response);
+        Snapshot<RoutingResponse> snapshot = response.freeze();
+        Assert.assertEquals(expected, snapshot.toJson());
+        Assert.assertTrue(snapshot.size() < expected.length() / 2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.writeJson(out);
+        Assert.assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertEquals(expected, RouteFormatMapper.getDefault().getWriter().writeValueAsString(snapshot.thaw()));
+
+        Route route = response.getRoutes().get(0);
+        Assert.assertEquals(RouteFormatMapper.getDefault().getWriter().writeValueAsString(route),
+                route.freeze().toJson());
+    }
+
+    @Test
+    public void immutableTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        Snapshot<RoutingResponse> snapshot = response.freeze();
+        String json = snapshot.toJson();
+
+        response.setRequestId("changed");
+        snapshot.thaw().setDebugMessage("changed");
+        snapshot.toBinary()[0] = 0;
+        Assert.assertEquals(json, snapshot.toJson());
+        Assert.assertNotEquals(snapshot, response.freeze());
+    }
+
+    @Test
+    public void readViewTest() throws IOException {
+        RoutingResponse response = new IntermodalRouteExample().getRoutingResponse();
+        Snapshot<RoutingResponse> snapshot = response.freeze();
+        Route route = response.getRoutes().get(0);
+        RouteSegment second = route.getSegments().get(1);
+
+        Assert.assertEquals(response.getRequestId(), snapshot.getString("requestId").get());
+        Assert.assertEquals(response.getRoutes().size(), snapshot.getList("routes").size());
+        Assert.assertEquals(route.getSegments().size(), snapshot.getList("routes", 0, "segments").size());
+        Assert.assertEquals(second.getDistanceMeters(),
+                snapshot.getNumber("routes", 0, "segments", 1, "distanceMeters").get().intValue());
+        Assert.assertEquals(second.getModeOfTransport().getGeneralizedType().name(),
+                snapshot.getString("routes", 0, "segments", 1, "modeOfTransport", "generalizedType").get());
+        Assert.assertEquals(second.getStartTime(), snapshot.getString("routes", 0, "segments", 1, "startTime").get());
+        Assert.assertFalse(snapshot.get("routes", 99).isPresent());
+        Assert.assertFalse(snapshot.get("requestId", "nested").isPresent());
+        Assert.assertSame(snapshot.getRoot(), snapshot.getRoot());
+
+        // equal leaf values are shared
+        Object to = snapshot.get("routes", 0, "segments", 0, "to", "coordinate", "geometry", "coordinates").get();
+        Object from = snapshot.get("routes", 0, "segments", 1, "from", "coordinate", "geometry", "coordinates").get();
+        Assert.assertEquals(to, from);
+        Assert.assertSame(to, from);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readViewIsImmutableTest() throws IOException {
+        Snapshot<RoutingResponse> snapshot = new IntermodalRouteExample().getRoutingResponse().freeze();
+        snapshot.getList("routes").clear();
+    }
+
+    @Test
+    public void equalsTest() throws IOException {
+        Snapshot<RoutingResponse> snapshot = new IntermodalRouteExample().getRoutingResponse().freeze();
+        Snapshot<RoutingResponse> other = new IntermodalRouteExample().getRoutingResponse().freeze();
+        Assert.assertEquals(snapshot, other);
+        Assert.assertEquals(snapshot.hashCode(), other.hashCode());
+        Assert.assertEquals(snapshot, Snapshot.of(snapshot.thaw()));
+    }
+
+}
@@ -1,11 +1,23 @@
 package at.ac.ait.ariadne.routeformat.util;
 
+import java.math.BigDecimal;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import at.ac.ait.ariadne.routeformat.Route;
+import at.ac.ait.ariadne.routeformat.RouteSegment;
+import at.ac.ait.ariadne.routeformat.TestUtil;
+import at.ac.ait.ariadne.routeformat.geojson.Envelope;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONCoordinate;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeature;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONFeatureCollection;
+import at.ac.ait.ariadne.routeformat.geojson.GeoJSONLineString;
+
 public class UtilsTest {
 
     @Test
@@ -14,4 +26,50 @@ public class UtilsTest {
         Assert.assertEquals("2017-12-31T23:00:00+01:00", Utils.getDateTimeString(time));
     }
 
+    @Test
+    public void parseDateTimeTest() {
+        ZonedDateTime time = Utils.parseDateTime("2017-12-31T23:00:00+01:00", "time");
+        Assert.assertEquals(ZonedDateTime.parse("2017-12-31T23:00:00+01:00"), time);
+        Assert.assertSame(ZoneOffset.ofHours(1), time.getZone());
+        Assert.assertEquals(ZonedDateTime.parse("2017-12-31T22:00:00Z"),
+                Utils.parseDateTime("2017-12-31T22:00:00Z", "time"));
+        Assert.assertEquals(ZonedDateTime.parse("2017-12-31T23:00:00+01:00[Europe/Vienna]"),
+                Utils.parseDateTime("2017-12-31T23:00:00.5+01:00[Europe/Vienna]", "time"));
+        for (String invalid : new String[] { null, "2017-12-32T23:00:00+01:00", "31.12.2017 23:00" }) {
+            try {
+                Utils.parseDateTime(invalid, "time");
+                Assert.fail("expected exception for " + invalid);
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage().startsWith("time "));
+            }
+        }
+    }
+
+    @Test
+    public void boundingBoxTest() {
+        RouteSegment first = TestUtil.createTestRouteSegment(TestUtil.START_TIME, TestUtil.END_TIME);
+        GeoJSONLineString edge = GeoJSONLineString.create(Arrays.asList(GeoJSONCoordinate.create("16.0050", "47.99"),
+                GeoJSONCoordinate.create("16.006", "48.005")));
+        RouteSegment second = TestUtil.createTestRouteSegment(TestUtil.START_TIME, TestUtil.END_TIME)
+                .setGeometryGeoJson(GeoJSONFeature.createLineStringFeature(Arrays.asList(
+                        GeoJSONCoordinate.create("16.01", "48.01"), GeoJSONCoordinate.create("16.020", "48.005"))))
+                .setGeometryGeoJsonEdges(GeoJSONFeatureCollection.create(Arrays.asList(
+                        GeoJSONFeature.createLineStringFeature(edge))));
+
+        Envelope envelope = Utils.getEnvelope(Arrays.asList(first, second)).get();
+        Assert.assertEquals(new BigDecimal("16"), envelope.getMinX());
+        Assert.assertEquals(new BigDecimal("47.99"), envelope.getMinY());
+        Assert.assertEquals(new BigDecimal("16.020"), envelope.getMaxX());
+        Assert.assertEquals(new BigDecimal("48.01"), envelope.getMaxY());
+        Assert.assertSame(edge.getEnvelope().get(), edge.getEnvelope().get());
+
+        Route route = new Route().setSegments(Arrays.asList(first, second));
+        Utils.fillBoundingBoxes(route);
+        Assert.assertEquals(envelope.toBoundingBox(), route.getBoundingBox().get());
+        Assert.assertEquals(first.getEnvelope().get().toBoundingBox(), first.getBoundingBox().get());
+        Assert.assertEquals(Utils.getBoundingBoxFromGeometryGeoJson(Arrays.asList(first, second)),
+                route.getBoundingBox());
+        Assert.assertFalse(Utils.getEnvelope(Arrays.asList(new RouteSegment())).isPresent());
+    }
+
 }